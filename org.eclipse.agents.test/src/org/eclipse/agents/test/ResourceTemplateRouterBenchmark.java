@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.agents.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.agents.contexts.ResourceTemplateRouter;
+import org.eclipse.agents.contexts.adapters.IResourceTemplate;
+
+import io.modelcontextprotocol.spec.McpSchema.ResourceLink;
+import io.modelcontextprotocol.util.DefaultMcpUriTemplateManager;
+
+/**
+ * Compares resolving uris through {@link ResourceTemplateRouter} with testing each adapter's
+ * templates in turn through {@link DefaultMcpUriTemplateManager}, as the server used to.
+ *
+ * Run as a Java application, optional arguments: iterations, number of extra adapters
+ */
+public class ResourceTemplateRouterBenchmark {
+
+	static class Adapter implements IResourceTemplate<String, String> {
+
+		String[] templates;
+		String[] prefixes;
+
+		Adapter(String[] templates, String... prefixes) {
+			this.templates = templates;
+			this.prefixes = prefixes;
+		}
+
+		@Override
+		public String toJson() {
+			return null;
+		}
+
+		@Override
+		public IResourceTemplate<String, String> fromUri(String uri) {
+			return this;
+		}
+
+		@Override
+		public IResourceTemplate<String, String> fromUri(String uri, Map<String, String> variables) {
+			return this;
+		}
+
+		@Override
+		public IResourceTemplate<String, String> fromModel(String object) {
+			return this;
+		}
+
+		@Override
+		public String[] getTemplates() {
+			return templates;
+		}
+
+		@Override
+		public String[] getPrefixes() {
+			return prefixes;
+		}
+
+		@Override
+		public String getModel() {
+			return null;
+		}
+
+		@Override
+		public ResourceLink toResourceLink() {
+			return null;
+		}
+
+		@Override
+		public String toUri() {
+			return null;
+		}
+
+		@Override
+		public String toContent() {
+			return null;
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+		int extra = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+		List<IResourceTemplate<?, ?>> adapters = new ArrayList<IResourceTemplate<?, ?>>();
+		adapters.add(new Adapter(new String[] { "eclipse://console/{name}" }));
+		adapters.add(new Adapter(new String[] { "eclipse://editor/{name}" }));
+		// contributed adapters, added ahead of the workspace adapter so it is tested last
+		for (int i = 0; i < extra; i++) {
+			adapters.add(new Adapter(new String[] { "eclipse://contributed" + i + "/{project}/{name}" }));
+		}
+		adapters.add(new Adapter(new String[] { "file://workspace/{relativePath}" }, "file://workspace/", "file:/"));
+
+		String[] uris = new String[] {
+			"eclipse://console/Console%201",
+			"eclipse://editor/Tools.java",
+			"eclipse://contributed" + (extra / 2) + "/project/name",
+			"file://workspace/project%2Fsrc%2FMain.java",
+			"file://workspace/project/src/Main.java",
+			"file:/home/user/workspace/project/src/Main.java",
+			"unknown://nothing/here"
+		};
+
+		ResourceTemplateRouter router = new ResourceTemplateRouter(adapters);
+
+		// warm up both
+		for (int i = 0; i < iterations / 10; i++) {
+			linear(adapters, uris[i % uris.length]);
+			router.resolve(uris[i % uris.length]);
+		}
+
+		long start = System.nanoTime();
+		int found = 0;
+		for (int i = 0; i < iterations; i++) {
+			if (linear(adapters, uris[i % uris.length]) != null) {
+				found++;
+			}
+		}
+		long linear = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		int routed = 0;
+		for (int i = 0; i < iterations; i++) {
+			if (router.resolve(uris[i % uris.length]) != null) {
+				routed++;
+			}
+		}
+		long trie = System.nanoTime() - start;
+
+		System.out.println(adapters.size() + " adapters, " + router.size() + " routes, " + iterations + " lookups");
+		System.out.println("linear: " + (linear / iterations) + " ns/lookup, resolved " + found);
+		System.out.println("router: " + (trie / iterations) + " ns/lookup, resolved " + routed);
+		System.out.println("speedup: " + String.format("%.1f", (double)linear / trie) + "x");
+	}
+
+	/**
+	 * Previous resolution, a template manager and regular expression per adapter and lookup
+	 */
+	static IResourceTemplate<?, ?> linear(List<IResourceTemplate<?, ?>> adapters, String uri) {
+		for (IResourceTemplate<?, ?> adapter: adapters) {
+			for (String template: adapter.getTemplates()) {
+				DefaultMcpUriTemplateManager tm = new DefaultMcpUriTemplateManager(template);
+				if (tm.matches(uri)) {
+					tm.extractVariableValues(uri);
+					return adapter.fromUri(uri);
+				}
+			}
+			for (String prefix: adapter.getPrefixes()) {
+				if (uri.startsWith(prefix)) {
+					return adapter.fromUri(uri);
+				}
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.agents.test.plugin;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.agents.MCPException;
+import org.eclipse.agents.contexts.platform.resource.ChildrenQuery;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Children;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.DEPTH;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.File;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+/**
+ * Checks the pages {@link ChildrenQuery} lists, and that following their cursors lists every
+ * member once, in the workspace tree's order.
+ */
+@TestInstance(Lifecycle.PER_CLASS)
+public final class ChildrenQueryTest {
+
+	static final List<String> ALL = List.of("a.txt", "b", "c.txt", "d", "e.txt", "f.java");
+
+	IProject project;
+	// listed instead of the project, which also holds its .project file
+	IFolder tree;
+
+	@BeforeAll
+	public void setup() throws CoreException {
+		IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		project = workspace.getRoot().getProject("Paging");
+		tree = project.getFolder("tree");
+		workspace.run(monitor -> {
+			if (project.exists()) {
+				project.delete(true, null);
+			}
+			project.create(null);
+			project.open(null);
+			tree.create(true, true, null);
+			create(tree.getFile("a.txt"), "alpha");
+			tree.getFolder("b").create(true, true, null);
+			create(tree.getFile("b/c.txt"), "gamma");
+			tree.getFolder("b/d").create(true, true, null);
+			create(tree.getFile("b/d/e.txt"), "epsilon");
+			create(tree.getFile("f.java"), "class F {}");
+			IFile derived = tree.getFile("g.txt");
+			create(derived, "generated");
+			derived.setDerived(true, null);
+		}, null);
+	}
+
+	@AfterAll
+	public void cleanup() throws CoreException {
+		project.delete(true, null);
+	}
+
+	static void create(IFile file, String content) throws CoreException {
+		file.create(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), true, null);
+	}
+
+	static List<String> names(Children<File> children) {
+		List<String> names = new ArrayList<String>();
+		for (File file: children.children()) {
+			names.add(file.name());
+		}
+		return names;
+	}
+
+	List<String> list(DEPTH depth, String include, String exclude) {
+		Children<File> children = new ChildrenQuery(null, null, include, exclude, null).list(tree, depth);
+		Assert.assertNull(children.nextCursor());
+		return names(children);
+	}
+
+	@Test
+	@DisplayName("Depths list parents before their children and skip derived members")
+	public void depths() {
+		Assert.assertEquals(List.of("a.txt", "b", "f.java"), list(DEPTH.CHILDREN, null, null));
+		Assert.assertEquals(List.of("a.txt", "b", "c.txt", "d", "f.java"), list(DEPTH.GRANDCHILDREN, null, null));
+		Assert.assertEquals(ALL, list(DEPTH.INFINITE, null, null));
+		Assert.assertEquals(List.of("a.txt", "b", "f.java"), list(null, null, null));
+	}
+
+	@Test
+	@DisplayName("Following the cursors lists every member once")
+	public void paging() {
+		for (int limit = 1; limit <= ALL.size() + 1; limit++) {
+			List<String> names = new ArrayList<String>();
+			String cursor = null;
+			int pages = 0;
+			do {
+				Children<File> page = new ChildrenQuery(limit, cursor, null, null, null).list(tree, DEPTH.INFINITE);
+				Assert.assertTrue(page.children().length <= limit);
+				names.addAll(names(page));
+				cursor = page.nextCursor();
+				pages++;
+			} while (cursor != null);
+			Assert.assertEquals(ALL, names);
+			Assert.assertEquals((ALL.size() + limit - 1) / limit, pages);
+		}
+
+		Children<File> page = new ChildrenQuery(2, null, null, null, null).list(tree, DEPTH.INFINITE);
+		Assert.assertEquals("/Paging/tree/b", page.nextCursor());
+		page = new ChildrenQuery(2, page.nextCursor(), null, null, null).list(tree, DEPTH.INFINITE);
+		Assert.assertEquals(List.of("c.txt", "d"), names(page));
+		Assert.assertEquals("/Paging/tree/b/d", page.nextCursor());
+	}
+
+	@Test
+	@DisplayName("Cursors skip members listed before them when filtered")
+	public void pagingFiltered() {
+		List<String> names = new ArrayList<String>();
+		String cursor = null;
+		do {
+			Children<File> page = new ChildrenQuery(1, cursor, "*.txt", null, null).list(tree, DEPTH.INFINITE);
+			names.addAll(names(page));
+			cursor = page.nextCursor();
+		} while (cursor != null);
+		Assert.assertEquals(List.of("a.txt", "c.txt", "e.txt"), names);
+	}
+
+	@Test
+	@DisplayName("Globs match names, or relative paths when they contain a slash")
+	public void globs() {
+		Assert.assertEquals(List.of("a.txt", "c.txt", "e.txt"), list(DEPTH.INFINITE, "*.txt", null));
+		Assert.assertEquals(List.of("a.txt", "f.java"), list(DEPTH.INFINITE, "*.{txt,java}", "b"));
+		Assert.assertEquals(List.of("c.txt", "d", "e.txt"), list(DEPTH.INFINITE, "b/**", null));
+		Assert.assertEquals(List.of("e.txt"), list(DEPTH.INFINITE, "**/d/*", null));
+		Assert.assertEquals(List.of("a.txt", "b", "c.txt", "f.java"), list(DEPTH.INFINITE, null, "d"));
+		Assert.assertEquals(List.of("a.txt"), list(DEPTH.INFINITE, "?.txt", "b"));
+	}
+
+	@Test
+	@DisplayName("Sizes are only read when asked for")
+	public void sizes() {
+		File file = new ChildrenQuery(1, null, null, null, true).list(tree, DEPTH.CHILDREN).children()[0];
+		Assert.assertEquals("a.txt", file.name());
+		Assert.assertFalse(file.isFolder());
+		Assert.assertEquals(Long.valueOf(5), file.uri().size());
+		Assert.assertEquals(tree.getFile("a.txt").getLocationURI().toString(), file.uri().uri());
+
+		file = new ChildrenQuery(1, null, null, null, false).list(tree, DEPTH.CHILDREN).children()[0];
+		Assert.assertNull(file.uri().size());
+	}
+
+	@Test
+	@DisplayName("A limit must be positive")
+	public void invalid() {
+		Assert.assertThrows(MCPException.class, () -> new ChildrenQuery(0, null, null, null, null));
+		Assert.assertThrows(MCPException.class, () -> new ChildrenQuery(-1, null, null, null, null));
+	}
+}
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.agents.test.plugin;
+
+import org.eclipse.agents.MCPException;
+import org.eclipse.agents.contexts.platform.resource.ContentReader;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Content;
+import org.eclipse.jface.text.Document;
+import org.junit.Assert;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+/**
+ * Checks the ranges {@link ContentReader} reads from strings and documents, and that their
+ * cursors continue where a range stopped.
+ */
+@TestInstance(Lifecycle.PER_CLASS)
+public final class ContentReaderTest {
+
+	static final String URI = "file://workspace/project%2FREADME.md";
+	static final String TEXT = "line0\nline1\nline2\n";
+	static final String PAIR = "a😀b";
+
+	static ContentReader reader(Integer offset, Integer length, Integer startLine, Integer lineCount, String cursor) {
+		return new ContentReader(offset, length, startLine, lineCount, cursor);
+	}
+
+	static void assertContent(String text, int offset, int startLine, String nextCursor, Content content) {
+		Assert.assertEquals(URI, content.uri());
+		Assert.assertEquals(text, content.text());
+		Assert.assertEquals(offset, content.offset());
+		Assert.assertEquals(startLine, content.startLine());
+		Assert.assertEquals(nextCursor, content.nextCursor());
+	}
+
+	@Test
+	@DisplayName("Offset and length select characters and return the cursor after them")
+	public void offsetAndLength() {
+		assertContent(TEXT, 0, 0, null, new ContentReader().read(URI, TEXT));
+		assertContent("line1", 6, 1, "11:1", reader(6, 5, null, null, null).read(URI, TEXT));
+		assertContent("line2\n", 12, 2, null, reader(12, 100, null, null, null).read(URI, TEXT));
+		assertContent("", 18, 3, null, reader(50, null, null, null, null).read(URI, TEXT));
+	}
+
+	@Test
+	@DisplayName("Start line and line count select whole lines")
+	public void startLineAndLineCount() {
+		assertContent("line1\n", 6, 1, "12:2", reader(null, null, 1, 1, null).read(URI, TEXT));
+		assertContent("line1\nline2\n", 6, 1, null, reader(null, null, 1, 5, null).read(URI, TEXT));
+		// the start line wins over the offset
+		assertContent("line2\n", 12, 2, null, reader(3, null, 2, null, null).read(URI, TEXT));
+		assertContent("", 18, 3, null, reader(null, null, 7, null, null).read(URI, TEXT));
+	}
+
+	@Test
+	@DisplayName("Following the cursors reads the whole content once")
+	public void paging() {
+		StringBuilder text = new StringBuilder();
+		String cursor = null;
+		int pages = 0;
+		do {
+			Content content = reader(null, 4, null, null, cursor).read(URI, TEXT);
+			Assert.assertEquals(text.length(), content.offset());
+			text.append(content.text());
+			cursor = content.nextCursor();
+			pages++;
+		} while (cursor != null);
+		Assert.assertEquals(TEXT, text.toString());
+		Assert.assertEquals(5, pages);
+
+		text.setLength(0);
+		pages = 0;
+		do {
+			Content content = reader(null, null, null, 1, cursor).read(URI, TEXT);
+			Assert.assertEquals(pages, content.startLine());
+			text.append(content.text());
+			cursor = content.nextCursor();
+			pages++;
+		} while (cursor != null);
+		Assert.assertEquals(TEXT, text.toString());
+		Assert.assertEquals(3, pages);
+	}
+
+	@Test
+	@DisplayName("The limit counts UTF-8 bytes")
+	public void limit() {
+		assertContent("éé", 0, 0, "2:0", new ContentReader().setLimit(5).read(URI, "ééééé"));
+		assertContent("ab", 0, 0, "2:0", new ContentReader().setLimit(5).read(URI, "ab😀"));
+	}
+
+	@Test
+	@DisplayName("A range ends before a surrogate pair rather than split it")
+	public void surrogatePairs() {
+		assertContent("a", 0, 0, "1:0", reader(0, 2, null, null, null).read(URI, PAIR));
+		assertContent("😀", 1, 0, "3:0", reader(null, 2, null, null, "1:0").read(URI, PAIR));
+		// a pair alone is read whole, even when longer than the range
+		assertContent("😀", 1, 0, "3:0", reader(null, 1, null, null, "1:0").read(URI, PAIR));
+		assertContent(PAIR, 0, 0, null, reader(0, 4, null, null, null).read(URI, PAIR));
+	}
+
+	@Test
+	@DisplayName("Documents read the same ranges as their text")
+	public void documents() {
+		ContentReader[] readers = new ContentReader[] {
+			new ContentReader(),
+			reader(6, 5, null, null, null),
+			reader(null, null, 1, 1, null),
+			reader(null, 4, null, null, "12:2"),
+			reader(0, 2, null, null, null),
+			reader(null, 1, null, null, "1:0")
+		};
+		for (ContentReader reader: readers) {
+			Assert.assertEquals(reader.read(URI, TEXT), reader.read(URI, new Document(TEXT)));
+		}
+		for (ContentReader reader: new ContentReader[] { readers[4], readers[5], reader(0, 4, null, null, null) }) {
+			Assert.assertEquals(reader.read(URI, PAIR), reader.read(URI, new Document(PAIR)));
+		}
+	}
+
+	@Test
+	@DisplayName("Negative ranges and malformed cursors are rejected")
+	public void invalid() {
+		Assert.assertThrows(MCPException.class, () -> reader(-1, null, null, null, null));
+		Assert.assertThrows(MCPException.class, () -> reader(null, -1, null, null, null));
+		Assert.assertThrows(MCPException.class, () -> reader(null, null, null, null, "x").read(URI, TEXT));
+		Assert.assertThrows(MCPException.class, () -> reader(null, null, null, null, "-1:0").read(URI, TEXT));
+	}
+}
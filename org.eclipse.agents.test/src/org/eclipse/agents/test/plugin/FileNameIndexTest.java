@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.agents.test.plugin;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.agents.contexts.platform.index.FileNameIndex;
+import org.eclipse.agents.contexts.platform.index.FileNameIndex.Match;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+/**
+ * Checks how the {@link FileNameIndex} ranks file names, and that narrowing the previous
+ * results while a query is typed finds the same files as searching them all.
+ */
+@TestInstance(Lifecycle.PER_CLASS)
+public final class FileNameIndexTest {
+
+	static final String[] PATHS = new String[] {
+		"src/Foo.java",
+		"src/FooBar.java",
+		"src/BarFoo.java",
+		"src/FancyOldObject.java",
+		"src/foo/Bar.java",
+		"docs/foo.txt",
+		"lib/foo.bin"
+	};
+
+	FileNameIndex index;
+	IProject project;
+
+	@BeforeAll
+	public void setup() throws CoreException, InterruptedException {
+		index = FileNameIndex.getDefault();
+		index.start();
+
+		IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		project = workspace.getRoot().getProject("Names");
+		workspace.run(monitor -> {
+			if (project.exists()) {
+				project.delete(true, null);
+			}
+			project.create(null);
+			project.open(null);
+			for (String folder: new String[] { "src", "src/foo", "docs", "lib" }) {
+				project.getFolder(folder).create(true, true, null);
+			}
+			for (String path: PATHS) {
+				project.getFile(path).create(new ByteArrayInputStream(new byte[0]), true, null);
+			}
+		}, null);
+
+		long end = System.currentTimeMillis() + 30000;
+		while (index.isIndexing() && System.currentTimeMillis() < end) {
+			Thread.sleep(100);
+		}
+		Assert.assertFalse(index.toString(), index.isIndexing());
+	}
+
+	@AfterAll
+	public void cleanup() throws CoreException {
+		project.delete(true, null);
+	}
+
+	List<String> find(String query, boolean textOnly, int limit) {
+		List<String> paths = new ArrayList<String>();
+		for (Match match: index.find("Names", query, textOnly, limit)) {
+			Assert.assertEquals("Names", match.entry().project());
+			paths.add(match.entry().path());
+		}
+		return paths;
+	}
+
+	/**
+	 * Searches all files, as another query in between leaves nothing to narrow
+	 */
+	List<String> findAll(String query) {
+		index.find("Names", "zzz", true, 1);
+		return find(query, false, 10);
+	}
+
+	@Test
+	@DisplayName("Names starting with the query rank first, then substrings, then scattered characters")
+	public void ranking() {
+		Assert.assertEquals(List.of("lib/foo.bin", "docs/foo.txt", "src/Foo.java", "src/FooBar.java", "src/BarFoo.java",
+				"src/FancyOldObject.java"), findAll("foo"));
+		// word starts and runs of characters in the name
+		Assert.assertEquals(List.of("src/FooBar.java", "lib/foo.bin", "src/FancyOldObject.java"), findAll("fob"));
+		Assert.assertEquals(List.of("src/FancyOldObject.java"), findAll("fold"));
+	}
+
+	@Test
+	@DisplayName("Queries with a slash match the whole path")
+	public void paths() {
+		Assert.assertEquals(List.of("src/foo/Bar.java"), findAll("foo/"));
+		Assert.assertEquals(List.of("src/foo/Bar.java"), findAll("src/foo/b"));
+		Assert.assertEquals(List.of("docs/foo.txt"), findAll("doc/foo"));
+		Assert.assertEquals(List.of(), findAll("Bar/foo"));
+	}
+
+	@Test
+	@DisplayName("Typing a query narrows the previous matches to those of a full search")
+	public void narrowing() {
+		for (String query: new String[] { "src/foo/bar", "fancy.java", "foo.t" }) {
+			List<List<String>> typed = new ArrayList<List<String>>();
+			index.find("Names", "zzz", true, 1);
+			for (int i = 0; i <= query.length(); i++) {
+				typed.add(find(query.substring(0, i), false, 10));
+			}
+			for (int i = 0; i <= query.length(); i++) {
+				Assert.assertEquals(query.substring(0, i), findAll(query.substring(0, i)), typed.get(i));
+			}
+		}
+
+		// matching paths instead of names does not narrow the matches of the name
+		index.find("Names", "zzz", true, 1);
+		Assert.assertFalse(find("foo", false, 10).contains("src/foo/Bar.java"));
+		Assert.assertEquals(List.of("src/foo/Bar.java"), find("foo/", false, 10));
+	}
+
+	@Test
+	@DisplayName("Limits keep the best matches and text only leaves out binary files")
+	public void limits() {
+		Assert.assertEquals(List.of("lib/foo.bin", "docs/foo.txt"), find("foo", false, 2));
+		Assert.assertEquals(List.of("docs/foo.txt", "src/Foo.java", "src/FooBar.java", "src/BarFoo.java",
+				"src/FancyOldObject.java"), find("foo", true, 10));
+		Assert.assertEquals(List.of(), index.find("Missing", "foo", false, 10));
+	}
+}
@@ -0,0 +1,261 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.agents.test.plugin;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.agents.MCPException;
+import org.eclipse.agents.contexts.platform.index.MarkerIndex;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Marker;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Problems;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.SEVERITY;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.api.TestMethodOrder;
+
+/**
+ * Checks the problems the {@link MarkerIndex} lists for a resource, page by page and as deltas
+ * since a token.
+ */
+@TestInstance(Lifecycle.PER_CLASS)
+@TestMethodOrder(OrderAnnotation.class)
+public final class MarkerIndexTest {
+
+	MarkerIndex index;
+	IProject project;
+	IFile a, b, c;
+	// ids in the order they are listed, by path and then id
+	List<Long> ids = new ArrayList<Long>();
+
+	@BeforeAll
+	public void setup() throws CoreException {
+		index = MarkerIndex.getDefault();
+
+		IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		project = workspace.getRoot().getProject("Markers");
+		workspace.run(monitor -> {
+			if (project.exists()) {
+				project.delete(true, null);
+			}
+			project.create(null);
+			project.open(null);
+			project.getFolder("my folder").create(true, true, null);
+			project.getFolder("my folder2").create(true, true, null);
+			b = create(project.getFile("b.txt"));
+			a = create(project.getFile("my folder/a.txt"));
+			c = create(project.getFile("my folder2/c.txt"));
+		}, null);
+
+		for (int i = 0; i < 2; i++) {
+			ids.add(marker(b, IMarker.SEVERITY_WARNING));
+		}
+		for (int i = 0; i < 5; i++) {
+			ids.add(marker(a, IMarker.SEVERITY_ERROR));
+		}
+		ids.add(marker(c, IMarker.SEVERITY_INFO));
+	}
+
+	@AfterAll
+	public void cleanup() throws CoreException {
+		project.delete(true, null);
+	}
+
+	static IFile create(IFile file) throws CoreException {
+		file.create(new ByteArrayInputStream("problems\n".getBytes(StandardCharsets.UTF_8)), true, null);
+		return file;
+	}
+
+	static long marker(IResource resource, int severity) throws CoreException {
+		return resource.createMarker(IMarker.PROBLEM, Map.of(
+				IMarker.SEVERITY, severity,
+				IMarker.MESSAGE, "Problem of " + resource.getName())).getId();
+	}
+
+	static List<Long> ids(Marker[] markers) {
+		List<Long> ids = new ArrayList<Long>();
+		for (Marker marker: markers) {
+			ids.add(marker.id());
+		}
+		return ids;
+	}
+
+	@Test
+	@Order(1)
+	@DisplayName("Markers of a resource and below it are listed by path and id")
+	public void list() {
+		Problems problems = index.getProblems(project, null, null, null, null, null);
+		Assert.assertEquals(ids, ids(problems.problems()));
+		Assert.assertNull(problems.nextCursor());
+		Assert.assertNull(problems.removed());
+		Assert.assertNotNull(problems.token());
+
+		// a sibling sharing the folder's name as prefix is not below it
+		Assert.assertEquals(ids.subList(2, 7), ids(index.getProblems(project.getFolder("my folder"), null, null, null, null, null).problems()));
+		Assert.assertEquals(ids.subList(0, 2), ids(index.getProblems(b, null, null, null, null, null).problems()));
+	}
+
+	@Test
+	@Order(2)
+	@DisplayName("Severity and type filter the listing")
+	public void filters() {
+		Assert.assertEquals(ids.subList(2, 7), ids(index.getProblems(project, SEVERITY.ERROR, null, null, null, null).problems()));
+		Assert.assertEquals(ids.subList(0, 7), ids(index.getProblems(project, SEVERITY.WARNING, null, null, null, null).problems()));
+		Assert.assertEquals(ids, ids(index.getProblems(project, SEVERITY.INFO, IMarker.PROBLEM, null, null, null).problems()));
+		Assert.assertEquals(List.of(), ids(index.getProblems(project, null, "org.eclipse.jdt.core.problem", null, null, null).problems()));
+	}
+
+	@Test
+	@Order(3)
+	@DisplayName("Following the cursors lists every marker once")
+	public void paging() {
+		for (int limit = 1; limit <= ids.size() + 1; limit++) {
+			List<Long> listed = new ArrayList<Long>();
+			String cursor = null;
+			int pages = 0;
+			do {
+				Problems page = index.getProblems(project, null, null, limit, cursor, null);
+				Assert.assertTrue(page.problems().length <= limit);
+				listed.addAll(ids(page.problems()));
+				cursor = page.nextCursor();
+				pages++;
+			} while (cursor != null);
+			Assert.assertEquals(ids, listed);
+			Assert.assertEquals((ids.size() + limit - 1) / limit, pages);
+		}
+
+		List<Long> listed = new ArrayList<Long>();
+		String cursor = null;
+		do {
+			Problems page = index.getProblems(project, SEVERITY.ERROR, null, 2, cursor, null);
+			listed.addAll(ids(page.problems()));
+			cursor = page.nextCursor();
+		} while (cursor != null);
+		Assert.assertEquals(ids.subList(2, 7), listed);
+	}
+
+	@Test
+	@Order(4)
+	@DisplayName("Cursors hold the listing's version and the last marker's id and path")
+	public void cursors() {
+		Problems first = index.getProblems(project, null, null, 2, null, null);
+		String version = first.token().substring(first.token().lastIndexOf('.') + 1);
+		Assert.assertEquals(version + ":" + ids.get(1) + ":/Markers/b.txt", first.nextCursor());
+
+		Problems second = index.getProblems(project, null, null, 2, first.nextCursor(), null);
+		Assert.assertEquals(first.token(), second.token());
+		Assert.assertEquals(version + ":" + ids.get(3) + ":/Markers/my folder/a.txt", second.nextCursor());
+
+		Assert.assertThrows(MCPException.class, () -> index.getProblems(project, null, null, 2, "x", null));
+		Assert.assertThrows(MCPException.class, () -> index.getProblems(project, null, null, 2, "1:x:/Markers", null));
+		Assert.assertThrows(MCPException.class, () -> index.getProblems(project, null, null, 0, null, null));
+	}
+
+	@Test
+	@Order(5)
+	@DisplayName("Markers of a resource share one link, without the size that changes with the file")
+	public void links() {
+		Marker[] problems = index.getProblems(a, null, null, null, null, null).problems();
+		for (Marker problem: problems) {
+			Assert.assertSame(problems[0].resource_link(), problem.resource_link());
+			Assert.assertNull(problem.resource_link().size());
+		}
+		Assert.assertEquals("a.txt", problems[0].resource_link().name());
+	}
+
+	static List<Long> ids(long[] removed) {
+		List<Long> ids = new ArrayList<Long>();
+		for (long id: removed) {
+			ids.add(id);
+		}
+		return ids;
+	}
+
+	@Test
+	@Order(6)
+	@DisplayName("Deltas report markers that leave the filter as removed and those that enter it as changed")
+	public void deltas() throws CoreException {
+		String token = index.getProblems(project, SEVERITY.ERROR, null, null, null, null).token();
+		String all = index.getProblems(project, null, null, null, null, null).token();
+		Assert.assertEquals(token, all);
+
+		a.findMarker(ids.get(2)).setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_WARNING);
+		b.findMarker(ids.get(0)).setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_ERROR);
+		a.findMarker(ids.get(3)).delete();
+		a.findMarker(ids.get(4)).setAttribute(IMarker.MESSAGE, "Changed");
+		long error = marker(a, IMarker.SEVERITY_ERROR);
+		long warning = marker(a, IMarker.SEVERITY_WARNING);
+		// added and removed again, the client never had it
+		a.findMarker(marker(a, IMarker.SEVERITY_ERROR)).delete();
+
+		Problems delta = index.getProblems(project, SEVERITY.ERROR, null, null, null, token);
+		Assert.assertEquals(List.of(ids.get(0), ids.get(4), error), ids(delta.problems()));
+		Assert.assertEquals(List.of(ids.get(2), ids.get(3)), ids(delta.removed()));
+		Assert.assertNull(delta.nextCursor());
+
+		delta = index.getProblems(project, null, null, null, null, all);
+		Assert.assertEquals(List.of(ids.get(0), ids.get(2), ids.get(4), error, warning), ids(delta.problems()));
+		Assert.assertEquals(List.of(ids.get(3)), ids(delta.removed()));
+
+		delta = index.getProblems(project, SEVERITY.ERROR, null, null, null, delta.token());
+		Assert.assertEquals(0, delta.problems().length);
+		Assert.assertEquals(0, delta.removed().length);
+
+		// pages of a delta hold markers and removals together, up to the limit
+		List<Long> listed = new ArrayList<Long>(), removed = new ArrayList<Long>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			Problems page = index.getProblems(project, SEVERITY.ERROR, null, 1, cursor, token);
+			Assert.assertEquals(1, page.problems().length + page.removed().length);
+			listed.addAll(ids(page.problems()));
+			removed.addAll(ids(page.removed()));
+			cursor = page.nextCursor();
+			pages++;
+		} while (cursor != null);
+		Assert.assertEquals(List.of(ids.get(0), ids.get(4), error), listed);
+		Assert.assertEquals(List.of(ids.get(2), ids.get(3)), removed);
+		Assert.assertEquals(5, pages);
+	}
+
+	@Test
+	@Order(7)
+	@DisplayName("Tokens of another session or from the future are rejected")
+	public void tokens() {
+		String token = index.getProblems(project, null, null, null, null, null).token();
+		String epoch = token.substring(0, token.lastIndexOf('.'));
+		long version = Long.parseLong(token.substring(token.lastIndexOf('.') + 1));
+		Assert.assertThrows(MCPException.class, () -> index.getProblems(project, null, null, null, null, "bogus." + version));
+		Assert.assertThrows(MCPException.class, () -> index.getProblems(project, null, null, null, null, epoch + "." + (version + 1000)));
+		Assert.assertThrows(MCPException.class, () -> index.getProblems(project, null, null, null, null, epoch + ".x"));
+	}
+}
@@ -0,0 +1,222 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.agents.test.plugin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.agents.contexts.ResourceTemplateRouter;
+import org.eclipse.agents.contexts.ResourceTemplateRouter.Route;
+import org.eclipse.agents.contexts.adapters.IResourceTemplate;
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import io.modelcontextprotocol.spec.McpSchema.ResourceLink;
+import io.modelcontextprotocol.util.DefaultMcpUriTemplateManager;
+
+/**
+ * Checks {@link ResourceTemplateRouter} resolves uris to the same adapters as testing each
+ * adapter's templates in turn through {@link DefaultMcpUriTemplateManager}, as the server used to.
+ */
+@TestInstance(Lifecycle.PER_CLASS)
+public final class ResourceTemplateRouterTest {
+
+	static class Adapter implements IResourceTemplate<String, String> {
+
+		String[] templates;
+		String[] prefixes;
+
+		Adapter(String[] templates, String... prefixes) {
+			this.templates = templates;
+			this.prefixes = prefixes;
+		}
+
+		@Override
+		public String toJson() {
+			return null;
+		}
+
+		@Override
+		public IResourceTemplate<String, String> fromUri(String uri) {
+			return this;
+		}
+
+		@Override
+		public IResourceTemplate<String, String> fromModel(String object) {
+			return this;
+		}
+
+		@Override
+		public String[] getTemplates() {
+			return templates;
+		}
+
+		@Override
+		public String[] getPrefixes() {
+			return prefixes;
+		}
+
+		@Override
+		public String getModel() {
+			return null;
+		}
+
+		@Override
+		public ResourceLink toResourceLink() {
+			return null;
+		}
+
+		@Override
+		public String toUri() {
+			return null;
+		}
+
+		@Override
+		public String toContent() {
+			return null;
+		}
+
+		@Override
+		public String toString() {
+			return String.join(",", templates);
+		}
+	}
+
+	static final String[] URIS = new String[] {
+		"eclipse://console/Console%201",
+		"eclipse://editor/Tools.java",
+		"eclipse://editor/",
+		"eclipse://editor/src/Tools.java",
+		"eclipse://contributed3/project/name",
+		"eclipse://contributed3/project",
+		"eclipse://contributed12/project/name",
+		"file://workspace/project%2Fsrc%2FMain.java",
+		"file://workspace/project/src/Main.java",
+		"file:/home/user/workspace/project/src/Main.java",
+		"unknown://nothing/here",
+		""
+	};
+
+	List<IResourceTemplate<?, ?>> adapters;
+	Adapter console, editor, workspace;
+	ResourceTemplateRouter router;
+
+	@BeforeAll
+	public void setup() {
+		adapters = new ArrayList<IResourceTemplate<?, ?>>();
+		adapters.add(console = new Adapter(new String[] { "eclipse://console/{name}" }));
+		adapters.add(editor = new Adapter(new String[] { "eclipse://editor/{name}" }));
+		for (int i = 0; i < 20; i++) {
+			adapters.add(new Adapter(new String[] { "eclipse://contributed" + i + "/{project}/{name}" }));
+		}
+		adapters.add(workspace = new Adapter(new String[] { "file://workspace/{relativePath}" }, "file://workspace/", "file:/"));
+		router = new ResourceTemplateRouter(adapters);
+	}
+
+	/**
+	 * Previous resolution, a template manager and regular expression per adapter and lookup
+	 */
+	static IResourceTemplate<?, ?> linear(List<IResourceTemplate<?, ?>> adapters, String uri) {
+		for (IResourceTemplate<?, ?> adapter: adapters) {
+			for (String template: adapter.getTemplates()) {
+				if (new DefaultMcpUriTemplateManager(template).matches(uri)) {
+					return adapter.fromUri(uri);
+				}
+			}
+			for (String prefix: adapter.getPrefixes()) {
+				if (uri.startsWith(prefix)) {
+					return adapter.fromUri(uri);
+				}
+			}
+		}
+		return null;
+	}
+
+	@Test
+	@DisplayName("Every uri resolves to the adapter the linear matcher finds")
+	public void sameAsLinear() {
+		Assert.assertEquals(25, router.size());
+		for (String uri: URIS) {
+			Assert.assertSame(uri, linear(adapters, uri), router.resolve(uri));
+		}
+		Assert.assertSame(console, router.resolve(URIS[0]));
+		Assert.assertSame(editor, router.resolve(URIS[1]));
+		Assert.assertSame(adapters.get(5), router.resolve("eclipse://contributed3/project/name"));
+		Assert.assertSame(adapters.get(14), router.resolve("eclipse://contributed12/project/name"));
+	}
+
+	@Test
+	@DisplayName("The first registered of overlapping templates wins")
+	public void precedence() {
+		Adapter any = new Adapter(new String[] { "eclipse://{kind}/{name}" });
+		Adapter specific = new Adapter(new String[] { "eclipse://editor/{name}" });
+		Adapter prefix = new Adapter(new String[0], "eclipse://");
+
+		List<IResourceTemplate<?, ?>> ordered = List.of(any, specific, prefix);
+		ResourceTemplateRouter first = new ResourceTemplateRouter(ordered);
+		Assert.assertSame(any, first.resolve("eclipse://editor/Tools.java"));
+		Assert.assertSame(linear(ordered, "eclipse://editor/Tools.java"), first.resolve("eclipse://editor/Tools.java"));
+		Assert.assertSame(prefix, first.resolve("eclipse://editor/src/Tools.java"));
+
+		List<IResourceTemplate<?, ?>> reversed = List.of(prefix, specific, any);
+		ResourceTemplateRouter last = new ResourceTemplateRouter(reversed);
+		Assert.assertSame(prefix, last.resolve("eclipse://editor/Tools.java"));
+		Assert.assertEquals(Map.of(), last.route("eclipse://editor/Tools.java").variables());
+
+		List<IResourceTemplate<?, ?>> swapped = List.of(specific, any);
+		ResourceTemplateRouter middle = new ResourceTemplateRouter(swapped);
+		Assert.assertSame(specific, middle.resolve("eclipse://editor/Tools.java"));
+		Assert.assertSame(any, middle.resolve("eclipse://console/Console"));
+	}
+
+	@Test
+	@DisplayName("Uris no template or prefix accepts resolve to null")
+	public void noMatch() {
+		Assert.assertNull(router.route("unknown://nothing/here"));
+		Assert.assertNull(router.resolve("eclipse://console/"));
+		Assert.assertNull(router.resolve("eclipse://console/a/b"));
+		Assert.assertNull(router.resolve("eclipse://contributed3/project"));
+		Assert.assertNull(router.resolve("eclipse:"));
+		Assert.assertNull(router.resolve(null));
+		Assert.assertNull(new ResourceTemplateRouter(List.of()).resolve("eclipse://editor/Tools.java"));
+	}
+
+	@Test
+	@DisplayName("Encoded segments match one variable and stay undecoded")
+	public void encodedSegments() {
+		Route route = router.route("file://workspace/project%2Fsrc%2FMain.java");
+		Assert.assertSame(workspace, route.adapter());
+		Assert.assertEquals(Map.of("relativePath", "project%2Fsrc%2FMain.java"), route.variables());
+
+		route = router.route("eclipse://console/Console%201");
+		Assert.assertSame(console, route.adapter());
+		Assert.assertEquals(Map.of("name", "Console%201"), route.variables());
+
+		// unencoded separators fall back to the prefix, without variables
+		route = router.route("file://workspace/project/src/Main.java");
+		Assert.assertSame(workspace, route.adapter());
+		Assert.assertEquals(Map.of(), route.variables());
+
+		route = router.route("eclipse://contributed7/my%20project/Main%2Ejava");
+		Assert.assertSame(adapters.get(9), route.adapter());
+		Assert.assertEquals("my%20project", route.variables().get("project"));
+		Assert.assertEquals("Main%2Ejava", route.variables().get("name"));
+	}
+}
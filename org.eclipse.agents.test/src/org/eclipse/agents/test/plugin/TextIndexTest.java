@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.agents.test.plugin;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.agents.MCPException;
+import org.eclipse.agents.contexts.platform.index.TextIndex;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.SearchMatch;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.SearchResults;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.api.TestMethodOrder;
+
+/**
+ * Checks searches of the {@link TextIndex} find the lines a scan of every file finds, before and
+ * after files change.  Queries use words no other test project contains.
+ */
+@TestInstance(Lifecycle.PER_CLASS)
+@TestMethodOrder(OrderAnnotation.class)
+public final class TextIndexTest {
+
+	TextIndex index;
+	IProject search, other;
+
+	@BeforeAll
+	public void setup() throws CoreException, InterruptedException {
+		index = TextIndex.getDefault();
+		index.start();
+
+		IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		search = workspace.getRoot().getProject("Search");
+		other = workspace.getRoot().getProject("SearchOther");
+		workspace.run(monitor -> {
+			for (IProject project: new IProject[] { search, other }) {
+				if (project.exists()) {
+					project.delete(true, null);
+				}
+				project.create(null);
+				project.open(null);
+			}
+			create(search.getFile("Alpha.java"), "class Alpha {\n\tString greeting = \"Zebrafish Quokka\";\n}\n");
+			create(search.getFile("notes.txt"), "zebrafish there\nZEBRAFISH again\nnothing\n");
+			create(search.getFile("data.bin"), "Zebrafish Quokka\0");
+			IFile derived = search.getFile("derived.txt");
+			create(derived, "Zebrafish Quokka");
+			derived.setDerived(true, null);
+			create(other.getFile("Other.java"), "// Zebrafish  Quokka\n");
+		}, null);
+		await();
+	}
+
+	@AfterAll
+	public void cleanup() throws CoreException {
+		search.delete(true, null);
+		other.delete(true, null);
+	}
+
+	static void create(IFile file, String content) throws CoreException {
+		file.create(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), true, null);
+	}
+
+	void await() throws InterruptedException {
+		long end = System.currentTimeMillis() + 30000;
+		while (index.isIndexing() && System.currentTimeMillis() < end) {
+			Thread.sleep(100);
+		}
+		Assert.assertFalse(index.toString(), index.isIndexing());
+	}
+
+	static List<String> lines(SearchResults results) {
+		List<String> lines = new ArrayList<String>();
+		for (SearchMatch match: results.matches()) {
+			lines.add(match.file().name() + ":" + match.line() + ":" + match.text());
+		}
+		return lines;
+	}
+
+	List<String> find(String query, boolean regex, boolean caseSensitive, String project) {
+		return lines(index.search(query, regex, caseSensitive, project, null));
+	}
+
+	@Test
+	@Order(1)
+	@DisplayName("Literal queries match case insensitively unless asked otherwise")
+	public void literal() {
+		Assert.assertEquals(List.of("Alpha.java:1:\tString greeting = \"Zebrafish Quokka\";"),
+				find("zebrafish quokka", false, false, "Search"));
+		Assert.assertEquals(List.of("Alpha.java:1:\tString greeting = \"Zebrafish Quokka\";",
+				"notes.txt:0:zebrafish there", "notes.txt:1:ZEBRAFISH again"), find("zebrafish", false, false, "Search"));
+		Assert.assertEquals(List.of("notes.txt:1:ZEBRAFISH again"), find("ZEBRAFISH", false, true, "Search"));
+		Assert.assertEquals(List.of(), find("Zebrafish.Quokka", false, false, "Search"));
+	}
+
+	@Test
+	@Order(2)
+	@DisplayName("Projects scope the search, binary and derived files are not searched")
+	public void scope() {
+		Assert.assertEquals(List.of("Other.java:0:// Zebrafish  Quokka"), find("Zebrafish  Quokka", false, true, "SearchOther"));
+		Assert.assertEquals(List.of("Alpha.java:1:\tString greeting = \"Zebrafish Quokka\";", "Other.java:0:// Zebrafish  Quokka"),
+				find("Zebrafish\\s+Quokka", true, true, null));
+		Assert.assertEquals(List.of(), find("Zebrafish Quokka", false, true, "Missing"));
+	}
+
+	@Test
+	@Order(3)
+	@DisplayName("Regular expressions are narrowed by their literals and verified")
+	public void regex() {
+		Assert.assertEquals(List.of("Alpha.java:1:\tString greeting = \"Zebrafish Quokka\";"),
+				find("Zebra(fish)? Quok+a", true, true, "Search"));
+		Assert.assertEquals(List.of("notes.txt:0:zebrafish there", "notes.txt:1:ZEBRAFISH again"),
+				find("^zebrafish (there|again)$", true, false, "Search"));
+		// without a literal of three characters every file is a candidate
+		Assert.assertEquals(List.of("notes.txt:2:nothing"), find("^no.h", true, true, "Search"));
+		Assert.assertEquals(List.of("notes.txt:0:zebrafish there", "notes.txt:2:nothing"),
+				find("there|nothing", true, true, "Search"));
+		// the arguments of escapes are not literals
+		for (String query: new String[] { "\\x5Aebrafish Quokka", "\\x{5A}ebrafish Quokka", "\\u005Aebrafish Quokka",
+				"\\0132ebrafish Quokka", "(?<q>\")Zebrafish Quokka\\k<q>" }) {
+			Assert.assertEquals(query, List.of("Alpha.java:1:\tString greeting = \"Zebrafish Quokka\";"),
+					find(query, true, true, "Search"));
+		}
+	}
+
+	@Test
+	@Order(4)
+	@DisplayName("Matches stop at the limit")
+	public void limit() {
+		SearchResults results = index.search("zebrafish", false, false, "Search", 2);
+		Assert.assertEquals(2, results.matches().length);
+		Assert.assertTrue(results.truncated());
+		results = index.search("zebrafish", false, false, "Search", 3);
+		Assert.assertEquals(3, results.matches().length);
+		Assert.assertFalse(results.truncated());
+	}
+
+	@Test
+	@Order(5)
+	@DisplayName("Changed and removed files are searched by their current content")
+	public void changes() throws CoreException, InterruptedException {
+		IFile notes = search.getFile("notes.txt");
+		notes.setContents(new ByteArrayInputStream("wombat here\n".getBytes(StandardCharsets.UTF_8)), true, false, null);
+		Assert.assertEquals(List.of("notes.txt:0:wombat here"), find("wombat", false, false, "Search"));
+		await();
+		Assert.assertEquals(List.of("notes.txt:0:wombat here"), find("wombat", false, false, "Search"));
+		Assert.assertEquals(List.of("Alpha.java:1:\tString greeting = \"Zebrafish Quokka\";"),
+				find("zebrafish", false, false, "Search"));
+
+		create(search.getFile("Beta.java"), "class Beta { /* wombat */ }\n");
+		search.getFile("Alpha.java").delete(true, null);
+		await();
+		Assert.assertEquals(List.of("Beta.java:0:class Beta { /* wombat */ }", "notes.txt:0:wombat here"),
+				find("wombat", false, false, "Search"));
+		Assert.assertEquals(List.of(), find("zebrafish", false, false, "Search"));
+
+		other.close(null);
+		await();
+		Assert.assertEquals(List.of(), find("Zebrafish", false, false, "SearchOther"));
+		other.open(null);
+		await();
+		Assert.assertEquals(List.of("Other.java:0:// Zebrafish  Quokka"), find("Zebrafish", false, false, "SearchOther"));
+	}
+
+	@Test
+	@DisplayName("Empty queries, invalid expressions and limits are rejected")
+	public void invalid() {
+		Assert.assertThrows(MCPException.class, () -> index.search("", false, false, null, null));
+		Assert.assertThrows(MCPException.class, () -> index.search("(unclosed", true, false, null, null));
+		Assert.assertThrows(MCPException.class, () -> index.search("zebrafish", false, false, null, 0));
+	}
+}
@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.agents.test.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.agents.chat.transcripts.TranscriptIndex;
+import org.eclipse.agents.chat.transcripts.TranscriptIndex.Transcript;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.api.TestMethodOrder;
+
+/**
+ * Checks the turns the {@link TranscriptIndex} finds as transcripts are added, once their segments
+ * are merged and after a restart.  The index is kept in a temporary folder, and a restart opens
+ * another index on the same folder.
+ */
+@TestInstance(Lifecycle.PER_CLASS)
+@TestMethodOrder(OrderAnnotation.class)
+public final class TranscriptIndexTest {
+
+	static final int BATCH = 256;
+
+	String run = "run" + System.currentTimeMillis();
+	String sessionId = "session-" + run;
+	File folder;
+	TranscriptIndex index;
+
+	@BeforeAll
+	public void setup() throws IOException, InterruptedException {
+		folder = Files.createTempDirectory("transcripts").toFile();
+		index = new TranscriptIndex(folder);
+		await();
+	}
+
+	@AfterAll
+	public void cleanup() {
+		index.dispose();
+		for (File file: folder.listFiles()) {
+			file.delete();
+		}
+		folder.delete();
+	}
+
+	void reopen() throws InterruptedException {
+		index.dispose();
+		index = new TranscriptIndex(folder);
+		await();
+	}
+
+	void await() throws InterruptedException {
+		long end = System.currentTimeMillis() + 30000;
+		while (index.isIndexing() && System.currentTimeMillis() < end) {
+			Thread.sleep(100);
+		}
+		Assert.assertFalse(index.toString(), index.isIndexing());
+	}
+
+	/**
+	 * @return the turns found, by their index
+	 */
+	List<Integer> turns(String query, Integer limit) {
+		List<Integer> turns = new ArrayList<Integer>();
+		for (Transcript transcript: index.search(query, limit)) {
+			Assert.assertEquals(sessionId, transcript.sessionId());
+			turns.add(transcript.turn());
+		}
+		return turns;
+	}
+
+	@Test
+	@Order(1)
+	@DisplayName("Added turns are found by all their words, most recent first")
+	public void add() {
+		index.add(sessionId, 0, "Why does the " + run + " build fail?\nThe zebrafish test times out.");
+		index.add(sessionId, 1, "Rename " + run + " zebrafish to numbat");
+		index.add(sessionId, 2, "Explain " + run + " wallaby");
+		index.add(sessionId, 3, " \n ");
+
+		Assert.assertEquals(List.of(1, 0), turns(run + " zebrafish ", null));
+		Assert.assertEquals(List.of(1), turns("ZEBRAFISH, numbat " + run + " ", null));
+		Assert.assertEquals(List.of(2, 1, 0), turns(run, null));
+		Assert.assertEquals(List.of(2, 1), turns(run, 2));
+		Assert.assertEquals(List.of(), turns(run + " zebrafish wallaby ", null));
+		Assert.assertEquals(List.of(), turns("", null));
+	}
+
+	@Test
+	@Order(2)
+	@DisplayName("The last word of a query also matches as a prefix while it is typed")
+	public void search() {
+		Assert.assertEquals(List.of(1, 0), turns(run + " zebra", null));
+		Assert.assertEquals(List.of(), turns(run + " zebra ", null));
+		Assert.assertEquals(List.of(2), turns(run + " wal", null));
+
+		Transcript found = index.search(run + " times", null).get(0);
+		Assert.assertEquals("Why does the " + run + " build fail? The zebrafish test times out.", found.text());
+		Transcript transcript = index.get(found.doc());
+		Assert.assertEquals("Why does the " + run + " build fail?\nThe zebrafish test times out.", transcript.text());
+		Assert.assertEquals(0, transcript.turn());
+		Assert.assertNull(index.get(-1));
+	}
+
+	@Test
+	@Order(3)
+	@DisplayName("Segments written as turns are added are merged, and their turns are still found")
+	public void merge() throws InterruptedException {
+		// no documents left in the builder
+		index.add(sessionId, 4, run + " flushed");
+		reopen();
+		int before = index.getSegmentCount();
+
+		// each batch fills the builder, which is written as a segment at once
+		for (int batch = 0; batch < 4; batch++) {
+			for (int i = 0; i < BATCH; i++) {
+				int turn = 5 + batch * BATCH + i;
+				index.add(sessionId, turn, run + " batch" + batch + " turn" + turn);
+			}
+			await();
+		}
+		// four segments of a size are merged into one
+		Assert.assertTrue(index.toString(), index.getSegmentCount() <= before + 1);
+
+		Assert.assertEquals(BATCH, turns(run + " batch2 ", 2 * BATCH).size());
+		Assert.assertEquals(List.of(600), turns(run + " turn600 ", null));
+		Assert.assertEquals(List.of(1, 0), turns(run + " zebrafish ", null));
+		Assert.assertEquals(List.of(4), turns(run + " flushed ", null));
+	}
+
+	@Test
+	@Order(4)
+	@DisplayName("Turns are found after a restart, and turns added after it follow them")
+	public void restart() throws InterruptedException {
+		List<Transcript> found = index.search(run + " zebrafish ", null);
+		int last = index.search(run, 1).get(0).doc();
+		index.add(sessionId, 2000, run + " pending");
+
+		reopen();
+
+		Assert.assertEquals(found, index.search(run + " zebrafish ", null));
+		Assert.assertEquals(List.of(2000), turns(run + " pending ", null));
+		Assert.assertEquals(BATCH, turns(run + " batch3 ", 2 * BATCH).size());
+
+		index.add(sessionId, 2001, run + " restarted");
+		List<Transcript> added = index.search(run + " restarted ", null);
+		Assert.assertEquals(1, added.size());
+		Assert.assertTrue(added.get(0).doc() > last + 1);
+		Assert.assertEquals(List.of(2001, 2000), turns(run, 2));
+	}
+}
@@ -24,6 +24,10 @@ class ChunkedMarkdown extends Markdown {
   constructor() {
     super();
     this.chunks = [];
+    // markdown of the blocks not yet frozen, the rest is already rendered
+    this.pending = "";
+    // nodes rendered from pending, replaced by every block
+    this.tailNodes = [];
 
     this.TEXT = "text";
     this.IMAGE = "image";
@@ -54,17 +58,78 @@ class ChunkedMarkdown extends Markdown {
       this.addResource(block);
     }
 
+    this.pending += this.chunks.join("").replace(/\r\n?/g, "\n");
+    this.chunks = [];
+
     if (block.type  === this.RESOURCE) {
-      console.log(this.chunks.join("") + "\n```");
-      super.setMarkdown(this.chunks.join("") + "\n```");
+      this.render("\n```");
     } else {
-      console.log(this.chunks.join(""));
-      super.setMarkdown(this.chunks.join(""));
+      this.render("");
     }
 
     this.lastBlockType = block.type;
   }
 
+  /**
+   * Renders the pending markdown, followed by <code>suffix</code> which closes an open resource.
+   * Top-level blocks followed by another block are complete, they are rendered and highlighted
+   * once and frozen.  Only the last block is rendered again for the next chunk.
+   */
+  render(suffix) {
+    const source = this.pending + suffix;
+    const tokens = marked.lexer(source);
+
+    let last = tokens.length - 1;
+    while (last > 0 && tokens[last].type === "space") {
+      last--;
+    }
+
+    let frozen = 0;
+    let frozenLength = 0;
+    if (tokens.reduce((length, token) => length + token.raw.length, 0) === source.length) {
+      while (frozen < last && frozenLength + tokens[frozen].raw.length <= this.pending.length) {
+        frozenLength += tokens[frozen].raw.length;
+        frozen++;
+      }
+    }
+
+    this.tailNodes.forEach(node => node.remove());
+    if (frozen > 0) {
+      for (let node of this.appendHtml(marked.parser(tokens.slice(0, frozen)))) {
+        if (node.nodeType === Node.ELEMENT_NODE) {
+          Prism.highlightAllUnder(node);
+        }
+      }
+      this.pending = this.pending.substring(frozenLength);
+    }
+
+    const tail = tokens.slice(frozen);
+    this.tailNodes = this.appendHtml(marked.parser(tail));
+    if (tail.some(token => token.type === "code" && this.isClosed(token))) {
+      this.tailNodes.forEach(node => {
+        if (node.nodeType === Node.ELEMENT_NODE) {
+          Prism.highlightAllUnder(node);
+        }
+      });
+    }
+  }
+
+  /**
+   * @returns whether a code token ends with its closing fence, indented code is never closed
+   */
+  isClosed(token) {
+    const fence = token.raw.match(/^ {0,3}(`{3,}|~{3,})/);
+    return fence != null && new RegExp("\\n {0,3}" + fence[1].charAt(0) + "{" + fence[1].length + ",}[ \\t]*\\n*$").test(token.raw);
+  }
+
+  appendHtml(html) {
+    const template = document.createElement("template");
+    template.innerHTML = html;
+    const nodes = Array.from(template.content.childNodes);
+    this.append(template.content);
+    return nodes;
+  }
+
   addText(block) {
     this.chunks.push(block.text);
   }
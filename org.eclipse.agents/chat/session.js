@@ -41,50 +41,190 @@ const tool_call= "tool-call";
 
 
 
+const _tool_call = "tool_call";
+const _tool_call_update = "tool_call_update";
+const _clear_contents = "clear_contents";
+
+// Updates waiting for the next animation frame, applied in order
+let pendingUpdates = [];
+let frameRequested = false;
+
+// Turns this far outside the viewport are dehydrated to empty placeholders of the same height
+const turnMargin = "200% 0px";
+let turnObserver = null;
+// Set while a dehydrated turn is rendered again, instead of the last turn
+let hydratingTurn = null;
+
+const updateHandlers = {
+	[_prompt_turn]: (update) => addPromptTurn(update.turn, update.prompt),
+	[_user_message_chunk]: (update) => addUserMessageChunk(update.content),
+	[_agent_thought_chunk]: (update) => addAgentThoughtChunk(update.content),
+	[_agent_message_chunk]: (update) => addAgentMessageChunk(update.content),
+	[_tool_call]: (update) => addToolCall(update.toolCallId, update.title, update.kind, update.status),
+	[_tool_call_update]: (update) => updateToolCall(update.toolCallId, update.status),
+	[_clear_contents]: (update) => removeContents(),
+};
+
+/**
+ * Called by ChatBrowser with every update queued since its last call, rendered together
+ * in the next animation frame.  Each update is keyed by its ACP <code>sessionUpdate</code>.
+ */
+function applyUpdates(updates) {
+	pendingUpdates.push(...updates);
+	if (!frameRequested) {
+		frameRequested = true;
+		window.requestAnimationFrame(renderUpdates);
+	}
+}
+
+function renderUpdates() {
+	frameRequested = false;
+	const updates = pendingUpdates;
+	pendingUpdates = [];
+	for (let update of updates) {
+		applyUpdate(update);
+	}
+	scrollToBottom();
+}
+
+function applyUpdate(update) {
+	const handler = updateHandlers[update.sessionUpdate];
+	if (handler != null) {
+		try {
+			handler(update);
+		} catch (e) {
+			console.error(update.sessionUpdate, e);
+		}
+	}
+}
+
+function getTurnObserver() {
+	if (turnObserver == null) {
+		turnObserver = new IntersectionObserver(turnsIntersected, { rootMargin: turnMargin });
+	}
+	return turnObserver;
+}
+
+function turnsIntersected(entries) {
+	for (let entry of entries) {
+		const turn = entry.target;
+		turn.visible = entry.isIntersecting;
+		if (turn.visible) {
+			hydrateTurn(turn);
+		} else if (turn !== document.body.lastElementChild) {
+			// the last turn may still be streaming
+			dehydrateTurn(turn);
+		}
+	}
+}
+
+/**
+ * Replaces the contents of an off-screen turn with its measured height.  Only turns
+ * ChatBrowser can load again, by their index in the session, are dehydrated.
+ */
+function dehydrateTurn(turn) {
+	if (turn.dehydrated || typeof loadTurn !== "function" || !/^\d+$/.test(String(turn.dataset.turn))) {
+		return;
+	}
+	turn.style.height = turn.getBoundingClientRect().height + "px";
+	turn.replaceChildren();
+	turn.dehydrated = true;
+}
+
+/**
+ * Renders a dehydrated turn again from the session's history
+ */
+function hydrateTurn(turn) {
+	if (!turn.dehydrated) {
+		return;
+	}
+	const updates = loadTurn(Number(turn.dataset.turn));
+	if (updates == null) {
+		return;
+	}
+	turn.dehydrated = false;
+	hydratingTurn = turn;
+	try {
+		for (let update of JSON.parse(updates)) {
+			applyUpdate(update);
+		}
+	} finally {
+		hydratingTurn = null;
+	}
+	turn.style.height = "";
+}
+
 function acceptPromptRequest(promptRequest) {
-	addChild(document.body, "prompt-turn");
-	const json = JSON.parse(promptRequest);
+	applyUpdates([{ sessionUpdate: _prompt_turn, prompt: JSON.parse(promptRequest).prompt }]);
+}
+
+function acceptSessionUserMessageChunk(blockChunk) {
+	applyUpdates([{ sessionUpdate: _user_message_chunk, content: JSON.parse(blockChunk) }]);
+}
+
+function acceptSessionAgentThoughtChunk(blockChunk) {
+	applyUpdates([{ sessionUpdate: _agent_thought_chunk, content: JSON.parse(blockChunk) }]);
+}
+
+function acceptSessionAgentMessageChunk(blockChunk) {
+	applyUpdates([{ sessionUpdate: _agent_message_chunk, content: JSON.parse(blockChunk) }]);
+}
+
+function acceptSessionToolCall(toolCallId, title, kind, status) {
+	applyUpdates([{ sessionUpdate: _tool_call, toolCallId: toolCallId, title: title, kind: kind, status: status }]);
+}
+
+function acceptSessionToolCallUpdate(toolCallId, status) {
+	applyUpdates([{ sessionUpdate: _tool_call_update, toolCallId: toolCallId, status: status }]);
+}
+
+function addPromptTurn(index, prompt) {
+	if (hydratingTurn == null) {
+		const previous = document.body.lastElementChild;
+		const turn = addChild(document.body, "prompt-turn");
+		if (index != null) {
+			turn.dataset.turn = index;
+		}
+		getTurnObserver().observe(turn);
+		if (previous != null && previous.visible === false) {
+			// already scrolled away while it was the last turn
+			dehydrateTurn(previous);
+		}
+	}
 	addChild(getTurn(), session_prompt);
-	for (let block of json.prompt) {
+	for (let block of prompt) {
 		getTurnMessage().addContentBlock(block);
 	}
-	scrollToBottom();
 }
 
-function acceptSessionUserMessageChunk(blockChunk) {
+function addUserMessageChunk(block) {
 	if (getTurnMessage() == null || getTurnMessage().tagName.toLowerCase() !== user_messages) {
 		addChild(getTurn(), user_messages);
 	}
-	getTurnMessage().addContentBlock(JSON.parse(blockChunk));
-	scrollToBottom();	
+	getTurnMessage().addContentBlock(block);
 }
 
-function acceptSessionAgentThoughtChunk(blockChunk) {
+function addAgentThoughtChunk(block) {
 	if (getTurnMessage() == null || getTurnMessage().tagName.toLowerCase() !== agent_thoughts) {
 		addChild(getTurn(), agent_thoughts);
 	}
-	getTurnMessage().addContentBlock(JSON.parse(blockChunk));
-	scrollToBottom();
+	getTurnMessage().addContentBlock(block);
 }
 
-function acceptSessionAgentMessageChunk(blockChunk) {
+function addAgentMessageChunk(block) {
 	if (getTurnMessage() == null || getTurnMessage().tagName.toLowerCase() !== agent_messages) {
 		addChild(getTurn(), agent_messages);
 	}
-	getTurnMessage().addContentBlock(JSON.parse(blockChunk));
-	scrollToBottom();
+	getTurnMessage().addContentBlock(block);
 }
 
-function acceptSessionToolCall(toolCallId, title, kind, status) {
+function addToolCall(toolCallId, title, kind, status) {
 	addChild(getTurn(), tool_call).id = toolCallId;
 	getTurnMessage().create(toolCallId, title, kind, status);
-	scrollToBottom();
 }
 
-
-function acceptSessionToolCallUpdate(toolCallId, status) {
-    getTurn().querySelector('tool-call#' + toolCallId).updateStatus(status);
-	scrollToBottom();
+function updateToolCall(toolCallId, status) {
+	getTurn().querySelector('tool-call#' + toolCallId).updateStatus(status);
 }
 
 
@@ -102,7 +242,7 @@ function setStyle(fontSize, foreground, background, link, linkActive, infoFg, in
 }
 
 function getTurn() {
-	return document.body.lastElementChild
+	return hydratingTurn != null ? hydratingTurn : document.body.lastElementChild;
 }
 
 function getTurnMessage() {
@@ -116,7 +256,14 @@ function addChild(parent, kind) {
 }
 
 function clearContents() {
-	
+	applyUpdates([{ sessionUpdate: _clear_contents }]);
+}
+
+function removeContents() {
+	if (turnObserver != null) {
+		turnObserver.disconnect();
+		turnObserver = null;
+	}
 	const body = document.body;
 	const children = Array.from(body.children);
 	const tagsToKeep = ['script', 'template'];
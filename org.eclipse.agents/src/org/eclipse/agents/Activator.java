@@ -20,9 +20,16 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.Optional;
 
+import org.eclipse.agents.chat.IconCache;
+import org.eclipse.agents.chat.transcripts.TranscriptIndex;
 import org.eclipse.agents.contexts.ExtensionManager;
 import org.eclipse.agents.contexts.Images;
 import org.eclipse.agents.contexts.ServerManager;
+import org.eclipse.agents.contexts.platform.index.FileNameIndex;
+import org.eclipse.agents.contexts.platform.index.MarkerIndex;
+import org.eclipse.agents.contexts.platform.index.TextIndex;
+import org.eclipse.agents.contexts.platform.resource.ContentCache;
+import org.eclipse.agents.contexts.platform.resource.WorkbenchMirror;
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.preferences.InstanceScope;
@@ -87,6 +94,13 @@ public class Activator extends AbstractUIPlugin {
 
 	@Override
 	public void stop(BundleContext context) throws Exception {
+		TextIndex.disposeDefault();
+		FileNameIndex.disposeDefault();
+		MarkerIndex.disposeDefault();
+		ContentCache.disposeDefault();
+		WorkbenchMirror.disposeDefault();
+		IconCache.disposeDefault();
+		TranscriptIndex.disposeDefault();
 		plugin = null;
 		super.stop(context);
 	}
@@ -13,6 +13,8 @@
  *******************************************************************************/
 package org.eclipse.agents;
 
+import java.util.Collection;
+
 import org.eclipse.osgi.service.debug.DebugTrace;
 
 import io.modelcontextprotocol.server.McpServerFeatures.SyncResourceSpecification;
@@ -42,6 +44,39 @@ public interface IMCPServices {
 	 */
 	public void removeResource(String uri);
 	
+	/**
+	 * Adds several resources, connected clients are notified once
+	 * @param resources
+	 */
+	public default void addResources(Collection<SyncResourceSpecification> resources) {
+		batch(() -> {
+			for (SyncResourceSpecification resource: resources) {
+				addResource(resource);
+			}
+		});
+	}
+	
+	/**
+	 * Removes several previously added resources, connected clients are notified once
+	 * @param uris
+	 */
+	public default void removeResources(Collection<String> uris) {
+		batch(() -> {
+			for (String uri: uris) {
+				removeResource(uri);
+			}
+		});
+	}
+	
+	/**
+	 * Runs resource additions, removals and tool visibility changes as one batch,
+	 * sending at most one list changed notification per kind of change
+	 * @param mutations
+	 */
+	public default void batch(Runnable mutations) {
+		mutations.run();
+	}
+	
 	/**
 	 * @param toolName
 	 * @return true if toolName is currently available on server
@@ -15,6 +15,7 @@ package org.eclipse.agents;
 
 import java.util.Hashtable;
 
+import org.eclipse.agents.contexts.ServerManager;
 import org.eclipse.osgi.service.debug.DebugOptions;
 import org.eclipse.osgi.service.debug.DebugOptionsListener;
 import org.eclipse.osgi.service.debug.DebugTrace;
@@ -97,14 +98,23 @@ public class Tracer implements DebugOptionsListener, DebugTrace {
 	public void trace(String option, String message) {
 		trace().trace(option, message);
 		if (MCP.equals(option)) {
-			Activator.getDefault().getServerManager().log(message, null);
+			log(message, null);
 		}
 	}
 	@Override
 	public void trace(String option, String message, Throwable error) {
 		trace().trace(option, message, error);
 		if (MCP.equals(option)) {
-			Activator.getDefault().getServerManager().log(message, error);
+			log(message, error);
+		}
+	}
+
+	// forwards to MCP clients, the server manager is created after tracing starts
+	private static void log(String message, Throwable error) {
+		Activator activator = Activator.getDefault();
+		ServerManager manager = activator == null ? null : activator.getServerManager();
+		if (manager != null) {
+			manager.log(message, error);
 		}
 	}
 	
@@ -0,0 +1,228 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.SWTException;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Runs work on the UI thread for any number of background threads with one
+ * {@link Display#asyncExec(Runnable)} per event loop turn, instead of one per call.
+ *
+ * Work is queued in submission order and drained in a single runnable, which gives the event
+ * loop back after {@link #DRAIN_BUDGET} and continues in the next turn.  Work submitted on the
+ * UI thread runs inline, after anything already queued so the order is kept.
+ */
+public class UIExecutor implements Executor {
+
+	public static final long DRAIN_BUDGET = TimeUnit.MILLISECONDS.toNanos(10);
+
+	private static UIExecutor instance;
+
+	/**
+	 * @param runnable completes <code>future</code>
+	 * @param future
+	 * @param queued nano time it was submitted at
+	 */
+	record Task(Runnable runnable, CompletableFuture<?> future, long queued) {}
+
+	ConcurrentLinkedQueue<Task> queue = new ConcurrentLinkedQueue<Task>();
+	AtomicBoolean scheduled = new AtomicBoolean(false);
+	// only used on the UI thread
+	boolean draining = false;
+
+	AtomicLong queuedTasks = new AtomicLong();
+	AtomicLong inlineTasks = new AtomicLong();
+	AtomicLong drains = new AtomicLong();
+	AtomicLong waitNanos = new AtomicLong();
+	AtomicLong maxWaitNanos = new AtomicLong();
+
+	public static synchronized UIExecutor getDefault() {
+		if (instance == null) {
+			instance = new UIExecutor();
+		}
+		return instance;
+	}
+
+	/**
+	 * Runs <code>runnable</code> on the UI thread without waiting for it
+	 */
+	@Override
+	public void execute(Runnable runnable) {
+		asyncExec(runnable);
+	}
+
+	public CompletableFuture<Void> asyncExec(Runnable runnable) {
+		return submit(() -> {
+			runnable.run();
+			return null;
+		});
+	}
+
+	/**
+	 * @param supplier called on the UI thread
+	 * @return completed with the result of <code>supplier</code> or what it threw
+	 */
+	public <T> CompletableFuture<T> submit(Supplier<T> supplier) {
+		CompletableFuture<T> future = new CompletableFuture<T>();
+		Runnable runnable = () -> {
+			try {
+				future.complete(supplier.get());
+			} catch (Throwable e) {
+				future.completeExceptionally(e);
+			}
+		};
+
+		Display display = Activator.getDisplay();
+		if (display.isDisposed()) {
+			future.completeExceptionally(new SWTException(SWT.ERROR_DEVICE_DISPOSED));
+		} else if (display.getThread() == Thread.currentThread()) {
+			if (!draining) {
+				drain(Long.MAX_VALUE);
+			}
+			inlineTasks.incrementAndGet();
+			runnable.run();
+		} else {
+			queue.add(new Task(runnable, future, System.nanoTime()));
+			queuedTasks.incrementAndGet();
+			schedule(display);
+		}
+		return future;
+	}
+
+	/**
+	 * Runs <code>runnable</code> on the UI thread and waits for it, like {@link Display#syncExec(Runnable)}
+	 */
+	public void syncExec(Runnable runnable) {
+		syncCall(() -> {
+			runnable.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Calls <code>supplier</code> on the UI thread and waits for its result
+	 * @throws RuntimeException thrown by <code>supplier</code>
+	 */
+	public <T> T syncCall(Supplier<T> supplier) {
+		CompletableFuture<T> future = submit(supplier);
+		Display display = Activator.getDisplay();
+		try {
+			while (true) {
+				try {
+					return future.get(100, TimeUnit.MILLISECONDS);
+				} catch (TimeoutException e) {
+					if (display.isDisposed()) {
+						throw new SWTException(SWT.ERROR_DEVICE_DISPOSED);
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SWTException(SWT.ERROR_FAILED_EXEC, e.getMessage());
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException)e.getCause();
+			} else if (e.getCause() instanceof Error) {
+				throw (Error)e.getCause();
+			}
+			throw new SWTException(SWT.ERROR_FAILED_EXEC, e.getCause().toString());
+		}
+	}
+
+	private void schedule(Display display) {
+		if (scheduled.compareAndSet(false, true)) {
+			try {
+				display.asyncExec(() -> drain(DRAIN_BUDGET));
+			} catch (SWTException e) {
+				// display disposed, fail what can no longer run
+				scheduled.set(false);
+				Task task;
+				while ((task = queue.poll()) != null) {
+					task.future.completeExceptionally(new SWTException(SWT.ERROR_DEVICE_DISPOSED));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Runs queued work on the UI thread, until the queue is empty or the budget is spent
+	 * @param budget nanoseconds
+	 */
+	void drain(long budget) {
+		scheduled.set(false);
+		boolean nested = draining;
+		draining = true;
+		try {
+			long start = System.nanoTime();
+			Task task;
+			while ((task = queue.poll()) != null) {
+				long wait = System.nanoTime() - task.queued;
+				waitNanos.addAndGet(wait);
+				maxWaitNanos.accumulateAndGet(wait, Math::max);
+				// failures complete the task's future
+				task.runnable.run();
+				if (System.nanoTime() - start > budget && !queue.isEmpty()) {
+					// let the event loop paint and handle input, then continue
+					schedule(Activator.getDisplay());
+					break;
+				}
+			}
+		} finally {
+			draining = nested;
+		}
+		drains.incrementAndGet();
+	}
+
+	public long getQueuedTasks() {
+		return queuedTasks.get();
+	}
+
+	public long getInlineTasks() {
+		return inlineTasks.get();
+	}
+
+	public long getDrains() {
+		return drains.get();
+	}
+
+	/**
+	 * @return average time queued work waited for the UI thread, in milliseconds
+	 */
+	public double getAverageWait() {
+		long tasks = queuedTasks.get();
+		return tasks == 0 ? 0 : waitNanos.get() / 1e6 / tasks;
+	}
+
+	public double getMaxWait() {
+		return maxWaitNanos.get() / 1e6;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d queued / %d inline / %d drains, %.2f ms average wait / %.2f ms max wait", //$NON-NLS-1$
+				getQueuedTasks(), getInlineTasks(), getDrains(), getAverageWait(), getMaxWait());
+	}
+}
@@ -13,21 +13,28 @@
  *******************************************************************************/
 package org.eclipse.agents.chat;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.util.Base64;
 
 import org.eclipse.agents.Activator;
 import org.eclipse.agents.Tracer;
+import org.eclipse.agents.UIExecutor;
+import org.eclipse.agents.chat.controller.AgentController;
+import org.eclipse.agents.chat.controller.SessionController;
 import org.eclipse.agents.contexts.platform.resource.WorkspaceResourceAdapter;
 import org.eclipse.agents.services.protocol.AcpSchema.ContentBlock;
 import org.eclipse.agents.services.protocol.AcpSchema.PromptRequest;
+import org.eclipse.agents.services.protocol.AcpSchema.SessionAgentMessageChunk;
+import org.eclipse.agents.services.protocol.AcpSchema.SessionAgentThoughtChunk;
+import org.eclipse.agents.services.protocol.AcpSchema.SessionNotification;
+import org.eclipse.agents.services.protocol.AcpSchema.SessionToolCall;
+import org.eclipse.agents.services.protocol.AcpSchema.SessionToolCallUpdate;
 import org.eclipse.agents.services.protocol.AcpSchema.SessionUpdate;
+import org.eclipse.agents.services.protocol.AcpSchema.SessionUserMessageChunk;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IProject;
@@ -47,9 +54,6 @@ import org.eclipse.swt.events.TraverseListener;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Font;
 import org.eclipse.swt.graphics.FontData;
-import org.eclipse.swt.graphics.Image;
-import org.eclipse.swt.graphics.ImageData;
-import org.eclipse.swt.graphics.ImageLoader;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Menu;
@@ -63,17 +67,33 @@ import org.eclipse.ui.ide.IDE;
 import org.eclipse.ui.navigator.CommonNavigator;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.RawValue;
 
 public class ChatBrowser {
 
+	/**
+	 * Least time between two batches of updates sent to the page, about one frame
+	 */
+	public static final int FRAME_MILLIS = 16;
+
 	private ObjectMapper mapper;
 	private Browser browser;
 	private File source;
+	private String sessionId;
+
+	// updates not yet sent to the page, guarded by this
+	private ArrayNode pending;
+	// only used on the UI thread
+	private boolean loaded = false;
+	private long lastFlush = 0;
 	
 	public ChatBrowser(Composite parent, int style) {
 		mapper = new ObjectMapper();
+		pending = mapper.createArrayNode();
 		
 		browser = new Browser(parent, style);
 		browser.setJavascriptEnabled(true);
@@ -106,28 +126,44 @@ public class ChatBrowser {
 	            }
 	            
 	            if (imageDescriptor != null) {
-	            	StringBuffer result = new StringBuffer();
-					
-					Activator.getDisplay().syncExec(()-> {
-						ByteArrayOutputStream bos = new ByteArrayOutputStream();
-				        Image image = imageDescriptor.createImage(Activator.getDisplay());
-				        ImageLoader loader = new ImageLoader();
-				        loader.data = new ImageData[] { image.getImageData() }; // Get current ImageData from Image
-				        result.append("data:image/jpg;base64,");
-				        loader.save(bos, SWT.IMAGE_PNG);
-				        image.dispose();
-				        
-				        byte[] imageBytes = bos.toByteArray();
-				        result.append(Base64.getEncoder().encodeToString(imageBytes));
-					});
-
-					Tracer.trace().trace(Tracer.BROWSER, result.toString());
-					return result.toString();
+	            	String uri = IconCache.getDefault().getUri(imageDescriptor);
+					Tracer.trace().trace(Tracer.BROWSER, "getProgramIcon:" + uri);
+					return uri;
 	            }
 	            return null;
 			}
 		};
 		
+		new BrowserFunction(browser, "loadTurn") {
+			@Override
+			public Object function(Object[] args) {
+				SessionController controller = sessionId == null ? null : AgentController.getSession(sessionId);
+				if (controller == null || args.length == 0 || !(args[0] instanceof Number)) {
+					return null;
+				}
+				int turn = ((Number)args[0]).intValue();
+				Tracer.trace().trace(Tracer.BROWSER, "loadTurn:" + turn);
+
+				ArrayNode updates = mapper.createArrayNode();
+				for (Object event: controller.getTurn(turn)) {
+					if (event instanceof PromptRequest) {
+						updates.add(createPromptTurn((PromptRequest)event, turn));
+					} else if (event instanceof SessionNotification) {
+						JsonNode update = toUpdate(((SessionNotification)event).update(), null);
+						if (update != null) {
+							updates.add(update);
+						}
+					}
+				}
+				try {
+					return mapper.writeValueAsString(updates);
+				} catch (JsonProcessingException e) {
+					Tracer.trace().trace(Tracer.BROWSER, "loadTurn", e);
+					return null;
+				}
+			}
+		};
+
 		browser.addProgressListener(new ProgressAdapter() {
 			@Override
 			public void completed(ProgressEvent pe) {
@@ -165,9 +201,12 @@ public class ChatBrowser {
 				
 				Tracer.trace().trace(Tracer.BROWSER, fxn);
 
-				Activator.getDisplay().syncExec(()->browser.evaluate(fxn));
+				UIExecutor.getDefault().syncExec(()->browser.evaluate(fxn));
 				
 				browser.setVisible(true);
+
+				loaded = true;
+				flush();
 				
 				browser.addLocationListener(LocationListener.changingAdapter(event -> {
 					event.doit = false;
@@ -211,7 +250,7 @@ public class ChatBrowser {
 				o.put("stateMask", e.stateMask);
 				o.put("time", e.time);
 				
-				Activator.getDisplay().syncExec(()-> {
+				UIExecutor.getDefault().syncExec(()-> {
 					Object doit = browser.evaluate(String.format("keyTraversed(`%s`)", sanitize(o.toString())));
 					if (doit != null) {
 						e.doit = Boolean.valueOf(doit.toString());	
@@ -248,133 +287,193 @@ public class ChatBrowser {
 				.replace("`", "\\`");
 	}
 	
+	/**
+	 * @param sessionId whose history dehydrated turns are loaded from
+	 */
+	public void setSessionId(String sessionId) {
+		this.sessionId = sessionId;
+	}
+
 	public boolean isDisposed() {
 		return browser.isDisposed();
 	}
 
-	public void updateSession(SessionUpdate update) {
+	/**
+	 * Queues <code>update</code> for the page, keyed by its ACP <code>sessionUpdate</code>.
+	 * Everything queued within a frame is sent to the page in one <code>applyUpdates([...])</code>.
+	 */
+	private void enqueue(JsonNode update) {
+		if (browser.isDisposed()) {
+			return;
+		}
+		boolean schedule;
+		synchronized (this) {
+			schedule = pending.isEmpty();
+			pending.add(update);
+		}
+		if (schedule) {
+			UIExecutor.getDefault().asyncExec(this::scheduleFlush);
+		}
+	}
+
+	private void scheduleFlush() {
 		if (!browser.isDisposed()) {
-			try {
-				String json = mapper.writeValueAsString(update);
-				String fxn = String.format("updateSession(%s)", sanitize(json));
-				Tracer.trace().trace(Tracer.BROWSER, fxn);
-				Activator.getDisplay().syncExec(()-> {
-					Tracer.trace().trace(Tracer.BROWSER, "" + browser.evaluate(fxn));
-				});
-			} catch (JsonProcessingException e) {
-				e.printStackTrace();
+			long wait = FRAME_MILLIS - (System.currentTimeMillis() - lastFlush);
+			if (wait > 0) {
+				browser.getDisplay().timerExec((int)wait, this::flush);
+			} else {
+				flush();
 			}
 		}
 	}
 
-	public void acceptPromptRequest(PromptRequest request) {
+	/**
+	 * Sends the queued updates to the page, called on the UI thread
+	 */
+	private void flush() {
+		if (browser.isDisposed() || !loaded) {
+			// completed() flushes once the page is loaded
+			return;
+		}
+		ArrayNode updates;
+		synchronized (this) {
+			updates = pending;
+			pending = mapper.createArrayNode();
+		}
+		if (updates.isEmpty()) {
+			return;
+		}
+		lastFlush = System.currentTimeMillis();
+		try {
+			// a JSON array is already a JavaScript literal, only the line terminators JSON allows need escaping
+			String json = mapper.writeValueAsString(updates)
+					.replace("\u2028", "\\u2028")
+					.replace("\u2029", "\\u2029");
+			Tracer.trace().trace(Tracer.BROWSER, "applyUpdates: " + updates.size() + " updates, " + json.length() + " chars");
+			browser.evaluate("applyUpdates(" + json + ");");
+		} catch (JsonProcessingException e) {
+			Tracer.trace().trace(Tracer.BROWSER, "applyUpdates", e);
+		}
+	}
+
+	private ObjectNode createUpdate(String sessionUpdate) {
+		ObjectNode update = mapper.createObjectNode();
+		update.put("sessionUpdate", sessionUpdate);
+		return update;
+	}
+
+	/**
+	 * Queues the session updates the page renders, message and thought chunks are passed on
+	 * in the JSON they were read from when it is given
+	 * @param update
+	 * @param json the JSON <code>update</code> was read from, or null
+	 */
+	public void updateSession(SessionUpdate update, String json) {
 		if (!browser.isDisposed()) {
-			try {
-				String json = mapper.writeValueAsString(request);
-				String fxn = "acceptPromptRequest('" + sanitize(json) + "');";
-				Tracer.trace().trace(Tracer.BROWSER, fxn);
-				Activator.getDisplay().syncExec(()-> {
-					Tracer.trace().trace(Tracer.BROWSER, "" + browser.evaluate(fxn));
-				});
-			} catch (JsonProcessingException e) {
-				e.printStackTrace();
+			JsonNode node = toUpdate(update, json);
+			if (node != null) {
+				enqueue(node);
 			}
 		}
 	}
 
-//	public void acceptSessionNotification(SessionNotification notification) {
-//		if (!browser.isDisposed()) {
-//			try {
-//				String json = mapper.writeValueAsString(notification.update());
-//				String fxn = "acceptSessionNotification('" + sanitize(json) + "');";
-//				Tracer.trace().trace(Tracer.BROWSER, fxn);
-//				Activator.getDisplay().syncExec(()-> {
-//					Tracer.trace().trace(Tracer.BROWSER, "" + browser.evaluate(fxn));
-//				});
-//			} catch (JsonProcessingException e) {
-//				e.printStackTrace();
-//			}
-//		}
-//	}
+	/**
+	 * @return the page's form of <code>update</code>, or null if the page does not render it
+	 */
+	private JsonNode toUpdate(SessionUpdate update, String json) {
+		if (update instanceof SessionUserMessageChunk || update instanceof SessionAgentMessageChunk
+				|| update instanceof SessionAgentThoughtChunk) {
+			if (json != null) {
+				return mapper.getNodeFactory().rawValueNode(new RawValue(json));
+			}
+			return mapper.valueToTree(update);
+		} else if (update instanceof SessionToolCall) {
+			SessionToolCall toolCall = (SessionToolCall)update;
+			return createToolCall(toolCall.toolCallId(), toolCall.title(), 
+					toolCall.kind() == null ? null : toolCall.kind().toString(), 
+					toolCall.status() == null ? null : toolCall.status().toString());
+		} else if (update instanceof SessionToolCallUpdate) {
+			SessionToolCallUpdate toolCall = (SessionToolCallUpdate)update;
+			return createToolCallUpdate(toolCall.toolCallId(), 
+					toolCall.status() == null ? null : toolCall.status().toString());
+		}
+		return null;
+	}
+
+	/**
+	 * @param request
+	 * @param turn index of the turn in the session, passed to <code>loadTurn</code> when the page
+	 * renders the turn again
+	 */
+	public void acceptPromptRequest(PromptRequest request, int turn) {
+		if (!browser.isDisposed()) {
+			enqueue(createPromptTurn(request, turn));
+		}
+	}
+
+	private ObjectNode createPromptTurn(PromptRequest request, int turn) {
+		ObjectNode update = createUpdate("prompt_turn");
+		update.put("turn", turn);
+		update.set("prompt", mapper.valueToTree(request.prompt()));
+		return update;
+	}
 
 	public void acceptSessionUserMessageChunk(ContentBlock block) {
 		if (!browser.isDisposed()) {
-			try {
-				String json = mapper.writeValueAsString(block);
-				String fxn = "acceptSessionUserMessageChunk('" + sanitize(json) + "');";
-				Tracer.trace().trace(Tracer.BROWSER, fxn);
-				Activator.getDisplay().syncExec(()-> {
-					Tracer.trace().trace(Tracer.BROWSER, "" + browser.evaluate(fxn));
-				});
-			} catch (JsonProcessingException e) {
-				e.printStackTrace();
-			}
+			ObjectNode update = createUpdate("user_message_chunk");
+			update.set("content", mapper.valueToTree(block));
+			enqueue(update);
 		}
 	}
 
 	public void acceptSessionAgentThoughtChunk(ContentBlock block) {
 		if (!browser.isDisposed()) {
-			try {
-				String json = mapper.writeValueAsString(block);
-				String fxn = "acceptSessionAgentThoughtChunk('" + sanitize(json) + "');";
-				Tracer.trace().trace(Tracer.BROWSER, fxn);
-//				new JsonParser().parse(json);
-//				new JsonParser().parse(sanitize(json));
-				
-				Activator.getDisplay().syncExec(()-> {
-					Tracer.trace().trace(Tracer.BROWSER, "" + browser.evaluate(fxn));
-				});
-			} catch (JsonProcessingException e) {
-				e.printStackTrace();
-			}
+			ObjectNode update = createUpdate("agent_thought_chunk");
+			update.set("content", mapper.valueToTree(block));
+			enqueue(update);
 		}
 	}
 
 	public void acceptSessionAgentMessageChunk(ContentBlock block) {
 		if (!browser.isDisposed()) {
-			try {
-				String json = mapper.writeValueAsString(block);
-				String fxn = "acceptSessionAgentMessageChunk('" + sanitize(json) + "');";
-				Tracer.trace().trace(Tracer.BROWSER, fxn);
-				Activator.getDisplay().syncExec(()-> {
-					Tracer.trace().trace(Tracer.BROWSER, "" + browser.evaluate(fxn));
-				});
-			} catch (JsonProcessingException e) {
-				e.printStackTrace();
-			}
+			ObjectNode update = createUpdate("agent_message_chunk");
+			update.set("content", mapper.valueToTree(block));
+			enqueue(update);
 		}
 	}
 	
 	public void acceptSessionToolCall(String toolCallId, String title, String kind, String status) {
 		if (!browser.isDisposed()) {
-			String fxn = String.format("acceptSessionToolCall(`%s`, `%s`, `%s`, `%s`);", 
-					toolCallId, title, kind, status);
-			Tracer.trace().trace(Tracer.BROWSER, fxn);
-			Activator.getDisplay().syncExec(()-> {
-				Tracer.trace().trace(Tracer.BROWSER, "" + browser.evaluate(fxn));
-			});
+			enqueue(createToolCall(toolCallId, title, kind, status));
 		}
 	}
 
+	private ObjectNode createToolCall(String toolCallId, String title, String kind, String status) {
+		ObjectNode update = createUpdate("tool_call");
+		update.put("toolCallId", toolCallId);
+		update.put("title", title);
+		update.put("kind", kind);
+		update.put("status", status);
+		return update;
+	}
+
 
 	public void  acceptSessionToolCallUpdate(String toolCallId, String status) {
 		if (!browser.isDisposed()) {
-			String fxn = String.format("acceptSessionToolCallUpdate(`%s`, `%s`);", 
-					toolCallId, status);
-			Tracer.trace().trace(Tracer.BROWSER, fxn);
-			Activator.getDisplay().syncExec(()-> {
-				Tracer.trace().trace(Tracer.BROWSER, "" + browser.evaluate(fxn));
-			});
+			enqueue(createToolCallUpdate(toolCallId, status));
 		}
 	}
+
+	private ObjectNode createToolCallUpdate(String toolCallId, String status) {
+		ObjectNode update = createUpdate("tool_call_update");
+		update.put("toolCallId", toolCallId);
+		update.put("status", status);
+		return update;
+	}
 	
 	public void clearContent() {
 		if (!browser.isDisposed()) {
-			String fxn = "clearContents();";
-			Tracer.trace().trace(Tracer.BROWSER, fxn);
-			Activator.getDisplay().syncExec(()-> {
-				Tracer.trace().trace(Tracer.BROWSER, "" + browser.evaluate(fxn));
-			});
+			enqueue(createUpdate("clear_contents"));
 		}
 	}
 	
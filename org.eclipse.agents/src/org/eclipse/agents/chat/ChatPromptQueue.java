@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.chat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.agents.chat.controller.SessionController;
+import org.eclipse.agents.chat.controller.SessionController.QueuedPrompt;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.SelectionAdapter;
+import org.eclipse.swt.events.SelectionEvent;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Composite;
+
+/**
+ * Chips of the prompts queued in the active session, hidden while there are none.
+ * Clicking a chip edits its prompt in the input, closing it cancels the prompt.
+ */
+public class ChatPromptQueue extends Composite {
+
+	static final int LABEL_LENGTH = 40;
+
+	ChatView view;
+	List<Chips> chips;
+
+	public ChatPromptQueue(Composite parent, int style, ChatView view) {
+		super(parent, style);
+		this.view = view;
+		GridData gd = new GridData(GridData.FILL_HORIZONTAL);
+		gd.exclude = true;
+		setLayoutData(gd);
+		setLayout(new GridLayout(3, false));
+		setVisible(false);
+
+		chips = new ArrayList<Chips>();
+	}
+
+	/**
+	 * Called on the UI thread
+	 * @param controller of the active session
+	 * @param prompts queued in it
+	 */
+	public void setPrompts(SessionController controller, List<QueuedPrompt> prompts) {
+		for (Chips chip: chips) {
+			if (!chip.isDisposed()) {
+				chip.dispose();
+			}
+		}
+		chips.clear();
+
+		for (QueuedPrompt prompt: prompts) {
+			String text = prompt.getText().strip().replaceAll("\\s+", " ");
+			Chips chip = new Chips(this, SWT.CLOSE);
+			chip.setText(text.length() > LABEL_LENGTH ? text.substring(0, LABEL_LENGTH) + "..." : text);
+			chip.setToolTipText(prompt.isReady() ? "Queued, click to edit" : "Queued, reading its context");
+			chip.addCloseListener(e -> {
+				controller.cancel(prompt);
+				chip.dispose();
+			});
+			chip.addSelectionListener(new SelectionAdapter() {
+				@Override
+				public void widgetSelected(SelectionEvent e) {
+					view.editQueuedPrompt(prompt);
+				}
+			});
+			chips.add(chip);
+		}
+
+		((GridData)getLayoutData()).exclude = chips.isEmpty();
+		setVisible(!chips.isEmpty());
+		getParent().getParent().layout(true, true);
+	}
+}
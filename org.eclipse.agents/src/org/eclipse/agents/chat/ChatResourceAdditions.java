@@ -16,20 +16,29 @@ package org.eclipse.agents.chat;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.agents.Activator;
+import org.eclipse.agents.Tracer;
+import org.eclipse.agents.chat.controller.PromptBudget;
 import org.eclipse.agents.contexts.adapters.IResourceTemplate;
+import org.eclipse.agents.contexts.platform.resource.ContentReader;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Content;
 import org.eclipse.agents.contexts.platform.resource.WorkspaceResourceAdapter;
 import org.eclipse.agents.services.protocol.AcpSchema.Annotations;
 import org.eclipse.agents.services.protocol.AcpSchema.ContentBlock;
 import org.eclipse.agents.services.protocol.AcpSchema.EmbeddedResourceBlock;
 import org.eclipse.agents.services.protocol.AcpSchema.ResourceLinkBlock;
 import org.eclipse.agents.services.protocol.AcpSchema.Role;
+import org.eclipse.agents.services.protocol.AcpSchema.TextBlock;
 import org.eclipse.agents.services.protocol.AcpSchema.TextResourceContents;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
@@ -39,8 +48,17 @@ import io.modelcontextprotocol.spec.McpSchema.ResourceLink;
 
 public class ChatResourceAdditions extends Composite {
 
+	/**
+	 * Most UTF-8 bytes of an embedded resource sent with a prompt
+	 */
+	public static final int EMBEDDED_LIMIT = 64 * 1024;
+
 	Map<String, ContentBlock> contexts;
+	// mime type of each embedded resource by uri, their content is read when the prompt is sent
+	Map<String, String> embedded;
 	Map<String, Chips> chips;
+	// estimated tokens of each context by uri
+	Map<String, Integer> tokens;
 	
 	public ChatResourceAdditions(Composite parent, int style) {
 		super(parent, style);
@@ -48,29 +66,29 @@ public class ChatResourceAdditions extends Composite {
 		setLayout(new GridLayout(3, false));
 		
 		contexts = new HashMap<String, ContentBlock>();
+		embedded = new HashMap<String, String>();
 		chips = new HashMap<String, Chips>();
+		tokens = new HashMap<String, Integer>();
 	}
 	
 	public void addEmbeddedResourceContext(String name, String uri) {
-		if (!contexts.containsKey(uri)) {
+		if (!contexts.containsKey(uri) && !embedded.containsKey(uri)) {
 			IResourceTemplate<?, ?> resourceTemplate = Activator.getDefault().getServerManager().getResourceTemplate(uri);
 			if (resourceTemplate != null) {
 				ResourceLink link = resourceTemplate.toResourceLink();
-				TextResourceContents contents = new TextResourceContents(
-						null, 
-						link.mimeType(),
-						resourceTemplate.toContent(),
-						uri);
-				EmbeddedResourceBlock block = new EmbeddedResourceBlock(null, null, contents, "resource");
-				contexts.put(uri, block);
+				embedded.put(uri, link.mimeType());
+				// at most the limit is read
+				long size = link.size() == null ? EMBEDDED_LIMIT : Math.min(link.size(), EMBEDDED_LIMIT);
+				tokens.put(uri, PromptBudget.estimateTokens(size));
 				
 				Chips chip = new Chips(this, SWT.CLOSE);
 				chip.setText(name);
 				chip.addCloseListener(e->{
-					contexts.remove(uri);
-					chip.dispose();
+					embedded.remove(uri);
+					removeChip(uri);
 				});
 				chips.put(uri, chip);
+				updateTotals();
 				
 				getParent().getParent().layout(true, true);
 			}
@@ -78,7 +96,7 @@ public class ChatResourceAdditions extends Composite {
 	}
 	
 	public void addLinkedResourceContext(String name, String uri) {
-		if (!contexts.containsKey(uri)) {
+		if (!contexts.containsKey(uri) && !embedded.containsKey(uri)) {
 			WorkspaceResourceAdapter resourceAdapter = new WorkspaceResourceAdapter(uri);
 			
 			ResourceLink link = resourceAdapter.toResourceLink();
@@ -126,21 +144,110 @@ public class ChatResourceAdditions extends Composite {
 			
 			
 			contexts.put(uri, block);
+			tokens.put(uri, PromptBudget.estimateTokens(block));
 			
 			Chips chip = new Chips(this, SWT.CLOSE);
 			chip.setText(name);
 			chip.addCloseListener(e->{
 				contexts.remove(uri);
-				chip.dispose();
+				removeChip(uri);
 			});
 			chips.put(uri, chip);
+			updateTotals();
 			
 			getParent().getParent().layout(true, true);
 		}
 	}
 	
-	public Collection<ContentBlock> getContextBlocks() {
-		return contexts.values();
+	private void removeChip(String uri) {
+		Chips chip = chips.remove(uri);
+		if (chip != null) {
+			chip.dispose();
+		}
+		tokens.remove(uri);
+		updateTotals();
+	}
+
+	/**
+	 * Shows the estimated tokens of each context and of all of them on its chip
+	 */
+	private void updateTotals() {
+		int total = getEstimatedTokens();
+		for (Map.Entry<String, Chips> entry: chips.entrySet()) {
+			if (!entry.getValue().isDisposed()) {
+				Integer count = tokens.get(entry.getKey());
+				entry.getValue().setToolTipText(String.format("About %,d tokens%s, %,d for all context",
+						count == null ? 0 : count, embedded.containsKey(entry.getKey()) ? " embedded" : " linked", total));
+			}
+		}
+	}
+
+	/**
+	 * @return estimated tokens of all contexts
+	 */
+	public int getEstimatedTokens() {
+		int total = 0;
+		for (int count: tokens.values()) {
+			total += count;
+		}
+		return total;
+	}
+
+	/**
+	 * Called on the UI thread when the prompt is sent.  Embedded resources are read in
+	 * parallel by system jobs, each up to {@link #EMBEDDED_LIMIT}.  A resource that cannot be
+	 * read is replaced by a text note.
+	 * @return the blocks of the contexts, completed when their content has been read
+	 */
+	public List<CompletableFuture<ContentBlock>> getContextBlocks() {
+		List<CompletableFuture<ContentBlock>> blocks = new ArrayList<CompletableFuture<ContentBlock>>();
+		for (ContentBlock block: contexts.values()) {
+			blocks.add(CompletableFuture.completedFuture(block));
+		}
+		for (Map.Entry<String, String> entry: embedded.entrySet()) {
+			String uri = entry.getKey(), mimeType = entry.getValue();
+			CompletableFuture<ContentBlock> block = new CompletableFuture<ContentBlock>();
+			// reads may block on files and wait for the UI thread, so they do not use the common pool
+			Job job = new Job("Reading embedded resource") { //$NON-NLS-1$
+				@Override
+				protected IStatus run(IProgressMonitor monitor) {
+					try {
+						block.complete(readEmbeddedResource(uri, mimeType));
+					} catch (RuntimeException e) {
+						Tracer.trace().trace(Tracer.CHAT, "embedded resource not read: " + uri, e);
+						block.complete(createNote("[" + uri + " could not be read]"));
+					}
+					return Status.OK_STATUS;
+				}
+			};
+			job.setSystem(true);
+			job.schedule();
+			blocks.add(block);
+		}
+		return blocks;
+	}
+
+	private static ContentBlock readEmbeddedResource(String uri, String mimeType) {
+		IResourceTemplate<?, ?> resourceTemplate = Activator.getDefault().getServerManager().getResourceTemplate(uri);
+		if (resourceTemplate == null) {
+			return createNote("[" + uri + " is no longer available]");
+		}
+		// reads through the content cache for files, and at most the limit of large content
+		Content content = resourceTemplate.toContent(new ContentReader().setLimit(EMBEDDED_LIMIT));
+		String text = content.text();
+		if (content.nextCursor() != null) {
+			text += "\n[truncated after " + EMBEDDED_LIMIT / 1024 + " KB]";
+		}
+		return createEmbeddedResource(uri, mimeType, text);
+	}
+
+	private static ContentBlock createEmbeddedResource(String uri, String mimeType, String text) {
+		TextResourceContents contents = new TextResourceContents(null, mimeType, text, uri);
+		return new EmbeddedResourceBlock(null, null, contents, "resource");
+	}
+
+	private static ContentBlock createNote(String text) {
+		return new TextBlock(null, null, text, "text");
 	}
 	
 	public void clearAcpContexts() {
@@ -150,7 +257,9 @@ public class ChatResourceAdditions extends Composite {
 			}
 		}
 		chips.clear();
+		tokens.clear();
 		contexts.clear();
+		embedded.clear();
 		getParent().getParent().layout(true, true);
 	}
 	
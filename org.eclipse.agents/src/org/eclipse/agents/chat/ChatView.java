@@ -14,15 +14,17 @@
 package org.eclipse.agents.chat;
 
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
-import org.eclipse.agents.Activator;
+import org.eclipse.agents.Tracer;
+import org.eclipse.agents.UIExecutor;
 import org.eclipse.agents.chat.ContentAssistProvider.ResourceProposal;
 import org.eclipse.agents.chat.actions.NewSessionAction;
 import org.eclipse.agents.chat.controller.AgentController;
 import org.eclipse.agents.chat.controller.IAgentServiceListener;
 import org.eclipse.agents.chat.controller.SessionController;
+import org.eclipse.agents.chat.controller.SessionController.QueuedPrompt;
 import org.eclipse.agents.chat.controller.StartSessionJob;
 import org.eclipse.agents.chat.toolbar.ToolbarAgentSelector;
 import org.eclipse.agents.chat.toolbar.ToolbarModeSelector;
@@ -32,12 +34,12 @@ import org.eclipse.agents.chat.toolbar.ToolbarSessionStartStop;
 import org.eclipse.agents.contexts.platform.resource.WorkspaceResourceAdapter;
 import org.eclipse.agents.services.agent.IAgentService;
 import org.eclipse.agents.services.protocol.AcpSchema.ContentBlock;
-import org.eclipse.agents.services.protocol.AcpSchema.TextBlock;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.jobs.IJobChangeEvent;
 import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.IToolBarManager;
 import org.eclipse.jface.action.ToolBarManager;
 import org.eclipse.jface.fieldassist.IContentProposal;
@@ -67,6 +69,9 @@ public class ChatView extends ViewPart implements IAgentServiceListener, Travers
 	Text inputText;
 	boolean disposed = false;
 	ChatResourceAdditions contexts;
+	ChatPromptQueue promptQueue;
+	// queued prompt being edited in the input
+	QueuedPrompt editing;
 	ChatBrowser browser;
 
 	Composite middle;
@@ -94,6 +99,7 @@ public class ChatView extends ViewPart implements IAgentServiceListener, Travers
 		browser = new ChatBrowser(middle, SWT.NONE);
 		browser.initialize();
 		
+		promptQueue = new ChatPromptQueue(middle, SWT.NONE, this);
 		contexts = new ChatResourceAdditions(middle, SWT.NONE);
 
 		inputText = new Text(middle, SWT.MULTI | SWT.BORDER);
@@ -123,6 +129,13 @@ public class ChatView extends ViewPart implements IAgentServiceListener, Travers
         toolbarManager.add(sessionSelector);
         toolbarManager.add(startStop);
 
+        getViewSite().getActionBars().getMenuManager().add(new Action("Search Transcripts...") {
+        	@Override
+        	public void run() {
+        		new TranscriptSearchDialog(middle.getShell()).open();
+        	}
+        });
+
         // The toolbar will be updated automatically, but you can force an update if needed.
         getViewSite().getActionBars().updateActionBars();
         ChatView acpView = this;
@@ -219,16 +232,36 @@ public class ChatView extends ViewPart implements IAgentServiceListener, Travers
 			inputText.setText("");
 			inputText.clearSelection();
 			
-			List<ContentBlock> content = new ArrayList<ContentBlock>();
-			content.addAll(contexts.getContextBlocks());
-			content.add(new TextBlock(null, null, prompt, "text"));
+			List<CompletableFuture<ContentBlock>> blocks = contexts.getContextBlocks();
+			
+			IAgentService agent = this.activeAgent;
+			String sessionId = this.activeSessionId;
+			
+			// the embedded resources are read in the background while the prompt is queued,
+			// it is sent when they have been read and the turn before it has ended
+			CompletableFuture<ContentBlock[]> context = CompletableFuture.allOf(blocks.toArray(CompletableFuture[]::new))
+					.thenApply(v -> blocks.stream().map(CompletableFuture::join).toArray(ContentBlock[]::new));
+			context.whenComplete((result, ex) -> {
+				if (ex != null) {
+					Tracer.trace().trace(Tracer.CHAT, "prompt context not read", ex);
+				}
+			});
 			
-			if (activeSessionId != null) {
-				AgentController.getSession(activeSessionId).prompt(content.toArray(ContentBlock[]::new));
+			QueuedPrompt edited = editing;
+			editing = null;
+			if (edited != null && sessionId != null
+					&& AgentController.getSession(sessionId).edit(edited, prompt, context)) {
+				// keeps its place in the queue, the context attached while editing is added to its own
+				contexts.clearAcpContexts();
+				return;
+			}
+			
+			if (sessionId != null) {
+				AgentController.getSession(sessionId).enqueue(context, prompt);
 			} else {
 				StartSessionJob job = new StartSessionJob(
-						activeAgent,
-						activeAgent.getInitializeResponse(),
+						agent,
+						agent.getInitializeResponse(),
 						null);
 				job.schedule();
 				job.addJobChangeListener(new JobChangeAdapter() {
@@ -236,7 +269,7 @@ public class ChatView extends ViewPart implements IAgentServiceListener, Travers
 					public void done(IJobChangeEvent event) {
 						super.done(event);
 						if (event.getResult().isOK()) {
-							AgentController.getSession(job.getSessionId()).prompt(content.toArray(ContentBlock[]::new));
+							AgentController.getSession(job.getSessionId()).enqueue(context, prompt);
 						}
 					}
 					
@@ -246,6 +279,28 @@ public class ChatView extends ViewPart implements IAgentServiceListener, Travers
 			contexts.clearAcpContexts();
 		}
 	}
+
+	/**
+	 * Loads a queued prompt into the input, sending the input changes it in place
+	 */
+	public void editQueuedPrompt(QueuedPrompt prompt) {
+		editing = prompt;
+		inputText.setText(prompt.getText());
+		inputText.setSelection(inputText.getCharCount());
+		inputText.setFocus();
+	}
+
+	/**
+	 * Called by the controller when prompts are queued, edited, cancelled or sent
+	 */
+	public void promptQueueChanged(SessionController controller) {
+		UIExecutor.getDefault().asyncExec(() -> {
+			// the latest queue, changes may be reported out of order
+			if (!disposed && controller.getSessionId().equals(activeSessionId)) {
+				promptQueue.setPrompts(controller, controller.getQueuedPrompts());
+			}
+		});
+	}
 	
 	public void stopPromptTurn() {
 		if (activeSessionId != null) {
@@ -293,6 +348,12 @@ public class ChatView extends ViewPart implements IAgentServiceListener, Travers
 		}
 
 		this.activeSessionId = sessionId;
+		browser.setSessionId(sessionId);
+		editing = null;
+		SessionController controller = AgentController.getSession(sessionId);
+		if (controller != null) {
+			promptQueueChanged(controller);
+		}
 		updateEnablement();
 		
 	}
@@ -339,7 +400,7 @@ public class ChatView extends ViewPart implements IAgentServiceListener, Travers
 	}
 	
 	private void updateEnablement() {
-		Activator.getDisplay().asyncExec(new Runnable() {
+		UIExecutor.getDefault().asyncExec(new Runnable() {
 			public void run() {
 				if (!disposed) {
 					agentSelector.setEnabled(true);
@@ -16,8 +16,15 @@ package org.eclipse.agents.chat;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.eclipse.agents.contexts.platform.index.FileNameIndex;
+import org.eclipse.agents.contexts.platform.index.FileNameIndex.Entry;
+import org.eclipse.agents.contexts.platform.index.FileNameIndex.Match;
 import org.eclipse.agents.contexts.platform.resource.EditorAdapter;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Editor;
+import org.eclipse.agents.contexts.platform.resource.WorkspaceResourceAdapter;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.jface.fieldassist.ContentProposal;
 import org.eclipse.jface.fieldassist.IContentProposal;
 import org.eclipse.jface.fieldassist.IContentProposalListener;
@@ -25,6 +32,8 @@ import org.eclipse.jface.fieldassist.IContentProposalProvider;
 
 public class ContentAssistProvider implements IContentProposalProvider, IContentProposalListener {
 
+	private static final int MAX_FILES = 20;
+
 	@Override
 	public IContentProposal[] getProposals(String content, int caret) {
 		for (int i = caret - 1; i >=0; i--) {
@@ -50,9 +59,21 @@ public class ContentAssistProvider implements IContentProposalProvider, IContent
 	}
 
 	private IContentProposal[] getContexts(String content, int i, int caret) {
+		String query = content.substring(i + 1, caret);
 		List<IContentProposal> result = new ArrayList<IContentProposal>();
 		for (Editor editor: EditorAdapter.getEditors().editors()) {
-			result.add(new ResourceProposal(editor.name(), editor.name(), editor.editor().uri()));
+			if (editor.name().toLowerCase().contains(query.toLowerCase())) {
+				result.add(new ResourceProposal(editor.name(), editor.name(), editor.editor().uri()));
+			}
+		}
+
+		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+		for (Match match: FileNameIndex.getDefault().find(null, query, false, MAX_FILES)) {
+			Entry entry = match.entry();
+			IFile file = root.getFile(entry.getFullPath());
+			String uri = new WorkspaceResourceAdapter(file).toUri();
+			result.add(new ResourceProposal(file.getName(), file.getName(), uri,
+					file.getName() + " - " + entry.project() + "/" + entry.path(), null)); //$NON-NLS-1$ //$NON-NLS-2$
 		}
 		return result.toArray(IContentProposal[]::new);
 		
@@ -67,6 +88,12 @@ public class ContentAssistProvider implements IContentProposalProvider, IContent
 			this.uri = uri;
 			this.name = name;
 		}
+
+		public ResourceProposal(String content, String name, String uri, String label, String description) {
+			super(content, label, description);
+			this.uri = uri;
+			this.name = name;
+		}
 	}
 
 	@Override
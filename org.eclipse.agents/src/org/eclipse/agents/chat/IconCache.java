@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.chat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.agents.Activator;
+import org.eclipse.agents.Tracer;
+import org.eclipse.agents.UIExecutor;
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.jface.util.IPropertyChangeListener;
+import org.eclipse.jface.util.PropertyChangeEvent;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.ImageLoader;
+import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.themes.IThemeManager;
+
+/**
+ * URLs of PNG encoded icons for the chat page, created once per {@link ImageDescriptor}.
+ *
+ * Icons are written to the plug-in's state location so the page loads and caches each one by
+ * its URL, data URIs are used when they cannot be written.  A theme change drops the icons and
+ * deletes their files, the ones created after it get new URLs.
+ */
+public class IconCache implements IPropertyChangeListener {
+
+	private static IconCache instance;
+
+	Map<ImageDescriptor, String> uris = new ConcurrentHashMap<ImageDescriptor, String>();
+	File folder;
+	AtomicInteger generation = new AtomicInteger();
+	AtomicInteger created = new AtomicInteger();
+
+	public static synchronized IconCache getDefault() {
+		if (instance == null) {
+			instance = new IconCache();
+			if (PlatformUI.isWorkbenchRunning()) {
+				PlatformUI.getWorkbench().getThemeManager().addPropertyChangeListener(instance);
+			}
+		}
+		return instance;
+	}
+
+	public static synchronized void disposeDefault() {
+		if (instance != null) {
+			if (PlatformUI.isWorkbenchRunning()) {
+				PlatformUI.getWorkbench().getThemeManager().removePropertyChangeListener(instance);
+			}
+			instance.clear();
+			instance = null;
+		}
+	}
+
+	IconCache() {
+		try {
+			folder = Activator.getDefault().getStateLocation().append("icons").toFile(); //$NON-NLS-1$
+			folder.mkdirs();
+			// written by an earlier session
+			delete(""); //$NON-NLS-1$
+		} catch (IllegalStateException e) {
+			Tracer.trace().trace(Tracer.BROWSER, "icons are served as data uris", e); //$NON-NLS-1$
+			folder = null;
+		}
+	}
+
+	/**
+	 * @param descriptor
+	 * @return a URL of the icon as PNG, null if it cannot be created
+	 */
+	public String getUri(ImageDescriptor descriptor) {
+		String uri = uris.get(descriptor);
+		if (uri == null) {
+			uri = UIExecutor.getDefault().syncCall(() -> create(descriptor));
+			if (uri != null) {
+				uris.put(descriptor, uri);
+			}
+		}
+		return uri;
+	}
+
+	private String create(ImageDescriptor descriptor) {
+		Image image = descriptor.createImage(false, Activator.getDisplay());
+		if (image == null) {
+			return null;
+		}
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		try {
+			ImageLoader loader = new ImageLoader();
+			loader.data = new ImageData[] { image.getImageData() };
+			loader.save(bos, SWT.IMAGE_PNG);
+		} finally {
+			image.dispose();
+		}
+
+		byte[] bytes = bos.toByteArray();
+		if (folder != null) {
+			File file = new File(folder, "icon-" + generation.get() + "-" + created.incrementAndGet() + ".png"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			try {
+				Files.write(file.toPath(), bytes);
+				return file.toURI().toString();
+			} catch (IOException e) {
+				Tracer.trace().trace(Tracer.BROWSER, "icon not written: " + file, e); //$NON-NLS-1$
+			}
+		}
+		return "data:image/png;base64," + Base64.getEncoder().encodeToString(bytes); //$NON-NLS-1$
+	}
+
+	@Override
+	public void propertyChange(PropertyChangeEvent event) {
+		if (IThemeManager.CHANGE_CURRENT_THEME.equals(event.getProperty())) {
+			int previous = generation.getAndIncrement();
+			uris.clear();
+			if (folder != null) {
+				delete("icon-" + previous + "-"); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+	}
+
+	/**
+	 * Deletes the icon files whose names start with <code>prefix</code>
+	 */
+	private void delete(String prefix) {
+		File[] files = folder.listFiles();
+		if (files != null) {
+			for (File file: files) {
+				if (file.getName().startsWith(prefix) && !file.delete()) {
+					Tracer.trace().trace(Tracer.BROWSER, "icon not deleted: " + file); //$NON-NLS-1$
+				}
+			}
+		}
+	}
+
+	public void clear() {
+		uris.clear();
+	}
+}
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.chat;
+
+import java.text.DateFormat;
+import java.util.Date;
+import java.util.List;
+
+import org.eclipse.agents.chat.transcripts.TranscriptIndex;
+import org.eclipse.agents.chat.transcripts.TranscriptIndex.Transcript;
+import org.eclipse.jface.dialogs.Dialog;
+import org.eclipse.jface.dialogs.IDialogConstants;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.TableColumn;
+import org.eclipse.swt.widgets.TableItem;
+import org.eclipse.swt.widgets.Text;
+
+/**
+ * Searches the transcripts of earlier chat sessions as the query is typed, and shows the
+ * selected turn.
+ */
+public class TranscriptSearchDialog extends Dialog {
+
+	Text queryText;
+	Label status;
+	Table table;
+	Text turnText;
+
+	public TranscriptSearchDialog(Shell parentShell) {
+		super(parentShell);
+		setShellStyle(getShellStyle() & ~SWT.APPLICATION_MODAL | SWT.MODELESS | SWT.RESIZE);
+	}
+
+	@Override
+	protected void configureShell(Shell shell) {
+		super.configureShell(shell);
+		shell.setText("Search Chat Transcripts");
+	}
+
+	@Override
+	protected Control createDialogArea(Composite parent) {
+		Composite container = (Composite) super.createDialogArea(parent);
+		container.setLayout(new GridLayout(1, false));
+
+		queryText = new Text(container, SWT.SEARCH | SWT.ICON_SEARCH | SWT.ICON_CANCEL | SWT.BORDER);
+		queryText.setMessage("Words in a prompt or an agent's answer");
+		queryText.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
+		queryText.addModifyListener(e -> search());
+
+		status = new Label(container, SWT.NONE);
+		status.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
+
+		table = new Table(container, SWT.BORDER | SWT.FULL_SELECTION | SWT.SINGLE);
+		table.setHeaderVisible(true);
+		GridData gd = new GridData(GridData.FILL_BOTH);
+		gd.widthHint = convertWidthInCharsToPixels(120);
+		gd.heightHint = convertHeightInCharsToPixels(15);
+		table.setLayoutData(gd);
+		createColumn("Date", 18);
+		createColumn("Session", 16);
+		createColumn("Turn", 5);
+		createColumn("Match", 80);
+		table.addListener(SWT.Selection, e -> showTurn());
+
+		turnText = new Text(container, SWT.BORDER | SWT.MULTI | SWT.WRAP | SWT.V_SCROLL | SWT.READ_ONLY);
+		gd = new GridData(GridData.FILL_BOTH);
+		gd.heightHint = convertHeightInCharsToPixels(12);
+		turnText.setLayoutData(gd);
+
+		return container;
+	}
+
+	private void createColumn(String name, int chars) {
+		TableColumn column = new TableColumn(table, SWT.LEFT);
+		column.setText(name);
+		column.setWidth(convertWidthInCharsToPixels(chars));
+	}
+
+	private void search() {
+		table.removeAll();
+		turnText.setText("");
+
+		long start = System.nanoTime();
+		TranscriptIndex index = TranscriptIndex.getDefault();
+		List<Transcript> results = index.search(queryText.getText(), null);
+		long millis = (System.nanoTime() - start) / 1000000;
+
+		DateFormat format = DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT);
+		for (Transcript transcript: results) {
+			TableItem item = new TableItem(table, SWT.NONE);
+			item.setText(new String[] {
+				format.format(new Date(transcript.time())),
+				transcript.sessionId(),
+				String.valueOf(transcript.turn() + 1),
+				transcript.text()
+			});
+			item.setData(transcript);
+		}
+		status.setText(String.format("%d turns found in %d ms%s", results.size(), millis,
+				index.isIndexing() ? ", still indexing" : ""));
+	}
+
+	private void showTurn() {
+		TableItem[] selection = table.getSelection();
+		if (selection.length == 1 && selection[0].getData() instanceof Transcript) {
+			Transcript transcript = TranscriptIndex.getDefault().get(((Transcript)selection[0].getData()).doc());
+			turnText.setText(transcript == null ? "" : transcript.text());
+		}
+	}
+
+	@Override
+	protected void createButtonsForButtonBar(Composite parent) {
+		createButton(parent, IDialogConstants.CLOSE_ID, IDialogConstants.CLOSE_LABEL, true);
+	}
+
+	@Override
+	protected void buttonPressed(int buttonId) {
+		if (buttonId == IDialogConstants.CLOSE_ID) {
+			close();
+		} else {
+			super.buttonPressed(buttonId);
+		}
+	}
+}
@@ -0,0 +1,283 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.chat.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.eclipse.agents.Tracer;
+import org.eclipse.agents.services.protocol.AcpSchema.ContentBlock;
+import org.eclipse.agents.services.protocol.AcpSchema.EmbeddedResourceBlock;
+import org.eclipse.agents.services.protocol.AcpSchema.ModelInfo;
+import org.eclipse.agents.services.protocol.AcpSchema.ResourceLinkBlock;
+import org.eclipse.agents.services.protocol.AcpSchema.SessionModelState;
+import org.eclipse.agents.services.protocol.AcpSchema.TextBlock;
+import org.eclipse.agents.services.protocol.AcpSchema.TextResourceContents;
+
+/**
+ * Approximate size in tokens of the prompts of a session, and the most a prompt may use of the
+ * current model's context window.  A prompt over budget is fitted by trimming or linking its
+ * embedded resources, largest first, instead of being sent to fail with <code>max_tokens</code>.
+ *
+ * Tokens are estimated without a vocabulary, like a byte-pair encoder would split the text:
+ * short latin words are one token, longer ones one per {@link #LETTERS_PER_TOKEN} letters, numbers
+ * one per three digits, and every symbol, character of other scripts, line break and indentation
+ * one token.
+ */
+public class PromptBudget {
+
+	public static final int LETTERS_PER_TOKEN = 6;
+	public static final int BYTES_PER_TOKEN = 4;
+
+	/**
+	 * Context window of models that are not in {@link #CONTEXT_WINDOWS}
+	 */
+	public static final int DEFAULT_CONTEXT_WINDOW = 128000;
+
+	// the history of the session, the agent's instructions and the response need the rest
+	static final int PROMPT_SHARE_PERCENT = 50;
+
+	// an embedded resource that would be trimmed to less is linked instead
+	static final int MIN_TRIMMED_TOKENS = 1024;
+
+	// about one image or short audio clip
+	static final int MEDIA_TOKENS = 1600;
+
+	// type, uri and name of a block
+	static final int BLOCK_TOKENS = 16;
+
+	static final String TRIMMED = "\n[trimmed to fit the prompt budget]"; //$NON-NLS-1$
+
+	record ContextWindow(String match, int tokens) {}
+
+	/**
+	 * Matched in order against the lower case model id, the first fragment it contains wins
+	 */
+	static final ContextWindow[] CONTEXT_WINDOWS = {
+		new ContextWindow("[1m]", 1000000), //$NON-NLS-1$
+		new ContextWindow("gemini", 1048576), //$NON-NLS-1$
+		new ContextWindow("gpt-4.1", 1047576), //$NON-NLS-1$
+		new ContextWindow("gpt-5", 400000), //$NON-NLS-1$
+		new ContextWindow("gpt-4o", 128000), //$NON-NLS-1$
+		new ContextWindow("claude", 200000), //$NON-NLS-1$
+		new ContextWindow("opus", 200000), //$NON-NLS-1$
+		new ContextWindow("sonnet", 200000), //$NON-NLS-1$
+		new ContextWindow("haiku", 200000), //$NON-NLS-1$
+		new ContextWindow("default", 200000), //$NON-NLS-1$
+	};
+
+	int contextWindow;
+	int budget;
+
+	public PromptBudget(SessionModelState models) {
+		contextWindow = getContextWindow(models);
+		budget = (int)((long)contextWindow * PROMPT_SHARE_PERCENT / 100);
+	}
+
+	/**
+	 * @param models of a session, may be null
+	 * @return tokens in the context window of the current model, from the model's
+	 * <code>_meta.contextWindow</code> when the agent sends it
+	 */
+	public static int getContextWindow(SessionModelState models) {
+		if (models == null || models.currentModelId() == null) {
+			return DEFAULT_CONTEXT_WINDOW;
+		}
+		if (models.availableModels() != null) {
+			for (ModelInfo model: models.availableModels()) {
+				if (models.currentModelId().equals(model.modelId())
+						&& model.meta() != null
+						&& model.meta().get("contextWindow") instanceof Number) { //$NON-NLS-1$
+					return ((Number)model.meta().get("contextWindow")).intValue(); //$NON-NLS-1$
+				}
+			}
+		}
+		String id = models.currentModelId().toLowerCase(Locale.ROOT);
+		for (ContextWindow window: CONTEXT_WINDOWS) {
+			if (id.contains(window.match)) {
+				return window.tokens;
+			}
+		}
+		return DEFAULT_CONTEXT_WINDOW;
+	}
+
+	public int getContextWindow() {
+		return contextWindow;
+	}
+
+	/**
+	 * @return most tokens a prompt is sent with
+	 */
+	public int getBudget() {
+		return budget;
+	}
+
+	public static int estimateTokens(CharSequence text) {
+		return text == null ? 0 : estimateTokens(text, 0, text.length());
+	}
+
+	/**
+	 * Estimates the tokens of a range of <code>text</code> without allocating
+	 * @param text
+	 * @param start inclusive
+	 * @param end exclusive
+	 */
+	public static int estimateTokens(CharSequence text, int start, int end) {
+		int tokens = 0;
+		int i = start;
+		while (i < end) {
+			char c = text.charAt(i);
+			if (isLatinLetter(c)) {
+				int run = 0;
+				while (i < end && isLatinLetter(text.charAt(i))) {
+					run++;
+					i++;
+				}
+				tokens += 1 + (run - 1) / LETTERS_PER_TOKEN;
+			} else if (c >= '0' && c <= '9') {
+				int run = 0;
+				while (i < end && (c = text.charAt(i)) >= '0' && c <= '9') {
+					run++;
+					i++;
+				}
+				tokens += (run + 2) / 3;
+			} else if (c == ' ') {
+				int run = 0;
+				while (i < end && text.charAt(i) == ' ') {
+					run++;
+					i++;
+				}
+				// a single space belongs to the following word
+				if (run > 1) {
+					tokens += 1 + run / 8;
+				}
+			} else if (c == '\n' || c == '\r' || c == '\t') {
+				while (i < end && ((c = text.charAt(i)) == '\n' || c == '\r' || c == '\t')) {
+					i++;
+				}
+				tokens++;
+			} else {
+				// symbols, other scripts and each half of a surrogate pair
+				tokens++;
+				i++;
+			}
+		}
+		return tokens;
+	}
+
+	private static boolean isLatinLetter(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_'
+				|| (c >= 0xc0 && c < 0x250 && Character.isLetter(c));
+	}
+
+	public static int estimateTokens(ContentBlock block) {
+		if (block instanceof TextBlock) {
+			return estimateTokens(((TextBlock)block).text());
+		} else if (block instanceof ResourceLinkBlock) {
+			ResourceLinkBlock link = (ResourceLinkBlock)block;
+			return BLOCK_TOKENS + estimateTokens(link.uri()) + estimateTokens(link.description());
+		} else if (block instanceof EmbeddedResourceBlock) {
+			EmbeddedResourceBlock embedded = (EmbeddedResourceBlock)block;
+			if (embedded.resource() instanceof TextResourceContents) {
+				TextResourceContents contents = (TextResourceContents)embedded.resource();
+				return BLOCK_TOKENS + estimateTokens(contents.uri()) + estimateTokens(contents.text());
+			}
+		}
+		return MEDIA_TOKENS;
+	}
+
+	/**
+	 * @param bytes size of a resource
+	 * @return tokens it is likely to take, without reading it
+	 */
+	public static int estimateTokens(long bytes) {
+		return BLOCK_TOKENS + (int)Math.min(Integer.MAX_VALUE, bytes / BYTES_PER_TOKEN);
+	}
+
+	/**
+	 * @return length of the longest prefix of <code>text</code> with at most <code>tokens</code>
+	 */
+	static int prefixLength(CharSequence text, int tokens) {
+		int low = 0, high = text.length();
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (estimateTokens(text, 0, middle) <= tokens) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+		if (low > 0 && low < text.length() && Character.isHighSurrogate(text.charAt(low - 1))) {
+			low--;
+		}
+		return low;
+	}
+
+	/**
+	 * Trims or links the embedded resources of a prompt over budget, largest first, until it fits.
+	 * The prompt's own text is never changed.
+	 * @param blocks of a prompt
+	 * @return the blocks to send
+	 */
+	public ContentBlock[] fit(ContentBlock[] blocks) {
+		int[] tokens = new int[blocks.length];
+		long total = 0;
+		List<Integer> embedded = new ArrayList<Integer>();
+		for (int i = 0; i < blocks.length; i++) {
+			tokens[i] = estimateTokens(blocks[i]);
+			total += tokens[i];
+			if (blocks[i] instanceof EmbeddedResourceBlock
+					&& ((EmbeddedResourceBlock)blocks[i]).resource() instanceof TextResourceContents) {
+				embedded.add(i);
+			}
+		}
+		if (total <= budget) {
+			return blocks;
+		}
+
+		long estimated = total;
+		ContentBlock[] result = blocks.clone();
+		embedded.sort((a, b) -> tokens[b] - tokens[a]);
+		for (int i: embedded) {
+			if (total <= budget) {
+				break;
+			}
+			TextResourceContents contents = (TextResourceContents)((EmbeddedResourceBlock)result[i]).resource();
+			long keep = tokens[i] - (total - budget) - estimateTokens(TRIMMED);
+			if (keep >= MIN_TRIMMED_TOKENS) {
+				String text = contents.text().substring(0, prefixLength(contents.text(), (int)keep)) + TRIMMED;
+				result[i] = new EmbeddedResourceBlock(null, null,
+						new TextResourceContents(null, contents.mimeType(), text, contents.uri()), "resource"); //$NON-NLS-1$
+			} else {
+				String uri = contents.uri();
+				result[i] = new ResourceLinkBlock(null, null,
+						"Not embedded, the prompt would have exceeded the model's context window", //$NON-NLS-1$
+						contents.mimeType(), uri.substring(uri.lastIndexOf('/') + 1), null, null,
+						"resource_link", uri); //$NON-NLS-1$
+			}
+			int fitted = estimateTokens(result[i]);
+			total += fitted - tokens[i];
+			tokens[i] = fitted;
+		}
+		Tracer.trace().trace(Tracer.CHAT, String.format("prompt of ~%d tokens fitted to ~%d, budget %d of %d", //$NON-NLS-1$
+				estimated, total, budget, contextWindow));
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d of %d tokens", budget, contextWindow); //$NON-NLS-1$
+	}
+}
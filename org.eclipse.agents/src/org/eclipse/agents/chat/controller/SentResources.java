@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.chat.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.agents.services.protocol.AcpSchema.ContentBlock;
+import org.eclipse.agents.services.protocol.AcpSchema.EmbeddedResourceBlock;
+import org.eclipse.agents.services.protocol.AcpSchema.ResourceLinkBlock;
+import org.eclipse.agents.services.protocol.AcpSchema.TextResourceContents;
+
+/**
+ * Hashes of the embedded resources a session has sent to its agent.  A resource embedded again
+ * with the same text is replaced by a link to it, the agent already has its content.
+ */
+public class SentResources {
+
+	// content hash of each embedded resource sent, by uri
+	Map<String, String> hashes = new HashMap<String, String>();
+
+	long lastSaved = 0;
+	long totalSaved = 0;
+	int totalReplaced = 0;
+
+	/**
+	 * Replaces embedded resources whose text was already sent with links, and records the others
+	 * @param blocks of a prompt
+	 * @return the blocks to send
+	 */
+	public synchronized ContentBlock[] deduplicate(ContentBlock[] blocks) {
+		ContentBlock[] result = blocks.clone();
+		lastSaved = 0;
+		for (int i = 0; i < result.length; i++) {
+			if (result[i] instanceof EmbeddedResourceBlock
+					&& ((EmbeddedResourceBlock)result[i]).resource() instanceof TextResourceContents) {
+				TextResourceContents contents = (TextResourceContents)((EmbeddedResourceBlock)result[i]).resource();
+				if (contents.text() == null || contents.uri() == null) {
+					continue;
+				}
+				byte[] text = contents.text().getBytes(StandardCharsets.UTF_8);
+				String hash = hash(text);
+				if (hash.equals(hashes.get(contents.uri()))) {
+					result[i] = new ResourceLinkBlock(null, null,
+							"Unchanged since it was embedded in an earlier prompt of this session", //$NON-NLS-1$
+							contents.mimeType(), getName(contents.uri()), text.length, null,
+							"resource_link", contents.uri()); //$NON-NLS-1$
+					lastSaved += text.length;
+					totalReplaced++;
+				} else {
+					hashes.put(contents.uri(), hash);
+				}
+			}
+		}
+		totalSaved += lastSaved;
+		return result;
+	}
+
+	/**
+	 * Forgets the resources embedded in <code>blocks</code>, for a prompt that did not reach the agent
+	 * @param blocks returned by {@link #deduplicate(ContentBlock[])}
+	 */
+	public synchronized void forget(ContentBlock[] blocks) {
+		for (ContentBlock block: blocks) {
+			if (block instanceof EmbeddedResourceBlock
+					&& ((EmbeddedResourceBlock)block).resource() instanceof TextResourceContents) {
+				hashes.remove(((TextResourceContents)((EmbeddedResourceBlock)block).resource()).uri());
+			}
+		}
+	}
+
+	private String hash(byte[] text) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+			return Base64.getEncoder().encodeToString(digest.digest(text));
+		} catch (NoSuchAlgorithmException e) {
+			// required of every Java platform
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private String getName(String uri) {
+		String path = uri.endsWith("/") ? uri.substring(0, uri.length() - 1) : uri;
+		return path.substring(path.lastIndexOf('/') + 1);
+	}
+
+	/**
+	 * @return UTF-8 bytes not sent in the last prompt
+	 */
+	public synchronized long getLastSaved() {
+		return lastSaved;
+	}
+
+	public synchronized long getTotalSaved() {
+		return totalSaved;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("%d resources sent, %d replaced by links, %d bytes saved", //$NON-NLS-1$
+				hashes.size(), totalReplaced, totalSaved);
+	}
+}
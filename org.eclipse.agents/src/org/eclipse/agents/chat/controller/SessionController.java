@@ -14,11 +14,15 @@
 package org.eclipse.agents.chat.controller;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.eclipse.agents.Tracer;
 import org.eclipse.agents.chat.ChatBrowser;
 import org.eclipse.agents.chat.ChatView;
+import org.eclipse.agents.chat.transcripts.TranscriptIndex;
 import org.eclipse.agents.services.agent.IAgentService;
 import org.eclipse.agents.services.protocol.AcpSchema.CancelNotification;
 import org.eclipse.agents.services.protocol.AcpSchema.ContentBlock;
@@ -41,6 +45,7 @@ import org.eclipse.agents.services.protocol.AcpSchema.ReleaseTerminalRequest;
 import org.eclipse.agents.services.protocol.AcpSchema.ReleaseTerminalResponse;
 import org.eclipse.agents.services.protocol.AcpSchema.RequestPermissionRequest;
 import org.eclipse.agents.services.protocol.AcpSchema.RequestPermissionResponse;
+import org.eclipse.agents.services.protocol.AcpSchema.ResourceLinkBlock;
 import org.eclipse.agents.services.protocol.AcpSchema.SessionAgentMessageChunk;
 import org.eclipse.agents.services.protocol.AcpSchema.SessionAgentThoughtChunk;
 import org.eclipse.agents.services.protocol.AcpSchema.SessionAvailableCommandsUpdate;
@@ -51,6 +56,7 @@ import org.eclipse.agents.services.protocol.AcpSchema.SessionNotification;
 import org.eclipse.agents.services.protocol.AcpSchema.SessionPlan;
 import org.eclipse.agents.services.protocol.AcpSchema.SessionToolCall;
 import org.eclipse.agents.services.protocol.AcpSchema.SessionToolCallUpdate;
+import org.eclipse.agents.services.protocol.AcpSchema.SessionUpdate;
 import org.eclipse.agents.services.protocol.AcpSchema.SessionUserMessageChunk;
 import org.eclipse.agents.services.protocol.AcpSchema.SetSessionModeRequest;
 import org.eclipse.agents.services.protocol.AcpSchema.SetSessionModeResponse;
@@ -77,8 +83,45 @@ public class SessionController implements ISessionListener {
 	// State
 //	int promptId = 0;
 	private List<Object> session = new ArrayList<Object>();
+	// offset in session of each turn's prompt request, guarded by session
+	private List<Integer> turns = new ArrayList<Integer>();
+	// whether the last turn awaits its prompt response, guarded by session
+	private boolean turnOpen = false;
+	// whether a prompt request awaits its response, guarded by session
+	private boolean inFlight = false;
+	// prompts to send when the one in flight ends, in order, guarded by session
+	private List<QueuedPrompt> queue = new ArrayList<QueuedPrompt>();
+	private SentResources sentResources = new SentResources();
+	private PromptBudget promptBudget;
 	private static ListenerList<ChatView> chatViews = new ListenerList<ChatView>();
 	
+	/**
+	 * A prompt waiting for the turn in flight to end.  Its context is read while it waits,
+	 * its text can be edited until it is sent.
+	 */
+	public static class QueuedPrompt {
+		// replaced by edits adding context, while queued guarded by session
+		private volatile CompletableFuture<ContentBlock[]> context;
+		// guarded by this
+		private String text;
+
+		QueuedPrompt(CompletableFuture<ContentBlock[]> context, String text) {
+			this.context = context;
+			this.text = text;
+		}
+
+		public synchronized String getText() {
+			return text;
+		}
+
+		/**
+		 * @return whether the context has been read
+		 */
+		public boolean isReady() {
+			return context.isDone();
+		}
+	}
+
 	enum MessageType { session_prompt, user_message_chunk, agent_thought_chunk, agent_message_chunk, resource_link };
 
 	
@@ -117,23 +160,222 @@ public class SessionController implements ISessionListener {
 	public IAgentService getAgent() {
 		return agent;
 	}
+
+	public int getTurnCount() {
+		synchronized (session) {
+			return turns.size();
+		}
+	}
+
+	/**
+	 * @param index of the turn in this session
+	 * @return the turn's {@link PromptRequest} followed by its {@link SessionNotification}s,
+	 * empty if there is no such turn
+	 */
+	public List<Object> getTurn(int index) {
+		synchronized (session) {
+			if (index < 0 || index >= turns.size()) {
+				return List.of();
+			}
+			int end = index + 1 < turns.size() ? turns.get(index + 1) : session.size();
+			return new ArrayList<Object>(session.subList(turns.get(index), end));
+		}
+	}
 		
+	public SentResources getSentResources() {
+		return sentResources;
+	}
+
+	public synchronized PromptBudget getPromptBudget() {
+		if (promptBudget == null) {
+			promptBudget = new PromptBudget(models);
+		}
+		return promptBudget;
+	}
+
+	/**
+	 * Queues a prompt, it is sent as soon as its context has been read and no other prompt of
+	 * this session is in flight or queued before it
+	 * @param context blocks of the prompt, completed when their content has been read
+	 * @param text of the prompt
+	 * @return the prompt, until sent it can be edited or cancelled
+	 */
+	public QueuedPrompt enqueue(CompletableFuture<ContentBlock[]> context, String text) {
+		QueuedPrompt prompt = new QueuedPrompt(context, text);
+		synchronized (session) {
+			queue.add(prompt);
+		}
+		queueChanged();
+		sendWhenRead(context);
+		return prompt;
+	}
+
+	/**
+	 * @param prompt queued
+	 * @param text replacing the prompt's text
+	 * @param context blocks added to the prompt's context, completed when their content has been read
+	 * @return whether <code>prompt</code> was changed, false if it has already been sent or cancelled
+	 */
+	public boolean edit(QueuedPrompt prompt, String text, CompletableFuture<ContentBlock[]> context) {
+		CompletableFuture<ContentBlock[]> combined;
+		synchronized (session) {
+			if (!queue.contains(prompt)) {
+				return false;
+			}
+			synchronized (prompt) {
+				prompt.text = text;
+			}
+			combined = prompt.context.thenCombine(context, (blocks, added) -> {
+				ContentBlock[] all = Arrays.copyOf(blocks, blocks.length + added.length);
+				System.arraycopy(added, 0, all, blocks.length, added.length);
+				return all;
+			});
+			prompt.context = combined;
+		}
+		queueChanged();
+		sendWhenRead(combined);
+		return true;
+	}
+
+	private void sendWhenRead(CompletableFuture<ContentBlock[]> context) {
+		context.whenComplete((result, ex) -> {
+			queueChanged();
+			sendNext();
+		});
+	}
+
+	/**
+	 * @return whether <code>prompt</code> was removed, false if it has already been sent
+	 */
+	public boolean cancel(QueuedPrompt prompt) {
+		boolean removed;
+		synchronized (session) {
+			removed = queue.remove(prompt);
+		}
+		if (removed) {
+			queueChanged();
+		}
+		return removed;
+	}
+
+	public List<QueuedPrompt> getQueuedPrompts() {
+		synchronized (session) {
+			return new ArrayList<QueuedPrompt>(queue);
+		}
+	}
+
+	private void queueChanged() {
+		for (ChatView view: getChatViews(sessionId)) {
+			view.promptQueueChanged(this);
+		}
+	}
+
+	/**
+	 * Sends the first queued prompt if nothing is in flight and its context has been read
+	 */
+	private void sendNext() {
+		QueuedPrompt next;
+		String text;
+		synchronized (session) {
+			if (inFlight || queue.isEmpty() || !queue.get(0).context.isDone()) {
+				return;
+			}
+			next = queue.remove(0);
+			synchronized (next) {
+				text = next.text;
+			}
+			inFlight = true;
+		}
+		queueChanged();
+
+		ContentBlock[] context;
+		try {
+			context = next.context.join();
+		} catch (CompletionException e) {
+			Tracer.trace().trace(Tracer.CHAT, "prompt context not read", e); //$NON-NLS-1$
+			context = new ContentBlock[0];
+		}
+		ContentBlock[] blocks = Arrays.copyOf(context, context.length + 1);
+		blocks[context.length] = new TextBlock(null, null, text, "text"); //$NON-NLS-1$
+		prompt(blocks);
+	}
+
 	public void prompt(ContentBlock[] contentBlocks) {
-		PromptRequest request = new PromptRequest(null, contentBlocks, sessionId);
+		synchronized (session) {
+			inFlight = true;
+		}
+		// resources the agent already has are linked before the prompt is fitted to the budget,
+		// so they do not count at their full size
+		ContentBlock[] deduplicated = sentResources.deduplicate(contentBlocks);
+		if (sentResources.getLastSaved() > 0) {
+			Tracer.trace().trace(Tracer.CHAT, "prompt context unchanged, " + sentResources.getLastSaved() + " bytes sent as links"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		ContentBlock[] blocks = getPromptBudget().fit(deduplicated);
+		for (int i = 0; i < blocks.length; i++) {
+			if (blocks[i] != deduplicated[i]) {
+				// trimmed or linked, the agent does not get its whole text
+				sentResources.forget(new ContentBlock[] { deduplicated[i] });
+			}
+		}
+		PromptRequest request = new PromptRequest(null, blocks, sessionId);
 		AgentController.instance().clientRequests(request);
-		agent.getAgent().prompt(request).whenComplete((result, ex) -> {
+		int turn = getTurnCount() - 1;
+		CompletableFuture<PromptResponse> response;
+		try {
+			response = agent.getAgent().prompt(request);
+		} catch (RuntimeException e) {
+			// ends the turn as if the agent had failed it, so the queue is not stuck in flight
+			response = CompletableFuture.failedFuture(e);
+		}
+		response.whenComplete((result, ex) -> {
 	        if (ex != null) {
 	        	Tracer.trace().trace(Tracer.CHAT, "prompt error", ex); //$NON-NLS-1$
 	            ex.printStackTrace();
+	            // the agent may not have the embedded resources, embed them again next time
+	            sentResources.forget(blocks);
 	            
 	            // Gemini CLI: cancel before first thought throws JSONRPC error
 	            AgentController.instance().agentResponds(new PromptResponse(null, StopReason.refusal));
 	        } else {
 	        	AgentController.instance().agentResponds(result);
 	        }
+	        TranscriptIndex.getDefault().add(sessionId, turn, getTurnText(turn));
+	        // responses are broadcast to every session, the next prompt of this one follows its own
+	        synchronized (session) {
+	        	inFlight = false;
+	        }
+	        sendNext();
 	    });
 	}
 	
+	/**
+	 * @return the text of a turn's prompt, the names of its resources and tool calls, and the agent's messages
+	 */
+	private String getTurnText(int index) {
+		StringBuilder text = new StringBuilder();
+		for (Object item: getTurn(index)) {
+			if (item instanceof PromptRequest) {
+				for (ContentBlock block: ((PromptRequest)item).prompt()) {
+					if (block instanceof TextBlock) {
+						text.append(((TextBlock)block).text()).append('\n');
+					} else if (block instanceof ResourceLinkBlock) {
+						text.append(((ResourceLinkBlock)block).uri()).append('\n');
+					}
+				}
+				text.append('\n');
+			} else if (item instanceof SessionNotification) {
+				SessionUpdate update = ((SessionNotification)item).update();
+				if (update instanceof SessionAgentMessageChunk
+						&& ((SessionAgentMessageChunk)update).content() instanceof TextBlock) {
+					text.append(((TextBlock)((SessionAgentMessageChunk)update).content()).text());
+				} else if (update instanceof SessionToolCall && ((SessionToolCall)update).title() != null) {
+					text.append('\n').append(((SessionToolCall)update).title()).append('\n');
+				}
+			}
+		}
+		return text.toString();
+	}
+
 	public void stopPromptTurn(String sessionId) {
 		CancelNotification notification = new CancelNotification(null, sessionId);
 		AgentController.instance().clientNotifies(notification);
@@ -155,33 +397,23 @@ public class SessionController implements ISessionListener {
 			return;
 		}
 
-		session.add(notification);
+		// the JSON is only passed on to the page, it is not kept for the whole session
+		String json = notification.updateJson();
+		synchronized (session) {
+			session.add(json == null ? notification
+					: new SessionNotification(notification.meta(), notification.sessionId(), notification.update()));
+		}
 		
 		for (ChatView view: getChatViews(notification.sessionId())) {
 			ChatBrowser browser = view.getBrowser();
 
-			if (notification.update() instanceof SessionUserMessageChunk) {
-				browser.acceptSessionUserMessageChunk(
-						((SessionUserMessageChunk)notification.update()).content());
-			} else if (notification.update() instanceof SessionAgentThoughtChunk) {
-				browser.acceptSessionAgentThoughtChunk(
-						((SessionAgentThoughtChunk)notification.update()).content());
-			} else if (notification.update() instanceof SessionAgentMessageChunk) {
-				browser.acceptSessionAgentMessageChunk(
-						((SessionAgentMessageChunk)notification.update()).content());
-			} else if (notification.update() instanceof SessionToolCall) {
-				SessionToolCall toolCall = (SessionToolCall)notification.update();
-				browser.acceptSessionToolCall(
-						toolCall.toolCallId(), 
-						toolCall.title(), 
-						toolCall.kind().toString(), 
-						toolCall.status().toString());
-	
-			} else if (notification.update() instanceof SessionToolCallUpdate) {
-				SessionToolCallUpdate toolCall = (SessionToolCallUpdate)notification.update();
-				browser.acceptSessionToolCallUpdate(
-						toolCall.toolCallId(), 
-						toolCall.status().toString());
+			if (notification.update() instanceof SessionUserMessageChunk
+					|| notification.update() instanceof SessionAgentThoughtChunk
+					|| notification.update() instanceof SessionAgentMessageChunk
+					|| notification.update() instanceof SessionToolCall
+					|| notification.update() instanceof SessionToolCallUpdate) {
+				// chunks are passed to the page in the JSON the agent sent
+				browser.updateSession(notification.update(), json);
 			}
 			else if (notification.update() instanceof SessionPlan) {
 				PlanEntry[] entries = ((SessionPlan)notification.update()).entries();
@@ -309,6 +541,15 @@ public class SessionController implements ISessionListener {
 		
 		}
 		
+		synchronized (session) {
+			// responses are sent to every session, only the one prompted records its error
+			if (error != null && turnOpen) {
+				session.add(new SessionNotification(null, sessionId, 
+						new SessionAgentMessageChunk(error, "agent_message_chunk"))); //$NON-NLS-1$
+			}
+			turnOpen = false;
+		}
+		
 		for (ChatView view: getChatViews(sessionId)) {
 			if (error != null) {
 				view.getBrowser().acceptSessionAgentMessageChunk(error);
@@ -363,8 +604,20 @@ public class SessionController implements ISessionListener {
 
 	@Override
 	public void accept(PromptRequest request) {
+		if (!sessionId.equals(request.sessionId())) {
+			return;
+		}
+
+		int turn;
+		synchronized (session) {
+			turn = turns.size();
+			turns.add(session.size());
+			session.add(request);
+			turnOpen = true;
+		}
+		
 		for (ChatView view: getChatViews(sessionId)) {
-			view.getBrowser().acceptPromptRequest(request);
+			view.getBrowser().acceptPromptRequest(request, turn);
 			view.prompTurnStarted();
 		}
 		
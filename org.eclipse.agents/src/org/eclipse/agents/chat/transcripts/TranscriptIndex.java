@@ -0,0 +1,556 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.chat.transcripts;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.eclipse.agents.Activator;
+import org.eclipse.agents.Tracer;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+/**
+ * Chat transcripts saved in the plug-in's state location, one document per prompt turn, with an
+ * inverted index of their terms.
+ *
+ * Documents are appended to a log, the offset of each is kept in a second file so one can be read
+ * without reading the others.  New documents are searchable at once from an in-memory builder,
+ * a background job writes them to a segment file.  Once the newest segments include
+ * {@link #MERGE_FACTOR} of a similar size the job merges them, so each document is written again
+ * a logarithmic number of times.
+ * Documents the segments do not cover after a restart are indexed again from the log.
+ */
+public class TranscriptIndex {
+
+	public static final int DEFAULT_LIMIT = 50;
+	public static final int MAX_TEXT_LENGTH = 256 * 1024;
+
+	private static final int MIN_TERM_LENGTH = 2;
+	private static final int MAX_TERM_LENGTH = 64;
+	private static final int MAX_PREFIX_TERMS = 128;
+	private static final int SEGMENT_DOCS = 256;
+	private static final int MERGE_FACTOR = 4;
+	private static final int SNIPPET_LENGTH = 160;
+	private static final long DELAY = 2000;
+
+	private static TranscriptIndex instance;
+
+	/**
+	 * @param doc number of the document
+	 * @param sessionId of the turn
+	 * @param turn index of the turn in its session
+	 * @param time the turn ended at, in milliseconds
+	 * @param text of the turn, or a snippet of it around a match
+	 */
+	public record Transcript(int doc, String sessionId, int turn, long time, String text) {}
+
+	/**
+	 * A segment file with the range of documents in its name
+	 */
+	private record SegmentFile(int firstDoc, int endDoc, File file) {}
+
+	File folder;
+	// guarded by this
+	RandomAccessFile log;
+	RandomAccessFile offsetsFile;
+	long[] offsets = new long[1024];
+	int docs = 0;
+	TranscriptSegment.Builder builder = new TranscriptSegment.Builder();
+
+	volatile List<TranscriptSegment> segments = Collections.emptyList();
+	volatile boolean loaded = false;
+	volatile boolean disposed = false;
+	Job job;
+
+	public static synchronized TranscriptIndex getDefault() {
+		if (instance == null) {
+			instance = new TranscriptIndex();
+		}
+		return instance;
+	}
+
+	public static synchronized void disposeDefault() {
+		if (instance != null) {
+			instance.dispose();
+			instance = null;
+		}
+	}
+
+	TranscriptIndex() {
+		this(Activator.getDefault().getStateLocation().append("transcripts").toFile()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Opens the transcripts of <code>folder</code>, which is created if missing, and loads their
+	 * segments in the background
+	 */
+	public TranscriptIndex(File folder) {
+		this.folder = folder;
+		folder.mkdirs();
+		try {
+			log = new RandomAccessFile(new File(folder, "transcripts.log"), "rw"); //$NON-NLS-1$ //$NON-NLS-2$
+			offsetsFile = new RandomAccessFile(new File(folder, "transcripts.offsets"), "rw"); //$NON-NLS-1$ //$NON-NLS-2$
+			docs = (int)(offsetsFile.length() / Long.BYTES);
+			offsets = new long[Math.max(1024, docs * 2)];
+			// read at once, the offsets are written as big endian longs
+			byte[] bytes = new byte[docs * Long.BYTES];
+			offsetsFile.readFully(bytes);
+			ByteBuffer.wrap(bytes).asLongBuffer().get(offsets, 0, docs);
+			// ignore an offset written in part, and a document whose offset was not written
+			offsetsFile.setLength(docs * (long)Long.BYTES);
+		} catch (IOException e) {
+			Tracer.trace().trace(Tracer.CHAT, "Transcripts could not be opened", e); //$NON-NLS-1$
+			close();
+		}
+
+		job = new Job("Indexing chat transcripts") { //$NON-NLS-1$
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				try {
+					update(monitor);
+				} catch (RuntimeException e) {
+					Tracer.trace().trace(Tracer.CHAT, "Transcript index update failed", e); //$NON-NLS-1$
+				}
+				return Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+		job.setPriority(Job.DECORATE);
+		job.schedule();
+	}
+
+	public void dispose() {
+		disposed = true;
+		job.cancel();
+		try {
+			job.join(1000, null);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			// not finished, the next start indexes what was not written
+		}
+		if (loaded) {
+			flush();
+		}
+		close();
+	}
+
+	private synchronized void close() {
+		try {
+			if (log != null) {
+				log.close();
+			}
+			if (offsetsFile != null) {
+				offsetsFile.close();
+			}
+		} catch (IOException e) {
+			Tracer.trace().trace(Tracer.CHAT, "Transcripts not closed", e); //$NON-NLS-1$
+		}
+		log = null;
+		offsetsFile = null;
+	}
+
+	/**
+	 * @return whether segments are being loaded, or a flush or merge is about to run or running.
+	 * Documents waiting in the builder for a delayed flush are already searchable.
+	 */
+	public boolean isIndexing() {
+		int state = job.getState();
+		return !loaded || state == Job.WAITING || state == Job.RUNNING;
+	}
+
+	/**
+	 * Saves the transcript of a turn and makes it searchable
+	 * @param sessionId
+	 * @param turn index of the turn in the session
+	 * @param text of the prompt and the agent's messages
+	 */
+	public void add(String sessionId, int turn, String text) {
+		if (text.isBlank()) {
+			return;
+		}
+		if (text.length() > MAX_TEXT_LENGTH) {
+			text = text.substring(0, MAX_TEXT_LENGTH);
+		}
+		Set<String> terms = terms(text);
+		boolean full;
+		synchronized (this) {
+			if (log == null || disposed) {
+				return;
+			}
+			try {
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				DataOutputStream out = new DataOutputStream(bytes);
+				out.writeUTF(sessionId);
+				out.writeInt(turn);
+				out.writeLong(System.currentTimeMillis());
+				byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+				out.writeInt(utf8.length);
+				out.write(utf8);
+
+				long offset = log.length();
+				log.seek(offset);
+				log.write(bytes.toByteArray());
+				offsetsFile.seek(docs * (long)Long.BYTES);
+				offsetsFile.writeLong(offset);
+
+				if (docs == offsets.length) {
+					offsets = Arrays.copyOf(offsets, docs * 2);
+				}
+				offsets[docs] = offset;
+				// documents not yet loaded are indexed from the log by the job
+				if (loaded) {
+					builder.add(docs, terms);
+				}
+				docs++;
+			} catch (IOException e) {
+				Tracer.trace().trace(Tracer.CHAT, "Transcript not saved: " + sessionId, e); //$NON-NLS-1$
+				return;
+			}
+			full = !builder.isEmpty() && builder.endDoc - builder.firstDoc >= SEGMENT_DOCS;
+		}
+		job.schedule(full ? 0 : DELAY);
+	}
+
+	void update(IProgressMonitor monitor) {
+		if (!loaded) {
+			load(monitor);
+		}
+		if (!monitor.isCanceled() && !disposed) {
+			flush();
+		}
+		List<TranscriptSegment> current = segments;
+		for (int from = mergeFrom(current); from >= 0 && !monitor.isCanceled() && !disposed; from = mergeFrom(current)) {
+			if (!merge(current, from)) {
+				break;
+			}
+			current = segments;
+		}
+	}
+
+	/**
+	 * @return the tier of a segment, a segment of tier t holds at least {@link #MERGE_FACTOR}^t
+	 * and less than {@link #MERGE_FACTOR}^(t+1) documents
+	 */
+	private static int tier(TranscriptSegment segment) {
+		int tier = 0;
+		for (int size = segment.endDoc - segment.firstDoc; size >= MERGE_FACTOR; size /= MERGE_FACTOR) {
+			tier++;
+		}
+		return tier;
+	}
+
+	/**
+	 * @return the index of the first of the newest segments to merge, when there are
+	 * {@link #MERGE_FACTOR} of the newest one's tier with no segment of a higher tier between them,
+	 * otherwise -1.  Segments of lower tiers between or right before them are merged with them.
+	 */
+	private static int mergeFrom(List<TranscriptSegment> segments) {
+		if (segments.isEmpty()) {
+			return -1;
+		}
+		int tier = tier(segments.get(segments.size() - 1));
+		int count = 0;
+		for (int i = segments.size() - 1; i >= 0; i--) {
+			int other = tier(segments.get(i));
+			if (other > tier) {
+				break;
+			} else if (other == tier && ++count == MERGE_FACTOR) {
+				while (i > 0 && tier(segments.get(i - 1)) < tier) {
+					i--;
+				}
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Reads the segments written before and indexes the documents they do not cover
+	 */
+	private void load(IProgressMonitor monitor) {
+		File[] files = folder.listFiles((dir, name) -> name.startsWith("segment-") && name.endsWith(".idx")); //$NON-NLS-1$ //$NON-NLS-2$
+		List<SegmentFile> found = new ArrayList<SegmentFile>();
+		for (File file: files == null ? new File[0] : files) {
+			String name = file.getName();
+			String[] range = name.substring("segment-".length(), name.length() - ".idx".length()).split("-"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			try {
+				found.add(new SegmentFile(Integer.parseInt(range[0]), Integer.parseInt(range[1]), file));
+			} catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+				delete(file);
+			}
+		}
+		// the longest chain from the first document by the files' names.  Segments left over by a merge
+		// are deleted before any segment is mapped, a mapped file cannot be deleted on every platform
+		found.sort((a, b) -> a.firstDoc != b.firstDoc ? a.firstDoc - b.firstDoc : b.endDoc - a.endDoc);
+		List<SegmentFile> chain = new ArrayList<SegmentFile>();
+		int end = 0;
+		for (SegmentFile file: found) {
+			if (file.firstDoc == end && file.endDoc > end && file.endDoc <= docs) {
+				chain.add(file);
+				end = file.endDoc;
+			} else {
+				delete(file.file);
+			}
+		}
+
+		List<TranscriptSegment> chainRead = new ArrayList<TranscriptSegment>();
+		end = 0;
+		for (SegmentFile file: chain) {
+			if (file.firstDoc == end) {
+				try {
+					TranscriptSegment segment = TranscriptSegment.read(file.file);
+					if (segment.firstDoc == file.firstDoc && segment.endDoc == file.endDoc) {
+						chainRead.add(segment);
+						end = segment.endDoc;
+						continue;
+					}
+				} catch (IOException e) {
+					Tracer.trace().trace(Tracer.CHAT, "Transcript segment not read: " + file.file, e); //$NON-NLS-1$
+				}
+			}
+			// its documents and those after them are indexed again from the log
+			delete(file.file);
+		}
+
+		int first;
+		synchronized (this) {
+			segments = Collections.unmodifiableList(chainRead);
+			first = end;
+		}
+		for (int doc = first; ; doc++) {
+			if (monitor.isCanceled() || disposed) {
+				return;
+			}
+			synchronized (this) {
+				if (doc >= docs) {
+					// later documents are added to the builder directly
+					loaded = true;
+					break;
+				}
+				Transcript transcript = read(doc);
+				builder.add(doc, terms(transcript == null ? "" : transcript.text)); //$NON-NLS-1$
+			}
+		}
+		Tracer.trace().trace(Tracer.CHAT, "Transcripts loaded: " + this); //$NON-NLS-1$
+	}
+
+	/**
+	 * Writes the documents in the builder to a new segment
+	 */
+	private void flush() {
+		TranscriptSegment segment;
+		synchronized (this) {
+			if (builder.isEmpty()) {
+				return;
+			}
+			segment = builder.build();
+			List<TranscriptSegment> next = new ArrayList<TranscriptSegment>(segments);
+			next.add(segment);
+			segments = Collections.unmodifiableList(next);
+		}
+		try {
+			segment.write(getFile(segment));
+		} catch (IOException e) {
+			Tracer.trace().trace(Tracer.CHAT, "Transcript segment not written", e); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Replaces the segments of <code>current</code> from <code>from</code> on by one, their files
+	 * are deleted once the new one is written.  Segments flushed meanwhile are kept after it.
+	 * @return whether the segments were merged
+	 */
+	private boolean merge(List<TranscriptSegment> current, int from) {
+		List<TranscriptSegment> merged = current.subList(from, current.size());
+		TranscriptSegment segment = TranscriptSegment.merge(merged);
+		try {
+			segment.write(getFile(segment));
+		} catch (IOException e) {
+			Tracer.trace().trace(Tracer.CHAT, "Transcript segments not merged", e); //$NON-NLS-1$
+			return false;
+		}
+		synchronized (this) {
+			List<TranscriptSegment> next = new ArrayList<TranscriptSegment>(segments.subList(0, from));
+			next.add(segment);
+			next.addAll(segments.subList(current.size(), segments.size()));
+			segments = Collections.unmodifiableList(next);
+		}
+		for (TranscriptSegment old: merged) {
+			delete(getFile(old));
+		}
+		return true;
+	}
+
+	private File getFile(TranscriptSegment segment) {
+		return new File(folder, "segment-" + segment.firstDoc + "-" + segment.endDoc + ".idx"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	/**
+	 * Deletes a segment file, one still mapped cannot be deleted on every platform and is deleted
+	 * by the next start, as the merged segment replacing it is found first
+	 */
+	private void delete(File file) {
+		if (file.exists() && !file.delete()) {
+			Tracer.trace().trace(Tracer.CHAT, "Transcript segment not deleted: " + file); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Lower case runs of letters and digits
+	 */
+	static Set<String> terms(String text) {
+		Set<String> terms = new LinkedHashSet<String>();
+		int start = -1;
+		for (int i = 0; i <= text.length(); i++) {
+			boolean letter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+			if (letter && start < 0) {
+				start = i;
+			} else if (!letter && start >= 0) {
+				if (i - start >= MIN_TERM_LENGTH && i - start <= MAX_TERM_LENGTH) {
+					terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+				}
+				start = -1;
+			}
+		}
+		return terms;
+	}
+
+	/**
+	 * Finds the turns containing every term of <code>query</code>, the last one also as a prefix
+	 * while it is being typed
+	 * @param query
+	 * @param limit most turns to return, {@link #DEFAULT_LIMIT} if null
+	 * @return matching turns, most recent first, with a snippet of their text
+	 */
+	public List<Transcript> search(String query, Integer limit) {
+		int max = limit == null ? DEFAULT_LIMIT : limit;
+		List<String> terms = new ArrayList<String>(terms(query));
+		boolean prefix = !query.isEmpty() && Character.isLetterOrDigit(query.charAt(query.length() - 1));
+		List<Transcript> results = new ArrayList<Transcript>();
+		if (terms.isEmpty() || max <= 0) {
+			return results;
+		}
+
+		List<TranscriptSegment> current;
+		int[] recent;
+		synchronized (this) {
+			current = segments;
+			recent = match(terms, prefix, builder, null);
+		}
+		addResults(recent, terms, max, results);
+		for (int i = current.size() - 1; i >= 0 && results.size() < max; i--) {
+			addResults(match(terms, prefix, null, current.get(i)), terms, max, results);
+		}
+		return results;
+	}
+
+	private int[] match(List<String> terms, boolean prefix, TranscriptSegment.Builder builder, TranscriptSegment segment) {
+		int[] result = null;
+		for (int i = 0; i < terms.size(); i++) {
+			String term = terms.get(i);
+			int[] ids;
+			if (prefix && i == terms.size() - 1) {
+				ids = builder != null ? builder.getPrefix(term, MAX_PREFIX_TERMS) : segment.getPrefix(term, MAX_PREFIX_TERMS);
+			} else {
+				ids = builder != null ? builder.get(term) : segment.get(term);
+			}
+			result = result == null ? ids : TranscriptSegment.intersect(result, ids);
+			if (result.length == 0) {
+				break;
+			}
+		}
+		return result;
+	}
+
+	private void addResults(int[] ids, List<String> terms, int max, List<Transcript> results) {
+		for (int i = ids.length - 1; i >= 0 && results.size() < max; i--) {
+			Transcript transcript;
+			synchronized (this) {
+				transcript = read(ids[i]);
+			}
+			if (transcript != null) {
+				results.add(new Transcript(transcript.doc, transcript.sessionId, transcript.turn, transcript.time,
+						snippet(transcript.text, terms)));
+			}
+		}
+	}
+
+	private String snippet(String text, List<String> terms) {
+		String lower = text.toLowerCase(Locale.ROOT);
+		int at = lower.indexOf(terms.get(0));
+		int start = Math.min(text.length(), Math.max(0, at - SNIPPET_LENGTH / 4));
+		int end = Math.min(text.length(), start + SNIPPET_LENGTH);
+		String snippet = text.substring(start, end).replaceAll("\\s+", " ").strip(); //$NON-NLS-1$ //$NON-NLS-2$
+		return (start > 0 ? "..." : "") + snippet + (end < text.length() ? "..." : ""); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+	}
+
+	/**
+	 * @param doc number of a document
+	 * @return the whole transcript of the document, null if it cannot be read
+	 */
+	public synchronized Transcript get(int doc) {
+		return read(doc);
+	}
+
+	// called holding this
+	private Transcript read(int doc) {
+		if (log == null || doc < 0 || doc >= docs) {
+			return null;
+		}
+		try {
+			log.seek(offsets[doc]);
+			String sessionId = log.readUTF();
+			int turn = log.readInt();
+			long time = log.readLong();
+			byte[] utf8 = new byte[log.readInt()];
+			log.readFully(utf8);
+			return new Transcript(doc, sessionId, turn, time, new String(utf8, StandardCharsets.UTF_8));
+		} catch (IOException e) {
+			Tracer.trace().trace(Tracer.CHAT, "Transcript not read: " + doc, e); //$NON-NLS-1$
+			return null;
+		}
+	}
+
+	/**
+	 * @return number of segments searched, documents still in the builder are not in a segment
+	 */
+	public int getSegmentCount() {
+		return segments.size();
+	}
+
+	@Override
+	public synchronized String toString() {
+		int terms = 0;
+		for (TranscriptSegment segment: segments) {
+			terms += segment.terms.length;
+		}
+		return String.format("%d turns, %d segments, %d terms", docs, segments.size(), terms); //$NON-NLS-1$
+	}
+}
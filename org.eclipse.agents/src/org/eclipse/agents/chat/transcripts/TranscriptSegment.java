@@ -0,0 +1,334 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.chat.transcripts;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable postings of the terms of a contiguous range of transcript documents.  Terms are kept
+ * sorted on the heap, the sorted document ids of each term are delta encoded as variable length
+ * integers in a buffer, mapped from the segment's file once it has been written.
+ *
+ * Documents are numbered in the order they are added and a later segment starts where the one
+ * before it ends, so postings of several segments concatenate in order.
+ */
+class TranscriptSegment {
+
+	static final int MAGIC = 0x54525853;
+	static final int VERSION = 1;
+	static final int HEADER = 6 * Integer.BYTES;
+
+	final int firstDoc;
+	final int endDoc;
+	final String[] terms;
+	final int[] starts;
+	final ByteBuffer postings;
+
+	private TranscriptSegment(int firstDoc, int endDoc, String[] terms, int[] starts, ByteBuffer postings) {
+		this.firstDoc = firstDoc;
+		this.endDoc = endDoc;
+		this.terms = terms;
+		this.starts = starts;
+		this.postings = postings;
+	}
+
+	/**
+	 * @return sorted ids of the documents containing <code>term</code>
+	 */
+	int[] get(String term) {
+		int index = Arrays.binarySearch(terms, term);
+		return index < 0 ? new int[0] : decode(index);
+	}
+
+	/**
+	 * @param prefix
+	 * @param maxTerms most terms starting with <code>prefix</code> to look up
+	 * @return sorted ids of the documents containing a term starting with <code>prefix</code>
+	 */
+	int[] getPrefix(String prefix, int maxTerms) {
+		int index = Arrays.binarySearch(terms, prefix);
+		if (index < 0) {
+			index = -index - 1;
+		}
+		int[] result = new int[0];
+		for (int i = index; i < terms.length && i < index + maxTerms && terms[i].startsWith(prefix); i++) {
+			result = union(result, decode(i));
+		}
+		return result;
+	}
+
+	private int[] decode(int index) {
+		int[] ids = new int[16];
+		int n = 0, position = starts[index], end = starts[index + 1], previous = firstDoc;
+		while (position < end) {
+			int value = 0, shift = 0;
+			byte b;
+			do {
+				b = postings.get(position++);
+				value |= (b & 0x7f) << shift;
+				shift += 7;
+			} while (b < 0);
+			previous += value;
+			if (n == ids.length) {
+				ids = Arrays.copyOf(ids, n * 2);
+			}
+			ids[n++] = previous;
+		}
+		return Arrays.copyOf(ids, n);
+	}
+
+	static int[] intersect(int[] a, int[] b) {
+		int[] result = new int[Math.min(a.length, b.length)];
+		int i = 0, j = 0, n = 0;
+		while (i < a.length && j < b.length) {
+			if (a[i] < b[j]) {
+				i++;
+			} else if (a[i] > b[j]) {
+				j++;
+			} else {
+				result[n++] = a[i];
+				i++;
+				j++;
+			}
+		}
+		return Arrays.copyOf(result, n);
+	}
+
+	static int[] union(int[] a, int[] b) {
+		int[] result = new int[a.length + b.length];
+		int i = 0, j = 0, n = 0;
+		while (i < a.length || j < b.length) {
+			if (j == b.length || (i < a.length && a[i] < b[j])) {
+				result[n++] = a[i++];
+			} else if (i == a.length || a[i] > b[j]) {
+				result[n++] = b[j++];
+			} else {
+				result[n++] = a[i];
+				i++;
+				j++;
+			}
+		}
+		return Arrays.copyOf(result, n);
+	}
+
+	private static void encode(ByteArrayOutputStream out, int[] ids, int length, int firstDoc) {
+		int previous = firstDoc;
+		for (int i = 0; i < length; i++) {
+			int value = ids[i] - previous;
+			previous = ids[i];
+			while ((value & ~0x7f) != 0) {
+				out.write((value & 0x7f) | 0x80);
+				value >>>= 7;
+			}
+			out.write(value);
+		}
+	}
+
+	private static TranscriptSegment create(int firstDoc, int endDoc, String[] terms, Map<String, int[]> postings) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		int[] starts = new int[terms.length + 1];
+		for (int i = 0; i < terms.length; i++) {
+			int[] ids = postings.get(terms[i]);
+			starts[i] = out.size();
+			// first element holds the number of ids
+			encode(out, Arrays.copyOfRange(ids, 1, ids[0] + 1), ids[0], firstDoc);
+		}
+		starts[terms.length] = out.size();
+		return new TranscriptSegment(firstDoc, endDoc, terms, starts, ByteBuffer.wrap(out.toByteArray()));
+	}
+
+	/**
+	 * Writes the segment to a temporary file and moves it into place, so a segment file is always complete
+	 */
+	void write(File file) throws IOException {
+		File temp = new File(file.getParentFile(), file.getName() + ".tmp"); //$NON-NLS-1$
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(firstDoc);
+			out.writeInt(endDoc);
+			out.writeInt(terms.length);
+			out.writeInt(postings.capacity());
+			for (int i = 0; i < postings.capacity(); i++) {
+				out.write(postings.get(i));
+			}
+			for (String term: terms) {
+				out.writeUTF(term);
+			}
+			for (int start: starts) {
+				out.writeInt(start);
+			}
+		}
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Maps the postings of a segment file and reads its terms
+	 */
+	static TranscriptSegment read(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER);
+			while (header.hasRemaining() && channel.read(header) >= 0) {
+				// read the whole header
+			}
+			header.flip();
+			if (header.remaining() < HEADER || header.getInt() != MAGIC || header.getInt() != VERSION) {
+				throw new IOException("Not a transcript segment: " + file); //$NON-NLS-1$
+			}
+			int firstDoc = header.getInt();
+			int endDoc = header.getInt();
+			int count = header.getInt();
+			int length = header.getInt();
+
+			ByteBuffer postings = channel.map(FileChannel.MapMode.READ_ONLY, HEADER, length);
+			channel.position(HEADER + (long)length);
+			DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+			String[] terms = new String[count];
+			for (int i = 0; i < count; i++) {
+				terms[i] = in.readUTF();
+			}
+			int[] starts = new int[count + 1];
+			for (int i = 0; i <= count; i++) {
+				starts[i] = in.readInt();
+			}
+			return new TranscriptSegment(firstDoc, endDoc, terms, starts, postings);
+		}
+	}
+
+	/**
+	 * Accumulates the terms of documents before they are written to a segment
+	 */
+	static class Builder {
+
+		Map<String, int[]> postings = new HashMap<String, int[]>();
+		int firstDoc = -1;
+		int endDoc = -1;
+
+		/**
+		 * @param doc larger than any document added before
+		 * @param terms distinct terms of the document
+		 */
+		void add(int doc, Collection<String> terms) {
+			if (firstDoc < 0) {
+				firstDoc = doc;
+			}
+			for (String term: terms) {
+				// first element holds the number of ids
+				int[] ids = postings.get(term);
+				if (ids == null) {
+					ids = new int[4];
+					postings.put(term, ids);
+				} else if (ids[0] + 1 == ids.length) {
+					ids = Arrays.copyOf(ids, ids.length * 2);
+					postings.put(term, ids);
+				}
+				ids[++ids[0]] = doc;
+			}
+			endDoc = doc + 1;
+		}
+
+		boolean isEmpty() {
+			return firstDoc < 0;
+		}
+
+		/**
+		 * @return sorted ids of the documents added with <code>term</code>
+		 */
+		int[] get(String term) {
+			int[] ids = postings.get(term);
+			return ids == null ? new int[0] : Arrays.copyOfRange(ids, 1, ids[0] + 1);
+		}
+
+		int[] getPrefix(String prefix, int maxTerms) {
+			int[] result = new int[0];
+			int found = 0;
+			for (Map.Entry<String, int[]> entry: postings.entrySet()) {
+				if (entry.getKey().startsWith(prefix) && found++ < maxTerms) {
+					int[] ids = entry.getValue();
+					result = union(result, Arrays.copyOfRange(ids, 1, ids[0] + 1));
+				}
+			}
+			return result;
+		}
+
+		TranscriptSegment build() {
+			String[] terms = postings.keySet().toArray(String[]::new);
+			Arrays.sort(terms);
+			TranscriptSegment segment = create(firstDoc, endDoc, terms, postings);
+			postings = new HashMap<String, int[]>();
+			firstDoc = endDoc = -1;
+			return segment;
+		}
+	}
+
+	/**
+	 * Merges contiguous segments, in their order
+	 */
+	static TranscriptSegment merge(List<TranscriptSegment> segments) {
+		int count = 0;
+		for (TranscriptSegment segment: segments) {
+			count += segment.terms.length;
+		}
+		String[] all = new String[count];
+		count = 0;
+		for (TranscriptSegment segment: segments) {
+			System.arraycopy(segment.terms, 0, all, count, segment.terms.length);
+			count += segment.terms.length;
+		}
+		Arrays.sort(all);
+
+		int distinct = 0;
+		for (int i = 0; i < all.length; i++) {
+			if (i == 0 || !all[i].equals(all[i - 1])) {
+				all[distinct++] = all[i];
+			}
+		}
+		String[] terms = Arrays.copyOf(all, distinct);
+
+		Map<String, int[]> postings = new HashMap<String, int[]>();
+		for (String term: terms) {
+			int[] ids = new int[1];
+			for (TranscriptSegment segment: segments) {
+				int[] more = segment.get(term);
+				if (more.length > 0) {
+					int n = ids.length;
+					ids = Arrays.copyOf(ids, n + more.length);
+					System.arraycopy(more, 0, ids, n, more.length);
+				}
+			}
+			ids[0] = ids.length - 1;
+			postings.put(term, ids);
+		}
+		TranscriptSegment first = segments.get(0), last = segments.get(segments.size() - 1);
+		return create(first.firstDoc, last.endDoc, terms, postings);
+	}
+}
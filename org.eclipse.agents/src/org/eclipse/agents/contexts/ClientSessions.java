@@ -0,0 +1,249 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.contexts;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import io.modelcontextprotocol.json.TypeRef;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.ClientCapabilities;
+import io.modelcontextprotocol.spec.McpSchema.Implementation;
+import io.modelcontextprotocol.spec.McpSchema.JSONRPCMessage;
+import io.modelcontextprotocol.spec.McpSchema.JSONRPCRequest;
+import io.modelcontextprotocol.spec.McpSchema.JSONRPCResponse;
+import io.modelcontextprotocol.spec.McpSchema.JSONRPCResponse.JSONRPCError;
+import io.modelcontextprotocol.spec.McpSchema.LoggingLevel;
+import io.modelcontextprotocol.spec.McpServerSession;
+import io.modelcontextprotocol.spec.McpServerTransport;
+import io.modelcontextprotocol.spec.McpServerTransportProvider;
+import reactor.core.publisher.Mono;
+
+/**
+ * The sessions of connected clients, for notifications that are not sent to every client alike.
+ *
+ * Wraps the transport provider the server is built with, so the session factory the server
+ * installs passes through it before any client connects.  Sessions are kept weakly: the
+ * transport forgets a session when its client disconnects, without telling the server, and the
+ * session is collected after that.
+ *
+ * Listeners are told when a client connects, when a disconnected client is noticed and when a
+ * client sets its logging level, so what depends on the sessions need not be read on every use.
+ *
+ * Requests the SDK does not handle are answered by the handlers added before the server is
+ * built.  The sessions of the server are then wrapped in sessions that answer those requests and
+ * pass every other message on, which relies on all client messages reaching
+ * {@link McpServerSession#handle(JSONRPCMessage)}, as they do in MCP Java SDK 0.14.
+ */
+public class ClientSessions implements McpServerTransportProvider {
+
+	/**
+	 * Answers a request of a client, on the transport's thread
+	 */
+	public interface RequestHandler {
+		/**
+		 * @param sessionId of the requesting client
+		 * @param params of the request, may be null
+		 * @return the result, serialized as JSON
+		 * @throws RuntimeException answered as an error
+		 */
+		Object handle(String sessionId, Object params);
+	}
+
+	McpServerTransportProvider transportProvider;
+	Map<String, RequestHandler> requestHandlers = new HashMap<String, RequestHandler>();
+	Map<String, WeakReference<McpServerSession>> sessions = new ConcurrentHashMap<String, WeakReference<McpServerSession>>();
+	List<Runnable> listeners = new CopyOnWriteArrayList<Runnable>();
+	boolean built = false;
+
+	public ClientSessions(McpServerTransportProvider transportProvider) {
+		this.transportProvider = transportProvider;
+	}
+
+	/**
+	 * Answers <code>method</code> in every session, to be called before the server is built
+	 * @param method
+	 * @param handler
+	 */
+	public synchronized void addRequestHandler(String method, RequestHandler handler) {
+		if (built) {
+			throw new IllegalStateException("Request handlers must be added before the server is built"); //$NON-NLS-1$
+		}
+		requestHandlers.put(method, handler);
+	}
+
+	/**
+	 * @param listener called when the sessions or their logging levels have changed, on the
+	 * thread that noticed the change
+	 */
+	public void addListener(Runnable listener) {
+		listeners.add(listener);
+	}
+
+	void changed() {
+		for (Runnable listener: listeners) {
+			listener.run();
+		}
+	}
+
+	@Override
+	public synchronized void setSessionFactory(McpServerSession.Factory sessionFactory) {
+		built = true;
+		Map<String, RequestHandler> handlers = Map.copyOf(requestHandlers);
+		transportProvider.setSessionFactory(transport -> {
+			// always wrapped, to notice the logging level being set
+			McpServerSession session = new HandlingSession(sessionFactory.create(transport), transport, handlers, this::changed);
+			sessions.put(session.getId(), new WeakReference<McpServerSession>(session));
+			changed();
+			return session;
+		});
+	}
+
+	/**
+	 * @param id as returned by the session's exchange
+	 * @return the session, or null if its client has disconnected
+	 */
+	public McpServerSession getSession(String id) {
+		WeakReference<McpServerSession> reference = id == null ? null : sessions.get(id);
+		McpServerSession session = reference == null ? null : reference.get();
+		if (reference != null && session == null && sessions.remove(id, reference)) {
+			changed();
+		}
+		return session;
+	}
+
+	/**
+	 * @return sessions whose clients may still be connected
+	 */
+	public List<McpServerSession> getSessions() {
+		List<McpServerSession> result = new ArrayList<McpServerSession>();
+		for (String id: new ArrayList<String>(sessions.keySet())) {
+			McpServerSession session = getSession(id);
+			if (session != null) {
+				result.add(session);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public Mono<Void> notifyClients(String method, Object params) {
+		return transportProvider.notifyClients(method, params);
+	}
+
+	@Override
+	public Mono<Void> closeGracefully() {
+		sessions.clear();
+		changed();
+		return transportProvider.closeGracefully();
+	}
+
+	@Override
+	public void close() {
+		sessions.clear();
+		changed();
+		transportProvider.close();
+	}
+
+	@Override
+	public List<String> protocolVersions() {
+		return transportProvider.protocolVersions();
+	}
+
+	/**
+	 * Answers the added requests itself and passes all other messages to the server's session,
+	 * telling <code>levelChanged</code> once the server has handled a <code>logging/setLevel</code>
+	 */
+	static class HandlingSession extends McpServerSession {
+
+		final McpServerSession session;
+		final McpServerTransport transport;
+		final Map<String, ClientSessions.RequestHandler> handlers;
+		final Runnable levelChanged;
+
+		HandlingSession(McpServerSession session, McpServerTransport transport, Map<String, ClientSessions.RequestHandler> handlers,
+				Runnable levelChanged) {
+			// the initialization and the server's handlers stay with the wrapped session
+			super(session.getId(), Duration.ZERO, transport,
+					request -> Mono.error(new IllegalStateException("Initialized by the wrapped session")), //$NON-NLS-1$
+					Map.of(), Map.of());
+			this.session = session;
+			this.transport = transport;
+			this.handlers = handlers;
+			this.levelChanged = levelChanged;
+		}
+
+		@Override
+		public Mono<Void> handle(JSONRPCMessage message) {
+			ClientSessions.RequestHandler handler = message instanceof JSONRPCRequest
+					? handlers.get(((JSONRPCRequest)message).method()) : null;
+			if (handler == null) {
+				if (message instanceof JSONRPCRequest
+						&& McpSchema.METHOD_LOGGING_SET_LEVEL.equals(((JSONRPCRequest)message).method())) {
+					// the server sets the level of the wrapped session
+					return session.handle(message).doFinally(signal -> levelChanged.run());
+				}
+				return session.handle(message);
+			}
+			JSONRPCRequest request = (JSONRPCRequest)message;
+			return Mono.fromCallable(() -> handler.handle(getId(), request.params()))
+					.map(result -> new JSONRPCResponse(McpSchema.JSONRPC_VERSION, request.id(), result, null))
+					.onErrorResume(e -> Mono.just(new JSONRPCResponse(McpSchema.JSONRPC_VERSION, request.id(), null,
+							new JSONRPCError(McpSchema.ErrorCodes.INTERNAL_ERROR, e.getMessage(), null))))
+					.flatMap(transport::sendMessage);
+		}
+
+		@Override
+		public void init(ClientCapabilities clientCapabilities, Implementation clientInfo) {
+			session.init(clientCapabilities, clientInfo);
+		}
+
+		@Override
+		public void setMinLoggingLevel(LoggingLevel minLoggingLevel) {
+			session.setMinLoggingLevel(minLoggingLevel);
+			levelChanged.run();
+		}
+
+		@Override
+		public boolean isNotificationForLevelAllowed(LoggingLevel loggingLevel) {
+			return session.isNotificationForLevelAllowed(loggingLevel);
+		}
+
+		@Override
+		public <T> Mono<T> sendRequest(String method, Object requestParams, TypeRef<T> typeRef) {
+			return session.sendRequest(method, requestParams, typeRef);
+		}
+
+		@Override
+		public Mono<Void> sendNotification(String method, Object params) {
+			return session.sendNotification(method, params);
+		}
+
+		@Override
+		public Mono<Void> closeGracefully() {
+			return session.closeGracefully();
+		}
+
+		@Override
+		public void close() {
+			session.close();
+		}
+	}
+}
@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.contexts;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.eclipse.agents.IFactoryProvider;
+import org.eclipse.agents.Tracer;
+import org.eclipse.agents.contexts.adapters.IResourceTemplate;
+import org.springaicommunity.mcp.provider.complete.SyncMcpCompleteProvider;
+import org.springaicommunity.mcp.provider.prompt.SyncMcpPromptProvider;
+import org.springaicommunity.mcp.provider.resource.SyncMcpResourceProvider;
+import org.springaicommunity.mcp.provider.tool.SyncMcpToolProvider;
+
+import io.modelcontextprotocol.server.McpServerFeatures.SyncCompletionSpecification;
+import io.modelcontextprotocol.server.McpServerFeatures.SyncPromptSpecification;
+import io.modelcontextprotocol.server.McpServerFeatures.SyncResourceSpecification;
+import io.modelcontextprotocol.server.McpServerFeatures.SyncToolSpecification;
+import io.modelcontextprotocol.server.McpSyncServer;
+import io.modelcontextprotocol.spec.McpSchema.CompleteResult;
+import io.modelcontextprotocol.spec.McpSchema.CompleteResult.CompleteCompletion;
+
+/**
+ * Tracks the tools, resources, prompts, completions and resource templates created by
+ * each {@link IFactoryProvider} so contributors can be enabled and disabled on a running
+ * {@link McpSyncServer} without restarting Jetty or dropping connected clients.
+ *
+ * Completions cannot be added to a running server, so every known contributor's completions
+ * are registered when the server is built and answer empty while their contributor is inactive.
+ */
+public class ContributionRegistry {
+
+	private static final CompleteResult EMPTY_COMPLETION = new CompleteResult(
+			new CompleteCompletion(List.of(), 0, false));
+
+	Map<IFactoryProvider, Contribution> contributions = new LinkedHashMap<IFactoryProvider, Contribution>();
+	McpSyncServer syncServer;
+
+	public class Contribution {
+
+		IFactoryProvider factory;
+		volatile boolean active = true;
+		MCPServices services;
+
+		List<SyncToolSpecification> tools;
+		List<SyncPromptSpecification> prompts;
+		List<SyncResourceSpecification> resources;
+		List<SyncCompletionSpecification> completions;
+		List<IResourceTemplate<?, ?>> resourceTemplates;
+
+		Contribution(IFactoryProvider factory) {
+			this.factory = factory;
+
+			List<Object> annotated = Arrays.asList(factory.getAnnotatedObjects());
+			tools = new SyncMcpToolProvider(annotated).getToolSpecifications();
+			prompts = new SyncMcpPromptProvider(annotated).getPromptSpecifications();
+			resources = new SyncMcpResourceProvider(annotated).getResourceSpecifications();
+			completions = new ArrayList<SyncCompletionSpecification>();
+			for (SyncCompletionSpecification spec: new SyncMcpCompleteProvider(annotated).getCompleteSpecifications()) {
+				completions.add(new SyncCompletionSpecification(spec.referenceKey(), (exchange, request) -> {
+					return active ? spec.completionHandler().apply(exchange, request) : EMPTY_COMPLETION;
+				}));
+			}
+			resourceTemplates = Arrays.asList(factory.createResourceTemplates());
+		}
+
+		public IFactoryProvider getFactory() {
+			return factory;
+		}
+
+		public boolean isActive() {
+			return active;
+		}
+	}
+
+	public ContributionRegistry(IFactoryProvider[] factories) {
+		for (IFactoryProvider factory: factories) {
+			contributions.put(factory, new Contribution(factory));
+		}
+	}
+
+	/**
+	 * Binds the registry to the server built from {@link #getTools()}, {@link #getResources()},
+	 * {@link #getPrompts()} and {@link #getCompletions()}
+	 */
+	synchronized void bind(McpSyncServer syncServer) {
+		this.syncServer = syncServer;
+	}
+
+	/**
+	 * Calls {@link IFactoryProvider#initialize(org.eclipse.agents.IMCPServices)} on active
+	 * contributions that have not been initialized against the running server
+	 */
+	synchronized void initialize(MCPServer server) {
+		for (Contribution contribution: contributions.values()) {
+			if (contribution.active && contribution.services == null) {
+				contribution.services = new MCPServices(server);
+				contribution.factory.initialize(contribution.services);
+			}
+		}
+	}
+
+	synchronized void unbind() {
+		for (Contribution contribution: contributions.values()) {
+			if (contribution.services != null) {
+				// server is going away, no need to remove resources one at a time
+				contribution.services.disposed = true;
+				contribution.services = null;
+			}
+		}
+		this.syncServer = null;
+	}
+
+	public synchronized Collection<Contribution> getContributions() {
+		return new ArrayList<Contribution>(contributions.values());
+	}
+
+	public synchronized Contribution getContribution(IFactoryProvider factory) {
+		return contributions.get(factory);
+	}
+
+	public synchronized List<SyncToolSpecification> getTools() {
+		List<SyncToolSpecification> result = new ArrayList<SyncToolSpecification>();
+		for (Contribution contribution: contributions.values()) {
+			if (contribution.active) {
+				result.addAll(contribution.tools);
+			}
+		}
+		return result;
+	}
+
+	public synchronized List<SyncPromptSpecification> getPrompts() {
+		List<SyncPromptSpecification> result = new ArrayList<SyncPromptSpecification>();
+		for (Contribution contribution: contributions.values()) {
+			if (contribution.active) {
+				result.addAll(contribution.prompts);
+			}
+		}
+		return result;
+	}
+
+	public synchronized List<SyncResourceSpecification> getResources() {
+		List<SyncResourceSpecification> result = new ArrayList<SyncResourceSpecification>();
+		for (Contribution contribution: contributions.values()) {
+			if (contribution.active) {
+				result.addAll(contribution.resources);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return completions of active and inactive contributors, inactive ones answer empty
+	 */
+	public synchronized List<SyncCompletionSpecification> getCompletions() {
+		List<SyncCompletionSpecification> result = new ArrayList<SyncCompletionSpecification>();
+		for (Contribution contribution: contributions.values()) {
+			result.addAll(contribution.completions);
+		}
+		return result;
+	}
+
+	public synchronized List<IResourceTemplate<?, ?>> getResourceTemplates() {
+		List<IResourceTemplate<?, ?>> result = new ArrayList<IResourceTemplate<?, ?>>();
+		for (Contribution contribution: contributions.values()) {
+			if (contribution.active) {
+				result.addAll(contribution.resourceTemplates);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Result of applying a new set of active factories
+	 */
+	public record Changes(boolean tools, boolean resources, boolean prompts) {
+		public boolean any() {
+			return tools || resources || prompts;
+		}
+	}
+
+	/**
+	 * Activates factories in <code>active</code> and deactivates all others, leaving unchanged
+	 * contributions untouched.  When bound to a running server, the added and removed
+	 * specifications are applied to it directly; list changed notifications are left to the caller.
+	 * @param active
+	 * @param isHidden tests the names of tools whose visibility was turned off, they stay off the server
+	 * @return which categories of the server changed
+	 */
+	synchronized Changes apply(Collection<IFactoryProvider> active, Predicate<String> isHidden) {
+		boolean tools = false, resources = false, prompts = false;
+
+		for (Contribution contribution: contributions.values()) {
+			boolean shouldBeActive = active.contains(contribution.factory);
+			if (shouldBeActive == contribution.active) {
+				continue;
+			}
+
+			contribution.active = shouldBeActive;
+			if (syncServer == null) {
+				continue;
+			}
+
+			if (shouldBeActive) {
+				Tracer.trace().trace(Tracer.MCP, "Activating contribution: " + contribution.factory.getClass().getName()); //$NON-NLS-1$
+				for (SyncToolSpecification tool: contribution.tools) {
+					if (!isHidden.test(tool.tool().name())) {
+						syncServer.addTool(tool);
+						tools = true;
+					}
+				}
+				for (SyncResourceSpecification resource: contribution.resources) {
+					syncServer.addResource(resource);
+					resources = true;
+				}
+				for (SyncPromptSpecification prompt: contribution.prompts) {
+					syncServer.addPrompt(prompt);
+					prompts = true;
+				}
+			} else {
+				Tracer.trace().trace(Tracer.MCP, "Deactivating contribution: " + contribution.factory.getClass().getName()); //$NON-NLS-1$
+				if (contribution.services != null) {
+					// removes the resources the contributor added at runtime
+					resources |= contribution.services.dispose();
+					contribution.services = null;
+				}
+				for (SyncToolSpecification tool: contribution.tools) {
+					if (!isHidden.test(tool.tool().name())) {
+						syncServer.removeTool(tool.tool().name());
+						tools = true;
+					}
+				}
+				for (SyncResourceSpecification resource: contribution.resources) {
+					syncServer.removeResource(resource.resource().uri());
+					resources = true;
+				}
+				for (SyncPromptSpecification prompt: contribution.prompts) {
+					syncServer.removePrompt(prompt.prompt().name());
+					prompts = true;
+				}
+			}
+		}
+
+		return new Changes(tools, resources, prompts);
+	}
+}
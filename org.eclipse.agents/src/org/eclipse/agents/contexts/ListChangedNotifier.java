@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.contexts;
+
+import java.util.EnumSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.agents.Tracer;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import io.modelcontextprotocol.server.McpSyncServer;
+
+/**
+ * Coalesces tools, resources and prompts list_changed notifications.
+ *
+ * The first request for a category schedules a flush after a short window, further requests
+ * in that window are merged into the same notification.  Requests made inside
+ * {@link #batch(Runnable)} are held until the outermost batch completes.
+ */
+public class ListChangedNotifier {
+
+	public enum Category { TOOLS, RESOURCES, PROMPTS };
+
+	public static final long DEFAULT_WINDOW = 50;
+
+	McpSyncServer syncServer;
+	long window;
+
+	EnumSet<Category> pending = EnumSet.noneOf(Category.class);
+	int batchDepth = 0;
+	boolean disposed = false;
+
+	AtomicLong[] requested = new AtomicLong[Category.values().length];
+	AtomicLong[] sent = new AtomicLong[Category.values().length];
+
+	Job job;
+
+	public ListChangedNotifier(McpSyncServer syncServer) {
+		this(syncServer, DEFAULT_WINDOW);
+	}
+
+	public ListChangedNotifier(McpSyncServer syncServer, long window) {
+		this.syncServer = syncServer;
+		this.window = window;
+
+		for (Category category: Category.values()) {
+			requested[category.ordinal()] = new AtomicLong();
+			sent[category.ordinal()] = new AtomicLong();
+		}
+
+		job = new Job("MCP list changed notifications") { //$NON-NLS-1$
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				flush();
+				return Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+	}
+
+	/**
+	 * Requests a list_changed notification for <code>category</code>
+	 * @param category
+	 */
+	public synchronized void request(Category category) {
+		requested[category.ordinal()].incrementAndGet();
+		if (disposed) {
+			return;
+		}
+		pending.add(category);
+		if (batchDepth == 0) {
+			// no effect if already waiting, which merges this request into the pending flush
+			job.schedule(window);
+		}
+	}
+
+	/**
+	 * Runs <code>mutations</code> sending at most one notification per category afterwards
+	 * @param mutations
+	 */
+	public void batch(Runnable mutations) {
+		synchronized (this) {
+			batchDepth++;
+		}
+		try {
+			mutations.run();
+		} finally {
+			synchronized (this) {
+				batchDepth--;
+				if (batchDepth == 0 && !pending.isEmpty() && !disposed) {
+					job.schedule(window);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sends pending notifications immediately
+	 */
+	public void flush() {
+		EnumSet<Category> categories;
+		synchronized (this) {
+			if (disposed || pending.isEmpty()) {
+				return;
+			}
+			categories = EnumSet.copyOf(pending);
+			pending.clear();
+		}
+
+		for (Category category: categories) {
+			try {
+				switch (category) {
+				case TOOLS:
+					syncServer.notifyToolsListChanged();
+					break;
+				case RESOURCES:
+					syncServer.notifyResourcesListChanged();
+					break;
+				case PROMPTS:
+					syncServer.notifyPromptsListChanged();
+					break;
+				}
+				sent[category.ordinal()].incrementAndGet();
+			} catch (Exception e) {
+				Tracer.trace().trace(Tracer.MCP, "Failed to send " + category + " list changed notification", e); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+	}
+
+	public synchronized void dispose() {
+		disposed = true;
+		pending.clear();
+		job.cancel();
+	}
+
+	public long getRequested(Category category) {
+		return requested[category.ordinal()].get();
+	}
+
+	public long getSent(Category category) {
+		return sent[category.ordinal()].get();
+	}
+
+	/**
+	 * @param category
+	 * @return number of requested notifications that were merged into another notification
+	 */
+	public long getSaved(Category category) {
+		return Math.max(0, getRequested(category) - getSent(category));
+	}
+
+	@Override
+	public String toString() {
+		StringBuffer buffer = new StringBuffer();
+		for (Category category: Category.values()) {
+			if (buffer.length() > 0) {
+				buffer.append(", ");
+			}
+			buffer.append(category.name().toLowerCase() + " " + getSent(category) + " sent / " + getSaved(category) + " saved");
+		}
+		return buffer.toString();
+	}
+}
@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.contexts;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.agents.Tracer;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.LoggingLevel;
+import io.modelcontextprotocol.spec.McpSchema.LoggingMessageNotification;
+import io.modelcontextprotocol.spec.McpServerSession;
+
+/**
+ * Sends MCP logging notifications from a background job so that logging never blocks the caller.
+ *
+ * Each client sets its own level through <code>logging/setLevel</code>, a message is sent to the
+ * sessions whose level it reaches and discarded before it is queued when it reaches none.  The
+ * lowest level is recomputed when a client connects, disconnects or sets its level, not per message.
+ * Queued messages are sent in batches after a short window,
+ * and when the bounded queue is full new messages are dropped and counted, a warning with the
+ * number of dropped messages is sent with the next batch.
+ */
+public class LoggingNotifier {
+
+	public static final int DEFAULT_CAPACITY = 1000;
+	public static final long DEFAULT_WINDOW = 100;
+	public static final int BATCH_SIZE = 200;
+
+	ClientSessions sessions;
+	long window;
+	BlockingQueue<LoggingMessageNotification> queue;
+	volatile boolean disposed = false;
+	// lowest level a connected client accepts, null while no client is connected
+	volatile LoggingLevel level;
+
+	AtomicBoolean scheduled = new AtomicBoolean(false);
+	AtomicLong queued = new AtomicLong();
+	AtomicLong sent = new AtomicLong();
+	AtomicLong filtered = new AtomicLong();
+	AtomicLong dropped = new AtomicLong();
+	AtomicLong reportedDrops = new AtomicLong();
+
+	Job job;
+
+	public LoggingNotifier(ClientSessions sessions) {
+		this(sessions, DEFAULT_CAPACITY, DEFAULT_WINDOW);
+	}
+
+	public LoggingNotifier(ClientSessions sessions, int capacity, long window) {
+		this.sessions = sessions;
+		this.window = window;
+		this.queue = new ArrayBlockingQueue<LoggingMessageNotification>(capacity);
+
+		job = new Job("MCP logging notifications") { //$NON-NLS-1$
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				flush();
+				return Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+
+		sessions.addListener(this::updateLevel);
+		updateLevel();
+	}
+
+	/**
+	 * Queues a logging notification, returns immediately
+	 * @param level
+	 * @param logger
+	 * @param message
+	 * @return true if queued, false if filtered by level or dropped
+	 */
+	public boolean log(LoggingLevel level, String logger, String message) {
+		if (disposed || level == null) {
+			return false;
+		}
+		LoggingLevel lowest = level;
+		if (lowest == null || level.level() < lowest.level()) {
+			filtered.incrementAndGet();
+			return false;
+		}
+		if (!queue.offer(LoggingMessageNotification.builder().level(level).logger(logger).data(message).build())) {
+			dropped.incrementAndGet();
+			return false;
+		}
+		queued.incrementAndGet();
+		if (scheduled.compareAndSet(false, true)) {
+			job.schedule(window);
+		}
+		return true;
+	}
+
+	/**
+	 * Sends up to {@link #BATCH_SIZE} queued notifications on the calling thread
+	 */
+	public void flush() {
+		// cleared first, so messages queued from now on schedule another flush
+		scheduled.set(false);
+		if (disposed) {
+			queue.clear();
+			return;
+		}
+
+		List<LoggingMessageNotification> batch = new ArrayList<LoggingMessageNotification>();
+		queue.drainTo(batch, BATCH_SIZE);
+
+		long drops = dropped.get() - reportedDrops.get();
+		if (drops > 0) {
+			reportedDrops.addAndGet(drops);
+			batch.add(LoggingMessageNotification.builder().level(LoggingLevel.WARNING)
+					.logger(getClass().getName())
+					.data(drops + " log messages dropped, client is not keeping up").build()); //$NON-NLS-1$
+		}
+
+		List<McpServerSession> connected = sessions.getSessions();
+		for (LoggingMessageNotification notification: batch) {
+			for (McpServerSession session: connected) {
+				if (!session.isNotificationForLevelAllowed(notification.level())) {
+					continue;
+				}
+				try {
+					session.sendNotification(McpSchema.METHOD_NOTIFICATION_MESSAGE, notification).block();
+					sent.incrementAndGet();
+				} catch (Exception e) {
+					// not traced to MCP, that would log again
+					Tracer.trace().trace(Tracer.CONTEXTS, "Failed to send logging notification", e); //$NON-NLS-1$
+				}
+			}
+		}
+
+		if (!queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+			// more than a batch was queued, continue without waiting
+			job.schedule();
+		}
+	}
+
+	/**
+	 * @return the lowest level a connected client accepts, or null while no client is connected
+	 */
+	public LoggingLevel getLevel() {
+		return level;
+	}
+
+	synchronized void updateLevel() {
+		List<McpServerSession> connected = sessions.getSessions();
+		for (LoggingLevel candidate: LoggingLevel.values()) {
+			for (McpServerSession session: connected) {
+				if (session.isNotificationForLevelAllowed(candidate)) {
+					level = candidate;
+					return;
+				}
+			}
+		}
+		level = null;
+	}
+
+	public void dispose() {
+		disposed = true;
+		queue.clear();
+		job.cancel();
+	}
+
+	public long getQueued() {
+		return queued.get();
+	}
+
+	public long getSent() {
+		return sent.get();
+	}
+
+	public long getFiltered() {
+		return filtered.get();
+	}
+
+	public long getDropped() {
+		return dropped.get();
+	}
+
+	@Override
+	public String toString() {
+		LoggingLevel level = getLevel();
+		return (level == null ? "no clients" : level.name().toLowerCase() + " and above") + ", " + getSent() + " sent / " + getFiltered() + " filtered / " + getDropped() + " dropped";
+	}
+}
@@ -13,27 +13,23 @@
  *******************************************************************************/
 package org.eclipse.agents.contexts;
 
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
 
 import org.eclipse.agents.IFactoryProvider;
 import org.eclipse.agents.Tracer;
+import org.eclipse.agents.UIExecutor;
+import org.eclipse.agents.contexts.ListChangedNotifier.Category;
+import org.eclipse.agents.contexts.SpecificationIndex.ToolEntry;
 import org.eclipse.agents.contexts.adapters.IResourceTemplate;
 import org.eclipse.jetty.ee10.servlet.ServletContextHandler;
 import org.eclipse.jetty.ee10.servlet.ServletHolder;
 import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.util.thread.QueuedThreadPool;
-import org.springaicommunity.mcp.provider.complete.SyncMcpCompleteProvider;
-import org.springaicommunity.mcp.provider.prompt.SyncMcpPromptProvider;
-import org.springaicommunity.mcp.provider.resource.SyncMcpResourceProvider;
-import org.springaicommunity.mcp.provider.tool.SyncMcpToolProvider;
 
 import io.modelcontextprotocol.server.McpServer;
-import io.modelcontextprotocol.server.McpServerFeatures.SyncCompletionSpecification;
-import io.modelcontextprotocol.server.McpServerFeatures.SyncPromptSpecification;
 import io.modelcontextprotocol.server.McpServerFeatures.SyncResourceSpecification;
 import io.modelcontextprotocol.server.McpServerFeatures.SyncToolSpecification;
 import io.modelcontextprotocol.server.McpSyncServer;
@@ -41,7 +37,6 @@ import io.modelcontextprotocol.server.transport.HttpServletSseServerTransportPro
 import io.modelcontextprotocol.spec.McpError;
 import io.modelcontextprotocol.spec.McpSchema;
 import io.modelcontextprotocol.spec.McpSchema.LoggingLevel;
-import io.modelcontextprotocol.spec.McpSchema.LoggingMessageNotification;
 import io.modelcontextprotocol.spec.McpSchema.ServerCapabilities;
 import jakarta.servlet.Servlet;
 
@@ -53,26 +48,28 @@ public class MCPServer {
 	// For dynamically adding/removing tools
 	boolean running = false;
 
-
-	private boolean copyLogsToSysError = true; // Boolean.getBoolean("com.ibm.systemz.db2.mcp.copyLogsToSysError");
-
 	McpSyncServer syncServer;
+	ClientSessions sessions;
+	ListChangedNotifier notifier;
+	LoggingNotifier logger;
+	ResourceSubscriptions subscriptions;
 	QueuedThreadPool threadPool;
 	String url;
 	IFactoryProvider[] factories;
 	
-	List<SyncCompletionSpecification> completions;
-	List<SyncToolSpecification> tools;
+	// Tools, resources, prompts and completions of each factory
+	ContributionRegistry registry;
+	Set<IFactoryProvider> activeFactories;
 //	SyncMcpLogginProvider loggers;
-	List<SyncPromptSpecification> prompts;
-	List<SyncResourceSpecification> resources;
 //	SyncMcpElicitationProvider elicitors;
 //	SyncMcpProgressProvider progressives;
 //	SyncMcpSamplingProvider samplers;
 	
-	Set<SyncToolSpecification> removedTools;
-	Set<SyncResourceSpecification> dynamicResources;
-	List<IResourceTemplate<?, ?>> resourceTemplates;
+	// tools by name and dynamic resources by uri
+	SpecificationIndex index;
+	
+	// resource templates of active factories, rebuilt when they change
+	volatile ResourceTemplateRouter router;
 	
 	StringBuffer description;
 	
@@ -85,35 +82,18 @@ public class MCPServer {
 		this.port = port;
 		this.factories = factories;
 		
-		removedTools = new HashSet<SyncToolSpecification>(); 
-		dynamicResources = new HashSet<SyncResourceSpecification>();
-		resourceTemplates = new ArrayList<IResourceTemplate<?, ?>>();
+		index = new SpecificationIndex();
+		activeFactories = new HashSet<IFactoryProvider>(Arrays.asList(factories));
 	}
 	
 	public void start() {
 	
 		description = new StringBuffer();
 
-		removedTools.clear();
-		dynamicResources.clear();
-		resourceTemplates.clear();
-		
-		List<Object> annotated = new ArrayList<Object>();
-		for (IFactoryProvider factory: factories) {
-			for (Object o: factory.getAnnotatedObjects()) {
-				annotated.add(o);
-			}
-			resourceTemplates.addAll(Arrays.asList(factory.createResourceTemplates()));
-		}
-		
-		completions = new SyncMcpCompleteProvider(annotated).getCompleteSpecifications();
-		tools = new SyncMcpToolProvider(annotated).getToolSpecifications();
-//		loggers = new SyncMcpLogginProvider(factoryList);
-		prompts = new SyncMcpPromptProvider(annotated).getPromptSpecifications();
-		resources = new SyncMcpResourceProvider(annotated).getResourceSpecifications();
-//		elicitors = new SyncMcpElicitationProvider(factoryList);
-//		progressives = new SyncMcpProgressProvider(factoryList);
-//		samplers = new SyncMcpSamplingProvider(factoryList);
+		registry = new ContributionRegistry(factories);
+		registry.apply(activeFactories, index::isHidden);
+		index.reset(registry);
+		router = new ResourceTemplateRouter(registry.getResourceTemplates());
 
 		this.url = "http://localhost:" + port + "/sse";
 
@@ -136,27 +116,28 @@ public class MCPServer {
 				.build();
 		
 		
+		sessions = new ClientSessions(transportProvider);
+		subscriptions = new ResourceSubscriptions(sessions, this::getResourceTemplate);
+
 		// Create a server with custom configuration
-		this.syncServer = McpServer.sync(transportProvider)
+		this.syncServer = McpServer.sync(sessions)
 			    .serverInfo(name, version)
 			    .capabilities(capabilities)
-			    .tools(tools)
-	            .resources(resources)
-			    .completions(completions)
-			    .prompts(prompts)
+			    .tools(registry.getTools())
+	            .resources(registry.getResources())
+			    .completions(registry.getCompletions())
+			    .prompts(registry.getPrompts())
 			    .build();
+		notifier = new ListChangedNotifier(syncServer);
+		logger = new LoggingNotifier(sessions);
+		registry.bind(syncServer);
 	        
 	        
 		log(LoggingLevel.INFO, this, url);
 	
 		running = true;
 
-		for (IFactoryProvider factory: factories) {
-			factory.initialize(new MCPServices(this));
-			factory.createResourceTemplates();
-		}
-
-		syncServer.notifyResourcesListChanged();
+		notifier.batch(() -> registry.initialize(this));
 	
 		threadPool = new QueuedThreadPool();
 		threadPool.setName(name + "-Thread");
@@ -175,7 +156,7 @@ public class MCPServer {
 			jettyServer.start();
 			jettyServer.setStopAtShutdown(true);
 			
-			syncServer.notifyToolsListChanged();
+			notifier.request(Category.TOOLS);
 	
 			// Send logging notifications
 			log(LoggingLevel.INFO, this, "Server initialized");
@@ -191,6 +172,20 @@ public class MCPServer {
 	}
 	
 	public void stop() {
+		
+		running = false;
+		if (notifier != null) {
+			notifier.dispose();
+		}
+		if (logger != null) {
+			logger.dispose();
+		}
+		if (subscriptions != null) {
+			subscriptions.dispose();
+		}
+		if (registry != null) {
+			registry.unbind();
+		}
 
 		if (syncServer != null) {
 			syncServer.closeGracefully();
@@ -205,19 +200,59 @@ public class MCPServer {
 		}
 	}
 
-	public IResourceTemplate<?, ?> getResourceTemplate(String uri) {
-		for (IResourceTemplate<?, ?> adapter: resourceTemplates) {
-			if (adapter.matches(uri)) {
-				return adapter.fromUri(uri);
-			}
+	/**
+	 * Enables the tools, resources, prompts and completions of <code>active</code> factories
+	 * and disables those of all other factories.  On a running server only the difference to the
+	 * current state is applied and connected clients are sent one list changed notification
+	 * per changed category, so they stay connected.
+	 * @param active
+	 * @return true if any factory was enabled or disabled
+	 */
+	public synchronized boolean reconfigure(Collection<IFactoryProvider> active) {
+		Set<IFactoryProvider> next = new HashSet<IFactoryProvider>(active);
+		next.retainAll(Arrays.asList(factories));
+		if (next.equals(activeFactories)) {
+			return false;
+		}
+		activeFactories = next;
+		
+		if (registry != null && running) {
+			notifier.batch(() -> {
+				ContributionRegistry.Changes changes = registry.apply(activeFactories, index::isHidden);
+				index.changed();
+				router = new ResourceTemplateRouter(registry.getResourceTemplates());
+				registry.initialize(this);
+				
+				if (changes.tools()) {
+					notifier.request(Category.TOOLS);
+				}
+				if (changes.resources()) {
+					notifier.request(Category.RESOURCES);
+				}
+				if (changes.prompts()) {
+					notifier.request(Category.PROMPTS);
+				}
+			});
 		}
-		return null;
+		return true;
+	}
+	
+	public IResourceTemplate<?, ?> getResourceTemplate(String uri) {
+		ResourceTemplateRouter router = this.router;
+		return router == null ? null : router.resolve(uri);
 	}
 
+	/**
+	 * Queues a logging notification for connected clients, never blocks.  Ignored while the
+	 * server is not running or when below the level requested by clients.
+	 * @param level
+	 * @param source the logger's class, or an instance of it
+	 * @param message
+	 */
 	public void log(McpSchema.LoggingLevel level, Object source, String message) {
-	
-		if (copyLogsToSysError) {
-			System.err.println(message);
+		LoggingNotifier logger = this.logger;
+		if (logger == null || source == null) {
+			return;
 		}
 	
 		Class<?> sourceClass;
@@ -227,21 +262,25 @@ public class MCPServer {
 			sourceClass = (Class<?>) source;
 		}
 	
-		syncServer.loggingNotification(LoggingMessageNotification.builder().level(level)
-			.logger(sourceClass.getCanonicalName()).data(message).build());
+		logger.log(level, sourceClass.getName(), message);
 	}
 	
 	public void log(Throwable throwable) {
-		Class<?> c = getClass();
+		LoggingNotifier logger = this.logger;
+		if (logger == null) {
+			return;
+		}
+		
+		String source = getClass().getName();
 		if (throwable.getStackTrace() != null && throwable.getStackTrace().length > 0) {
-			c = throwable.getStackTrace()[0].getClass();
+			source = throwable.getStackTrace()[0].getClassName();
 		}
 		
 		if (throwable instanceof McpError) {
-			log(LoggingLevel.ERROR, c, "MCP Implementation Exception");
+			logger.log(LoggingLevel.ERROR, source, "MCP Implementation Exception");
 			int depth = 0;
 			while (throwable != null && depth < 5) {
-				log(LoggingLevel.ERROR, c, throwable.getMessage());
+				logger.log(LoggingLevel.ERROR, source, throwable.getMessage());
 				throwable = throwable.getCause();
 				depth++;
 			}
@@ -250,89 +289,107 @@ public class MCPServer {
 	}
 	
 
+	/**
+	 * @param toolName
+	 * @return true if the tool is visible and its contributor is active
+	 */
 	public boolean getVisibility(String toolName) {
-		for (SyncToolSpecification tool: removedTools) {
-			if (tool.tool().name().equals(toolName)) {
-				return true;
-			}
-		}
-		return false;
+		ToolEntry entry = index.getTool(toolName);
+		return entry != null && entry.isAvailable();
 	}
 	
 	public boolean setVisibility(String toolName, boolean visible) {
-		SyncToolSpecification match = null;
-		for (SyncToolSpecification tool: removedTools) {
-			if (tool.tool().name().equals(toolName)) {
-				match = tool;
-				break;
-			}
+		ToolEntry entry = index.setVisible(toolName, visible);
+		if (entry == null) {
+			return false;
 		}
 		
-		if (match != null) {
-			if (removedTools.contains(match) && visible) {
-				removedTools.remove(match);
-				syncServer.addTool(match);
-				syncServer.notifyToolsListChanged();
-				return true;
-			} else if (!removedTools.contains(match) && !visible) {
-				removedTools.add(match);
+		if (syncServer != null && running && entry.contribution.isActive()) {
+			if (visible) {
+				syncServer.addTool(entry.getSpecification());
+			} else {
 				syncServer.removeTool(toolName);
-				syncServer.notifyToolsListChanged();
-				return true;
 			}
+			notifier.request(Category.TOOLS);
 		}
-		
-		return false;
+		return true;
 	}
 
 	public boolean addResource(SyncResourceSpecification spec) {
-		for (SyncResourceSpecification existing: dynamicResources) {
-			if (existing.resource().uri().equals(spec.resource().uri())) {
-				// do nothing
-				return false;
-			}
+		if (!index.addResource(spec)) {
+			// do nothing
+			return false;
 		}
 		
-		dynamicResources.add(spec);
 		syncServer.addResource(spec);
-		syncServer.notifyResourcesListChanged();
+		notifier.request(Category.RESOURCES);
 		return true;
 	}
 
 	public boolean removeResource(String uri) {
-		for (SyncResourceSpecification existing: dynamicResources) {
-			if (existing.resource().uri().equals(uri)) {
-				dynamicResources.remove(existing);
-				syncServer.removeResource(uri);
-				syncServer.notifyResourcesListChanged();
-				return true;
-			}
+		if (index.removeResource(uri) == null) {
+			return false;
 		}
 		
-		return false;
+		syncServer.removeResource(uri);
+		notifier.request(Category.RESOURCES);
+		return true;
+	}
+	
+	/**
+	 * Runs several additions, removals and visibility changes sending at most one
+	 * list changed notification per category
+	 * @param mutations
+	 */
+	public void batch(Runnable mutations) {
+		if (notifier != null) {
+			notifier.batch(mutations);
+		} else {
+			mutations.run();
+		}
+	}
+	
+	public ListChangedNotifier getNotifier() {
+		return notifier;
 	}
 	
 	public String getContentsDescription() {
+		String contents = index.getDescription(this::buildContentsDescription);
+		if (notifier != null) {
+			contents += "\nList Changed Notifications: " + notifier;
+		}
+		if (logger != null) {
+			contents += "\nLogging Notifications: " + logger;
+		}
+		if (subscriptions != null) {
+			contents += "\nResource Subscriptions: " + subscriptions;
+		}
+		contents += "\nUI Thread: " + UIExecutor.getDefault();
+		return contents;
+	}
+	
+	private String buildContentsDescription() {
 		StringBuffer buffer = new StringBuffer();
 		buffer.append("MCP Server running on :" + this.url);
 		
 		buffer.append("\nTools:");
 		
-		for (SyncToolSpecification tool: tools) {
-			if (!removedTools.contains(tool)) {
+		for (SyncToolSpecification tool: registry.getTools()) {
+			if (!index.isHidden(tool.tool().name())) {
 				buffer.append("\n\t" + tool.tool().name() + ": " + tool.tool().description());
 			}
 		}
 		
 		buffer.append("\nResource Templates:");
-		for (SyncResourceSpecification resource: resources) {
+		for (SyncResourceSpecification resource: registry.getResources()) {
 			if (resource.resource().uri().contains("{")) {
 				buffer.append("\n\t" + resource.resource().name() + ": " + resource.resource().description());
 				buffer.append("\n\t\t" + resource.resource().uri());
 			}
 		}
+		
+		buffer.append("\nResources: " + index.getResourceCount());
 
 		return buffer.toString();
-		
 	}
 }
@@ -13,6 +13,9 @@
  *******************************************************************************/
 package org.eclipse.agents.contexts;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.eclipse.agents.IMCPServices;
 import org.eclipse.agents.Tracer;
 import org.eclipse.osgi.service.debug.DebugTrace;
@@ -23,18 +26,32 @@ public class MCPServices implements IMCPServices {
 
 	MCPServer server;
 	
+	// resources added through this instance, removed when its contributor is deactivated
+	Set<String> resourceURIs = ConcurrentHashMap.newKeySet();
+	volatile boolean disposed = false;
+	
 	public MCPServices(MCPServer server) {
 		this.server = server;
 	}
 
 	@Override
 	public void addResource(SyncResourceSpecification spec) {
-		server.addResource(spec);
+		if (!disposed && server.addResource(spec)) {
+			resourceURIs.add(spec.resource().uri());
+		}
 	}
 
 	@Override
 	public void removeResource(String uri) {
-		server.removeResource(uri);
+		resourceURIs.remove(uri);
+		if (!disposed) {
+			server.removeResource(uri);
+		}
+	}
+
+	@Override
+	public void batch(Runnable mutations) {
+		server.batch(mutations);
 	}
 
 	@Override
@@ -51,4 +68,18 @@ public class MCPServices implements IMCPServices {
 	public DebugTrace getTracer() {
 		return Tracer.trace();
 	}
+	
+	/**
+	 * Ignores further calls and removes the resources added through this instance
+	 * @return true if any resource was removed from the server
+	 */
+	boolean dispose() {
+		disposed = true;
+		boolean removed = false;
+		for (String uri: resourceURIs) {
+			removed |= server.removeResource(uri);
+		}
+		resourceURIs.clear();
+		return removed;
+	}
 }
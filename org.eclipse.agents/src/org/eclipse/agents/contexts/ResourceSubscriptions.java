@@ -0,0 +1,259 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.contexts;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.eclipse.agents.MCPException;
+import org.eclipse.agents.Tracer;
+import org.eclipse.agents.contexts.adapters.IResourceTemplate;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.ResourcesUpdatedNotification;
+import io.modelcontextprotocol.spec.McpServerSession;
+
+/**
+ * Handles <code>resources/subscribe</code> and <code>resources/unsubscribe</code> and sends
+ * <code>notifications/resources/updated</code> to the sessions subscribed to a resource when it
+ * changes.
+ *
+ * A resource is watched through {@link IResourceTemplate#watch(Runnable)} while at least one
+ * session is subscribed to it.  The watch is installed and removed outside the map's lock, as
+ * adapters may wait for the display thread.  Changes are coalesced per uri and sent after a short delay, so a
+ * console printing or an editor being typed in sends one notification per delay at most.
+ * Subscriptions of sessions that have disconnected are dropped on the next flush.
+ *
+ * The SDK declares but does not handle subscriptions, the request handlers are added to
+ * {@link ClientSessions} before the server is built.
+ */
+public class ResourceSubscriptions {
+
+	public static final long DEFAULT_DELAY = 250;
+
+	static final Runnable CLOSED = () -> {};
+
+	/**
+	 * @param unwatch removes the listeners of the watched resource, <code>null</code> until the
+	 * watch is installed and {@link #CLOSED} once it is removed
+	 * @param sessions ids of the subscribed sessions
+	 */
+	record Subscription(AtomicReference<Runnable> unwatch, Set<String> sessions) {
+
+		Subscription() {
+			this(new AtomicReference<Runnable>(), ConcurrentHashMap.newKeySet());
+		}
+
+		/**
+		 * @return false if the subscription was closed before the watch was installed
+		 */
+		boolean install(Runnable remove) {
+			return unwatch.compareAndSet(null, remove);
+		}
+
+		void close() {
+			Runnable remove = unwatch.getAndSet(CLOSED);
+			if (remove != null) {
+				remove.run();
+			}
+		}
+	}
+
+	ClientSessions sessions;
+	Function<String, IResourceTemplate<?, ?>> resolver;
+	long delay;
+
+	Map<String, Subscription> subscriptions = new ConcurrentHashMap<String, Subscription>();
+	Set<String> changed = ConcurrentHashMap.newKeySet();
+	AtomicBoolean scheduled = new AtomicBoolean(false);
+	AtomicLong sent = new AtomicLong();
+	volatile boolean disposed = false;
+
+	Job job;
+
+	/**
+	 * Adds the subscription handlers to <code>sessions</code>, before the server is built
+	 */
+	public ResourceSubscriptions(ClientSessions sessions, Function<String, IResourceTemplate<?, ?>> resolver) {
+		this(sessions, resolver, DEFAULT_DELAY);
+	}
+
+	public ResourceSubscriptions(ClientSessions sessions, Function<String, IResourceTemplate<?, ?>> resolver, long delay) {
+		this.sessions = sessions;
+		this.resolver = resolver;
+		this.delay = delay;
+
+		job = new Job("MCP resource updated notifications") { //$NON-NLS-1$
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				flush();
+				return Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+
+		sessions.addRequestHandler(McpSchema.METHOD_RESOURCES_SUBSCRIBE, (sessionId, params) -> {
+			subscribe(sessionId, uri(params));
+			return Map.of();
+		});
+		sessions.addRequestHandler(McpSchema.METHOD_RESOURCES_UNSUBSCRIBE, (sessionId, params) -> {
+			unsubscribe(sessionId, uri(params));
+			return Map.of();
+		});
+	}
+
+	private static String uri(Object params) {
+		Object uri = params instanceof Map ? ((Map<?, ?>)params).get("uri") : null; //$NON-NLS-1$
+		if (!(uri instanceof String)) {
+			throw new MCPException("uri is required");
+		}
+		return (String)uri;
+	}
+
+	public void subscribe(String sessionId, String uri) {
+		if (disposed) {
+			return;
+		}
+		IResourceTemplate<?, ?> adapter = resolver.apply(uri);
+		if (adapter == null) {
+			throw new MCPException("The uri could not be resolved: " + uri);
+		}
+		Subscription created = new Subscription();
+		Subscription subscription = subscriptions.compute(uri, (key, current) -> {
+			Subscription result = current == null ? created : current;
+			result.sessions.add(sessionId);
+			return result;
+		});
+		if (subscription != created) {
+			return;
+		}
+		Runnable unwatch = adapter.watch(() -> changed(uri));
+		if (unwatch == null) {
+			subscriptions.remove(uri, subscription);
+			throw new MCPException("The uri does not support subscriptions: " + uri);
+		}
+		if (!subscription.install(unwatch)) {
+			// every session unsubscribed while the watch was installed
+			unwatch.run();
+		}
+	}
+
+	public void unsubscribe(String sessionId, String uri) {
+		Subscription[] removed = new Subscription[1];
+		subscriptions.computeIfPresent(uri, (key, subscription) -> {
+			subscription.sessions.remove(sessionId);
+			if (subscription.sessions.isEmpty()) {
+				removed[0] = subscription;
+				return null;
+			}
+			return subscription;
+		});
+		if (removed[0] != null) {
+			removed[0].close();
+		}
+	}
+
+	void changed(String uri) {
+		if (disposed || !subscriptions.containsKey(uri)) {
+			return;
+		}
+		changed.add(uri);
+		if (scheduled.compareAndSet(false, true)) {
+			job.schedule(delay);
+		}
+	}
+
+	/**
+	 * Sends one notification for each uri changed since the last flush to each session subscribed to it
+	 */
+	public void flush() {
+		scheduled.set(false);
+		prune();
+
+		List<String> uris = new ArrayList<String>(changed);
+		changed.removeAll(uris);
+		for (String uri: uris) {
+			Subscription subscription = subscriptions.get(uri);
+			if (disposed || subscription == null) {
+				continue;
+			}
+			ResourcesUpdatedNotification notification = new ResourcesUpdatedNotification(uri);
+			for (String sessionId: new ArrayList<String>(subscription.sessions)) {
+				McpServerSession session = sessions.getSession(sessionId);
+				if (session == null) {
+					unsubscribe(sessionId, uri);
+					continue;
+				}
+				try {
+					session.sendNotification(McpSchema.METHOD_NOTIFICATION_RESOURCES_UPDATED, notification).block();
+					sent.incrementAndGet();
+				} catch (Exception e) {
+					Tracer.trace().trace(Tracer.MCP, "Failed to send resource updated notification", e); //$NON-NLS-1$
+				}
+			}
+		}
+	}
+
+	/**
+	 * Drops the subscriptions of sessions that are no longer connected
+	 */
+	void prune() {
+		for (String uri: new ArrayList<String>(subscriptions.keySet())) {
+			Subscription subscription = subscriptions.get(uri);
+			if (subscription != null) {
+				for (String sessionId: new ArrayList<String>(subscription.sessions)) {
+					if (sessions.getSession(sessionId) == null) {
+						unsubscribe(sessionId, uri);
+					}
+				}
+			}
+		}
+	}
+
+	public void dispose() {
+		disposed = true;
+		job.cancel();
+		for (String uri: new ArrayList<String>(subscriptions.keySet())) {
+			Subscription subscription = subscriptions.remove(uri);
+			if (subscription != null) {
+				subscription.close();
+			}
+		}
+		changed.clear();
+	}
+
+	public int size() {
+		return subscriptions.size();
+	}
+
+	public long getSent() {
+		return sent.get();
+	}
+
+	@Override
+	public String toString() {
+		return size() + " subscribed / " + getSent() + " sent"; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.contexts;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.agents.contexts.adapters.IResourceTemplate;
+import org.eclipse.agents.contexts.adapters.UriTemplate;
+
+/**
+ * Resolves a uri to the {@link IResourceTemplate} that handles it.
+ *
+ * Templates and prefixes are compiled once, when the router is built, into a trie keyed by their
+ * literal prefix, so a lookup only tests the templates whose prefix the uri starts with and
+ * returns the extracted variables along with the adapter.  When several adapters accept a uri,
+ * the first registered wins, as it did when adapters were tested one at a time.
+ *
+ * Adapters that override {@link IResourceTemplate#matches(String)} are still asked directly,
+ * after the trie, since their rules cannot be compiled.  Instances are immutable.
+ */
+public class ResourceTemplateRouter {
+
+	/**
+	 * @param adapter the adapter that accepted the uri
+	 * @param variables undecoded template variables, empty when matched by a prefix and null when
+	 * matched by {@link IResourceTemplate#matches(String)}
+	 */
+	public record Route(IResourceTemplate<?, ?> adapter, Map<String, String> variables) {
+		public IResourceTemplate<?, ?> resolve(String uri) {
+			return variables == null ? adapter.fromUri(uri) : adapter.fromUri(uri, variables);
+		}
+	}
+
+	static class Entry {
+		final int rank;
+		final IResourceTemplate<?, ?> adapter;
+		final UriTemplate template;
+
+		Entry(int rank, IResourceTemplate<?, ?> adapter, UriTemplate template) {
+			this.rank = rank;
+			this.adapter = adapter;
+			this.template = template;
+		}
+
+		Map<String, String> match(String uri) {
+			// prefix entries already matched by reaching their node
+			return template == null ? Map.of() : template.match(uri);
+		}
+	}
+
+	static class Node {
+		final Map<Character, Node> children = new HashMap<Character, Node>();
+		final List<Entry> entries = new ArrayList<Entry>(1);
+	}
+
+	final Node root = new Node();
+	final List<Entry> custom = new ArrayList<Entry>();
+	int size = 0;
+
+	public ResourceTemplateRouter(Collection<IResourceTemplate<?, ?>> adapters) {
+		int rank = 0;
+		for (IResourceTemplate<?, ?> adapter: adapters) {
+			if (overridesMatches(adapter)) {
+				custom.add(new Entry(rank++, adapter, null));
+			}
+			for (String template: adapter.getTemplates()) {
+				UriTemplate compiled = new UriTemplate(template);
+				insert(compiled.getPrefix(), new Entry(rank++, adapter, compiled));
+			}
+			for (String prefix: adapter.getPrefixes()) {
+				insert(prefix, new Entry(rank++, adapter, null));
+			}
+		}
+	}
+
+	private void insert(String prefix, Entry entry) {
+		Node node = root;
+		for (int i = 0; i < prefix.length(); i++) {
+			node = node.children.computeIfAbsent(prefix.charAt(i), c -> new Node());
+		}
+		node.entries.add(entry);
+		size++;
+	}
+
+	private static boolean overridesMatches(IResourceTemplate<?, ?> adapter) {
+		try {
+			return !adapter.getClass().getMethod("matches", String.class).getDeclaringClass().isInterface(); //$NON-NLS-1$
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * @param uri
+	 * @return the adapter accepting <code>uri</code> with its variables, or null
+	 */
+	public Route route(String uri) {
+		if (uri == null) {
+			return null;
+		}
+
+		Entry best = null;
+		Map<String, String> variables = null;
+
+		Node node = root;
+		for (int i = 0; node != null; i++) {
+			for (Entry entry: node.entries) {
+				if (best == null || entry.rank < best.rank) {
+					Map<String, String> matched = entry.match(uri);
+					if (matched != null) {
+						best = entry;
+						variables = matched;
+					}
+				}
+			}
+			node = i < uri.length() ? node.children.get(uri.charAt(i)) : null;
+		}
+
+		for (Entry entry: custom) {
+			if (best != null && best.rank < entry.rank) {
+				break;
+			}
+			if (entry.adapter.matches(uri)) {
+				return new Route(entry.adapter, null);
+			}
+		}
+
+		return best == null ? null : new Route(best.adapter, variables);
+	}
+
+	/**
+	 * @param uri
+	 * @return an adapter for <code>uri</code>, or null if no template accepts it
+	 */
+	public IResourceTemplate<?, ?> resolve(String uri) {
+		Route route = route(uri);
+		return route == null ? null : route.resolve(uri);
+	}
+
+	/**
+	 * @return number of compiled templates and prefixes
+	 */
+	public int size() {
+		return size;
+	}
+}
@@ -60,32 +60,21 @@ public class ServerManager implements IPreferenceConstants, IActivityManagerList
 		server = null;
 
 		IPreferenceStore store = Activator.getDefault().getPreferenceStore();
-		IActivityManager activites = PlatformUI.getWorkbench().getActivitySupport().getActivityManager();
 		
 		activityIds.clear();
 		
 		if (store.getBoolean(P_MCP_SERVER_ENABLED)) {
 			int port = store.getInt(P_MCP_SERVER_HTTP_PORT);
 			
-			Set<Contributor> contributors = new HashSet<Contributor>();
-			for (ExtensionManager.Contributor contributor: Activator.getDefault().getExtensionManager().getContributors()) {
-				if (contributor.getActivityId() == null) {
-					contributors.add(contributor);
-				} else {
-					IActivity activity = activites.getActivity(contributor.getActivityId());
-					if (activity != null && activity.isDefined() && activity.isEnabled()) {
-						contributors.add(contributor);
-						activityIds.add(activity.getId());
-					}
-				}
-			}
-			
+			// every contributor's factories are known to the server so that
+			// activity changes can later enable or disable them without a restart
 			List<IFactoryProvider> factories = new ArrayList<IFactoryProvider>();
-			for (Contributor contributor: contributors) {
+			for (Contributor contributor: Activator.getDefault().getExtensionManager().getContributors()) {
 				factories.addAll(Arrays.asList(contributor.getFactoryProviders()));
 			}
 			
 			server = new MCPServer(name, description, port, factories.toArray(IFactoryProvider[]::new));
+			server.reconfigure(getActiveFactories());
 			server.start();
 			isRunning = true;
 			
@@ -96,6 +85,35 @@ public class ServerManager implements IPreferenceConstants, IActivityManagerList
 		
 	}
 	
+	/**
+	 * Updates <code>activityIds</code> as a side effect
+	 * @return the factories of contributors without an activity or with an enabled activity
+	 */
+	private List<IFactoryProvider> getActiveFactories() {
+		IActivityManager activites = PlatformUI.getWorkbench().getActivitySupport().getActivityManager();
+		
+		activityIds.clear();
+		
+		Set<Contributor> contributors = new HashSet<Contributor>();
+		for (ExtensionManager.Contributor contributor: Activator.getDefault().getExtensionManager().getContributors()) {
+			if (contributor.getActivityId() == null) {
+				contributors.add(contributor);
+			} else {
+				IActivity activity = activites.getActivity(contributor.getActivityId());
+				if (activity != null && activity.isDefined() && activity.isEnabled()) {
+					contributors.add(contributor);
+					activityIds.add(activity.getId());
+				}
+			}
+		}
+		
+		List<IFactoryProvider> factories = new ArrayList<IFactoryProvider>();
+		for (Contributor contributor: contributors) {
+			factories.addAll(Arrays.asList(contributor.getFactoryProviders()));
+		}
+		return factories;
+	}
+	
 	public void stop() {
 		Tracer.trace().trace(Tracer.MCP, "Stopping"); //$NON-NLS-1$
 		isRunning = false;
@@ -117,7 +135,16 @@ public class ServerManager implements IPreferenceConstants, IActivityManagerList
 	}
 	
 
+	/**
+	 * Forwards a trace line to connected MCP clients as an info logging notification, which
+	 * clients receive at their default level, does nothing while the server is stopped
+	 */
 	public void log(String message, Throwable error) {
+		MCPServer server = this.server;
+		if (server == null || !isRunning) {
+			return;
+		}
+		
 		if (message != null) {
 			server.log(LoggingLevel.INFO, this, message);
 		}
@@ -133,26 +160,17 @@ public class ServerManager implements IPreferenceConstants, IActivityManagerList
 
 	@Override
 	public void activityManagerChanged(ActivityManagerEvent event) {
-		if (event.haveEnabledActivityIdsChanged()) {
-			for (String oldActivityId: event.getPreviouslyEnabledActivityIds()) {
-				if (!event.getActivityManager().getEnabledActivityIds().contains(oldActivityId)) {
-					// oldActivityId was disabled/removed
-					if (activityIds.contains(oldActivityId)) {
-						Tracer.trace().trace(Tracer.MCP, "Activity Disabled: " + oldActivityId); //$NON-NLS-1$
-						forceRestart();
-						return;
-					}
-				}
-			}
-			
+		if (event.haveEnabledActivityIdsChanged() && isRunning()) {
+			Set<String> previousActivityIds = new HashSet<String>(activityIds);
+			List<IFactoryProvider> factories = getActiveFactories();
 			
-			for (String newActivityId: event.getActivityManager().getEnabledActivityIds()) {
-				if (!event.getPreviouslyEnabledActivityIds().contains(newActivityId)) {
-					// newctivityId was enabled/added
-					if (!activityIds.contains(newActivityId)) {
-						Tracer.trace().trace(Tracer.MCP, "Activity Enabled: " + newActivityId); //$NON-NLS-1$
-						forceRestart();
-						return;
+			if (!previousActivityIds.equals(activityIds)) {
+				Tracer.trace().trace(Tracer.MCP, "Contributor Activities Changed: " + activityIds); //$NON-NLS-1$
+				
+				// add and remove the affected contributions on the running server
+				if (server.reconfigure(factories)) {
+					for (IServerListener listener: serverListeners) {
+						listener.serverChanged(server.getContentsDescription());
 					}
 				}
 			}
@@ -162,6 +180,9 @@ public class ServerManager implements IPreferenceConstants, IActivityManagerList
 	public interface IServerListener {
 		public void serverStarted(String contents);
 		public void serverStopped();
+		public default void serverChanged(String contents) {
+			serverStarted(contents);
+		}
 	}
 	
 	public void addServerListener(IServerListener listener) {
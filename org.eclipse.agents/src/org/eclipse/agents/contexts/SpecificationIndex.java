@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.contexts;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.eclipse.agents.contexts.ContributionRegistry.Contribution;
+
+import io.modelcontextprotocol.server.McpServerFeatures.SyncResourceSpecification;
+import io.modelcontextprotocol.server.McpServerFeatures.SyncToolSpecification;
+
+/**
+ * Concurrent lookup of tools by name and dynamic resources by URI, with per-tool
+ * visibility and a description cached until the next change of {@link #getVersion()}
+ */
+public class SpecificationIndex {
+
+	public class ToolEntry {
+		final SyncToolSpecification spec;
+		final Contribution contribution;
+		final AtomicBoolean visible = new AtomicBoolean(true);
+
+		ToolEntry(SyncToolSpecification spec, Contribution contribution) {
+			this.spec = spec;
+			this.contribution = contribution;
+		}
+
+		public SyncToolSpecification getSpecification() {
+			return spec;
+		}
+
+		public boolean isVisible() {
+			return visible.get();
+		}
+
+		/**
+		 * @return true if visible and its contribution is active
+		 */
+		public boolean isAvailable() {
+			return visible.get() && contribution.isActive();
+		}
+	}
+
+	Map<String, ToolEntry> tools = new ConcurrentHashMap<String, ToolEntry>();
+	Map<String, SyncResourceSpecification> dynamicResources = new ConcurrentHashMap<String, SyncResourceSpecification>();
+
+	AtomicLong version = new AtomicLong();
+	volatile Description description = null;
+
+	record Description(long version, String text) {}
+
+	/**
+	 * Indexes the tools of every contribution, all tools start visible
+	 * @param registry
+	 */
+	public void reset(ContributionRegistry registry) {
+		tools.clear();
+		dynamicResources.clear();
+		for (Contribution contribution: registry.getContributions()) {
+			for (SyncToolSpecification tool: contribution.tools) {
+				tools.put(tool.tool().name(), new ToolEntry(tool, contribution));
+			}
+		}
+		changed();
+	}
+
+	public ToolEntry getTool(String name) {
+		return name == null ? null : tools.get(name);
+	}
+
+	public boolean isHidden(String toolName) {
+		ToolEntry entry = getTool(toolName);
+		return entry != null && !entry.isVisible();
+	}
+
+	/**
+	 * Atomically changes a tool's visibility
+	 * @return the entry if its visibility changed, otherwise null
+	 */
+	public ToolEntry setVisible(String toolName, boolean visible) {
+		ToolEntry entry = getTool(toolName);
+		if (entry != null && entry.visible.compareAndSet(!visible, visible)) {
+			changed();
+			return entry;
+		}
+		return null;
+	}
+
+	/**
+	 * @return true if no resource with the same uri was present
+	 */
+	public boolean addResource(SyncResourceSpecification spec) {
+		if (dynamicResources.putIfAbsent(spec.resource().uri(), spec) == null) {
+			changed();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return the removed resource or null
+	 */
+	public SyncResourceSpecification removeResource(String uri) {
+		SyncResourceSpecification removed = uri == null ? null : dynamicResources.remove(uri);
+		if (removed != null) {
+			changed();
+		}
+		return removed;
+	}
+
+	public SyncResourceSpecification getResource(String uri) {
+		return uri == null ? null : dynamicResources.get(uri);
+	}
+
+	public int getResourceCount() {
+		return dynamicResources.size();
+	}
+
+	/**
+	 * Invalidates the cached description
+	 */
+	public void changed() {
+		version.incrementAndGet();
+	}
+
+	public long getVersion() {
+		return version.get();
+	}
+
+	/**
+	 * @param builder invoked only when the index changed since the last call
+	 * @return the description for the current version
+	 */
+	public String getDescription(Supplier<String> builder) {
+		long current = version.get();
+		Description cached = description;
+		if (cached == null || cached.version() != current) {
+			cached = new Description(current, builder.get());
+			description = cached;
+		}
+		return cached.text();
+	}
+}
@@ -13,17 +13,38 @@
  *******************************************************************************/
 package org.eclipse.agents.contexts.adapters;
 
+import java.util.Map;
+
+import org.eclipse.agents.contexts.platform.resource.ContentReader;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Content;
+
 import io.modelcontextprotocol.spec.McpSchema.ResourceLink;
-import io.modelcontextprotocol.util.DefaultMcpUriTemplateManager;
 
 public interface IResourceTemplate<T, U> extends IResourceAdapter<U> {
 
 	public IResourceTemplate<T, U> fromUri(String uri);
 	
+	/**
+	 * Called by the server's router with the variables it already extracted from <code>uri</code>,
+	 * adapters can override to skip matching the uri again.
+	 * @param uri
+	 * @param variables undecoded values of the matched template's variables, empty when matched by one of {@link #getPrefixes()}
+	 */
+	public default IResourceTemplate<T, U> fromUri(String uri, Map<String, String> variables) {
+		return fromUri(uri);
+	}
+	
 	public IResourceTemplate<T, U> fromModel(T object);
 	
 	public String[] getTemplates();
 	
+	/**
+	 * @return uri prefixes accepted by {@link #fromUri(String)} in addition to {@link #getTemplates()}
+	 */
+	public default String[] getPrefixes() {
+		return new String[0];
+	}
+	
 	public T getModel();
 	
 	public ResourceLink toResourceLink();
@@ -32,9 +53,33 @@ public interface IResourceTemplate<T, U> extends IResourceAdapter<U> {
 	
 	public String toContent();
 	
+	/**
+	 * Reads the range of content selected by <code>reader</code>.  The default reads it
+	 * from {@link #toContent()}, adapters of large content should override.
+	 * @param reader
+	 * @return
+	 */
+	public default Content toContent(ContentReader reader) {
+		return reader.read(toUri(), toContent());
+	}
+
+	/**
+	 * Calls <code>changed</code>, from any thread, whenever the content of this resource changes
+	 * @param changed
+	 * @return a runnable removing the listeners, or null if changes cannot be watched
+	 */
+	public default Runnable watch(Runnable changed) {
+		return null;
+	}
+
 	public default boolean matches(String uri) {
 		for (String template: getTemplates()) {
-			if (new DefaultMcpUriTemplateManager(template).matches(uri)) {
+			if (new UriTemplate(template).matches(uri)) {
+				return true;
+			}
+		}
+		for (String prefix: getPrefixes()) {
+			if (uri.startsWith(prefix)) {
 				return true;
 			}
 		}
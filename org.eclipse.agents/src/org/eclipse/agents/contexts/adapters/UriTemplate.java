@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.contexts.adapters;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A resource template such as <code>eclipse://editor/{name}</code> parsed once into its literal
+ * parts and variable names.  Like the MCP SDK's template manager, each variable matches one or
+ * more characters other than <code>/</code>, but matching is done without building a regular
+ * expression per call, so instances are cheap to reuse and safe to share between threads.
+ */
+public class UriTemplate {
+
+	final String template;
+	final String[] literals;
+	final String[] names;
+
+	public UriTemplate(String template) {
+		this.template = template;
+
+		List<String> literals = new ArrayList<String>();
+		List<String> names = new ArrayList<String>();
+		int start = 0;
+		while (true) {
+			int open = template.indexOf('{', start);
+			int close = open < 0 ? -1 : template.indexOf('}', open);
+			if (close < 0) {
+				literals.add(template.substring(start));
+				break;
+			}
+			literals.add(template.substring(start, open));
+			names.add(template.substring(open + 1, close));
+			start = close + 1;
+		}
+		this.literals = literals.toArray(String[]::new);
+		this.names = names.toArray(String[]::new);
+	}
+
+	public String getTemplate() {
+		return template;
+	}
+
+	/**
+	 * @return the literal text before the first variable
+	 */
+	public String getPrefix() {
+		return literals[0];
+	}
+
+	public String[] getVariableNames() {
+		return names;
+	}
+
+	public boolean matches(String uri) {
+		return match(uri) != null;
+	}
+
+	/**
+	 * @param uri
+	 * @return the undecoded variable values by name, or null if <code>uri</code> does not match
+	 */
+	public Map<String, String> match(String uri) {
+		if (uri == null || !uri.startsWith(literals[0])) {
+			return null;
+		}
+		String[] values = new String[names.length];
+		if (!match(uri, literals[0].length(), 0, values)) {
+			return null;
+		}
+		Map<String, String> variables = new LinkedHashMap<String, String>();
+		for (int i = 0; i < names.length; i++) {
+			variables.put(names[i], values[i]);
+		}
+		return variables;
+	}
+
+	private boolean match(String uri, int offset, int variable, String[] values) {
+		if (variable == names.length) {
+			return offset == uri.length();
+		}
+
+		String literal = literals[variable + 1];
+		if (literal.isEmpty() && variable == names.length - 1) {
+			// trailing variable, the common case, takes the rest of the uri
+			if (offset >= uri.length() || uri.indexOf('/', offset) >= 0) {
+				return false;
+			}
+			values[variable] = uri.substring(offset);
+			return true;
+		}
+
+		int end = offset + 1;
+		while (end <= uri.length()) {
+			if (uri.charAt(end - 1) == '/') {
+				return false;
+			}
+			if (uri.startsWith(literal, end)) {
+				values[variable] = uri.substring(offset, end);
+				if (match(uri, end + literal.length(), variable + 1, values)) {
+					return true;
+				}
+			}
+			end++;
+		}
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		return template;
+	}
+}
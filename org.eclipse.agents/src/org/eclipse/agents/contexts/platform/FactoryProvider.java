@@ -16,8 +16,12 @@ package org.eclipse.agents.contexts.platform;
 import org.eclipse.agents.IFactoryProvider;
 import org.eclipse.agents.IMCPServices;
 import org.eclipse.agents.contexts.adapters.IResourceTemplate;
+import org.eclipse.agents.contexts.platform.index.FileNameIndex;
+import org.eclipse.agents.contexts.platform.index.MarkerIndex;
+import org.eclipse.agents.contexts.platform.index.TextIndex;
 import org.eclipse.agents.contexts.platform.resource.ConsoleAdapter;
 import org.eclipse.agents.contexts.platform.resource.EditorAdapter;
+import org.eclipse.agents.contexts.platform.resource.WorkbenchMirror;
 import org.eclipse.agents.contexts.platform.resource.WorkspaceResourceAdapter;
 
 public class FactoryProvider implements IFactoryProvider {
@@ -51,6 +55,10 @@ public class FactoryProvider implements IFactoryProvider {
 	@Override
 	public void initialize(IMCPServices services) {
 		editors.initialize(services);
+		TextIndex.getDefault().start();
+		FileNameIndex.getDefault().start();
+		MarkerIndex.getDefault().start();
+		WorkbenchMirror.getDefault().start();
 	}
 
 }
@@ -140,17 +140,20 @@ public class ResourceController  {
 		
 		editorNames.clear();
 		
-		for (IWorkbenchWindow window: PlatformUI.getWorkbench().getWorkbenchWindows()) {
-			for (IWorkbenchPage page: window.getPages()) {
-				for (IEditorReference ref: page.getEditorReferences()) {
-					// get part only if its been initialized
-					IEditorPart part = ref.getEditor(false);
-					if (part instanceof ITextEditor) {
-						addResource((ITextEditor)part);
+		// one resources list_changed notification for all open editors
+		services.batch(() -> {
+			for (IWorkbenchWindow window: PlatformUI.getWorkbench().getWorkbenchWindows()) {
+				for (IWorkbenchPage page: window.getPages()) {
+					for (IEditorReference ref: page.getEditorReferences()) {
+						// get part only if its been initialized
+						IEditorPart part = ref.getEditor(false);
+						if (part instanceof ITextEditor) {
+							addResource((ITextEditor)part);
+						}
 					}
 				}
 			}
-		}
+		});
 		
 	}
 	
@@ -18,20 +18,13 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.eclipse.agents.contexts.platform.index.FileNameIndex;
+import org.eclipse.agents.contexts.platform.index.FileNameIndex.Match;
 import org.eclipse.agents.contexts.platform.resource.EditorAdapter;
 import org.eclipse.agents.contexts.platform.resource.WorkspaceResourceAdapter;
-import org.eclipse.core.resources.IContainer;
-import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
-import org.eclipse.core.resources.IResource;
-import org.eclipse.core.resources.IResourceVisitor;
 import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.ResourcesPlugin;
-import org.eclipse.core.runtime.CoreException;
-import org.eclipse.core.runtime.Platform;
-import org.eclipse.core.runtime.content.IContentDescription;
-import org.eclipse.core.runtime.content.IContentType;
-import org.eclipse.core.runtime.content.IContentTypeManager;
 import org.eclipse.ui.IEditorReference;
 import org.eclipse.ui.IWorkbenchPage;
 import org.eclipse.ui.IWorkbenchWindow;
@@ -107,43 +100,9 @@ public class ResourceTemplates {
 		} else{
 			
 			String projectName = context.arguments().get("project");
-			IWorkspace workspace = ResourcesPlugin.getWorkspace();
-			IProject project = workspace.getRoot().getProject(projectName);
-			if (project != null && argument.value() != null) {
-				List<IFile> files = new ArrayList<IFile>();
-				IResourceVisitor  visitor = new IResourceVisitor() {
-					@Override
-					public boolean visit(IResource resource) throws CoreException {
-						if (resource instanceof IFile && resource.getName().toUpperCase().contains(argument.value().toUpperCase())) {							
-							IFile file = (IFile)resource;
-							if (file.isAccessible() && !file.isHidden() && file.exists() && !file.isPhantom()) {
-								IContentDescription desc = file.getContentDescription();
-								if (desc != null) {
-									IContentType contentType = desc.getContentType();
-									if (contentType != null && contentType.isKindOf(
-											Platform.getContentTypeManager().getContentType(IContentTypeManager.CT_TEXT))) {
-										files.add(file);
-									}
-								} else if (file.getName().startsWith(".")) {
-									files.add(file);
-								}
-								
-							}
-						}
-						if (resource instanceof IContainer && files.size() < 50) {
-							return true; //!container.isHidden() && !container.isPhantom();
-						}
-						return false;
-					}
-				};
-				try {
-					project.accept(visitor, IResource.DEPTH_INFINITE, false);
-				} catch (CoreException e) {
-					e.printStackTrace();
-				}
-				
-				for (IFile file: files) {
-					result.add(file.getProjectRelativePath().toPortableString());
+			if (projectName != null && argument.value() != null) {
+				for (Match match: FileNameIndex.getDefault().find(projectName, argument.value(), true, FileNameIndex.DEFAULT_LIMIT)) {
+					result.add(match.entry().path());
 				}
 			}
 			
@@ -19,19 +19,30 @@ import java.util.Comparator;
 
 import org.eclipse.agents.Activator;
 import org.eclipse.agents.MCPException;
+import org.eclipse.agents.UIExecutor;
 import org.eclipse.agents.contexts.adapters.IResourceHierarchy;
 import org.eclipse.agents.contexts.adapters.IResourceTemplate;
+import org.eclipse.agents.contexts.platform.index.MarkerIndex;
+import org.eclipse.agents.contexts.platform.index.TextIndex;
+import org.eclipse.agents.contexts.platform.resource.ChildrenQuery;
 import org.eclipse.agents.contexts.platform.resource.ConsoleAdapter;
+import org.eclipse.agents.contexts.platform.resource.ContentReader;
 import org.eclipse.agents.contexts.platform.resource.EditorAdapter;
 import org.eclipse.agents.contexts.platform.resource.MarkerAdapter;
+import org.eclipse.agents.contexts.platform.resource.WorkbenchMirror;
 import org.eclipse.agents.contexts.platform.resource.WorkspaceResourceAdapter;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Children;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Consoles;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Content;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.ContentRange;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.DEPTH;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Editor;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Editors;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.File;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Marker;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Problems;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.SEVERITY;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.SearchResults;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Tasks;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.TextEditorSelection;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.TextReplacement;
@@ -43,7 +54,6 @@ import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.IRewriteTarget;
-import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.IEditorInput;
 import org.eclipse.ui.IEditorPart;
 import org.eclipse.ui.IEditorReference;
@@ -56,6 +66,9 @@ import org.eclipse.ui.ide.IDE;
 import org.eclipse.ui.texteditor.ITextEditor;
 import org.springaicommunity.mcp.annotation.McpTool;
 import org.springaicommunity.mcp.annotation.McpToolParam;
+import org.springaicommunity.mcp.method.tool.utils.JsonParser;
+
+import io.modelcontextprotocol.spec.McpSchema.CallToolResult;
 
 public class Tools {
 
@@ -65,7 +78,10 @@ public class Tools {
 			annotations = @McpTool.McpAnnotations(
 					title = "Currrent Selection"))
 	public TextEditorSelection currentSelection() {
-		
+		WorkbenchMirror mirror = WorkbenchMirror.getDefault();
+		if (mirror.isReady()) {
+			return mirror.getActiveSelection();
+		}
 		
 		IEditorPart activePart = EditorAdapter.getActiveEditor();
 		if (activePart != null) {
@@ -103,7 +119,8 @@ public class Tools {
 	}
 
 	@McpTool(name = "listChildResources",
-			description = "List child resources of an Eclipse workspace, project or folder URI", 
+			description = "List child resources of an Eclipse workspace, project or folder URI. "
+					+ "Derived, hidden and team private resources are skipped, large results are returned in pages", 
 			annotations = @McpTool.McpAnnotations(
 					title = "List Child Resources"))
 	public Children<?> listChildResources(
@@ -113,7 +130,27 @@ public class Tools {
 			@McpToolParam(
 					description = "CHILDREN, GRANDCHILDREN or INFINITE", 
 					required = false) 
-					DEPTH depth) {
+					DEPTH depth,
+			@McpToolParam(
+					description = "maximum number of children to return, defaults to " + ChildrenQuery.DEFAULT_LIMIT, 
+					required = false) 
+					Integer limit,
+			@McpToolParam(
+					description = "nextCursor of a previous call, returns the next page", 
+					required = false) 
+					String cursor,
+			@McpToolParam(
+					description = "glob of children to return, such as *.java or src/**/*.xml", 
+					required = false) 
+					String include,
+			@McpToolParam(
+					description = "glob of children to skip with all their children, such as target", 
+					required = false) 
+					String exclude,
+			@McpToolParam(
+					description = "include the size of files, false by default", 
+					required = false) 
+					Boolean includeSizes) {
 
 		IResourceTemplate<?, ?> adapter = Activator.getDefault().getServerManager().getResourceTemplate(resourceURI);
 		
@@ -123,17 +160,43 @@ public class Tools {
 			throw new MCPException("The uri does not support children: " + resourceURI);
 		}
 		
+		if (adapter instanceof WorkspaceResourceAdapter) {
+			return ((WorkspaceResourceAdapter)adapter).getChildren(depth,
+					new ChildrenQuery(limit, cursor, include, exclude, includeSizes));
+		}
 		return ((IResourceHierarchy<?, ?>)adapter).getChildren(depth);
 	}
 
 	@McpTool(name = "readResource", 
-			description = "Returns the contents of an Eclipse workspace file, editor, or console URI", 
+			description = "Returns the contents of an Eclipse workspace file, editor, or console URI. "
+					+ "Large contents are returned in parts, read a range with offset and length or startLine and lineCount. "
+					+ "When only part is returned, a second text holds its offset, startLine and the nextCursor to continue with", 
 			annotations = @McpTool.McpAnnotations(
 					title = "Read Resource"))
-	public String readResource(
+	public CallToolResult readResource(
 			@McpToolParam(
 					description = "URI of an eclipse file, editor or console") 
-					String uri) {
+					String uri,
+			@McpToolParam(
+					description = "character offset to start reading at", 
+					required = false) 
+					Integer offset,
+			@McpToolParam(
+					description = "maximum number of characters to read", 
+					required = false) 
+					Integer length,
+			@McpToolParam(
+					description = "zero-relative line to start reading at, instead of offset", 
+					required = false) 
+					Integer startLine,
+			@McpToolParam(
+					description = "maximum number of lines to read", 
+					required = false) 
+					Integer lineCount,
+			@McpToolParam(
+					description = "nextCursor of a previous read, continues after it with the same length or lineCount", 
+					required = false) 
+					String cursor) {
 
 		IResourceTemplate<?, ?> adapter = Activator.getDefault().getServerManager().getResourceTemplate(uri);
 	
@@ -141,7 +204,45 @@ public class Tools {
 			throw new MCPException("The uri could not be resolved");
 		}
 		
-		return adapter.toContent();
+		Content content = adapter.toContent(new ContentReader(offset, length, startLine, lineCount, cursor));
+
+		// the text alone, as before ranges could be read, followed by the range when partial,
+		// serialized as the results of other tools are
+		CallToolResult.Builder result = CallToolResult.builder().addTextContent(content.text());
+		if (content.offset() > 0 || content.nextCursor() != null) {
+			result.addTextContent(JsonParser.toJson(new ContentRange(content.offset(), content.startLine(), content.nextCursor())));
+		}
+		return result.build();
+	}
+
+	@McpTool(name = "searchText", 
+			description = "Find lines of text in Eclipse workspace files. "
+					+ "Searches an index of the workspace, binary, derived and very large files are not searched", 
+			annotations = @McpTool.McpAnnotations(
+					title = "Search Text"))
+	public SearchResults searchText(
+			@McpToolParam(
+					description = "text or regular expression to find within a line") 
+					String query,
+			@McpToolParam(
+					description = "treat query as a Java regular expression, false by default", 
+					required = false) 
+					Boolean regex,
+			@McpToolParam(
+					description = "match case, false by default", 
+					required = false) 
+					Boolean caseSensitive,
+			@McpToolParam(
+					description = "name of a project to search, all projects by default", 
+					required = false) 
+					String project,
+			@McpToolParam(
+					description = "maximum number of matching lines, defaults to " + TextIndex.DEFAULT_LIMIT, 
+					required = false) 
+					Integer limit) {
+
+		return TextIndex.getDefault().search(query, Boolean.TRUE.equals(regex), 
+				Boolean.TRUE.equals(caseSensitive), project, limit);
 	}
 
 	/**
@@ -179,7 +280,7 @@ public class Tools {
 				// TODO Auto-generated catch block
 				e.printStackTrace();
 			}
-			Display.getDefault().syncExec(new Runnable() {
+			UIExecutor.getDefault().syncExec(new Runnable() {
 				@Override
 				public void run() {
 					try {
@@ -235,7 +336,7 @@ public class Tools {
 		final IEditorReference reference = adapter.getModel();
 
 		// TODO close just the editor, not all editors on editor's file
-		Activator.getDisplay().syncExec(new Runnable() {
+		UIExecutor.getDefault().syncExec(new Runnable() {
 			@Override
 			public void run() {
 				reference.getPage().closeEditors(new IEditorReference[] { reference }, true);
@@ -256,7 +357,7 @@ public class Tools {
 		boolean[] result = new boolean[] { false };
 		if (reference != null) {
 			if (reference.isDirty()) {
-				Activator.getDisplay().syncExec(new Runnable() {
+				UIExecutor.getDefault().syncExec(new Runnable() {
 					@Override
 					public void run() {
 						try {
@@ -306,7 +407,7 @@ public class Tools {
 		if (reference != null) {
 			IEditorPart part = reference.getEditor(true);
 			if (part instanceof ITextEditor) {
-				Activator.getDisplay().syncExec(new Runnable() {
+				UIExecutor.getDefault().syncExec(new Runnable() {
 					@Override
 					public void run() {
 						ITextEditor textEditor = (ITextEditor) part;
@@ -349,7 +450,7 @@ public class Tools {
 //     
 
 	@McpTool(name = "listProblems", 
-			description = "list Eclipse IDE compilation and configuration problems", 
+			description = "list Eclipse IDE compilation and configuration problems, large results are returned in pages", 
 			annotations = @McpTool.McpAnnotations(
 				title = "List Problems"))
 	public Problems listProblems(
@@ -357,24 +458,43 @@ public class Tools {
 				description = "Eclipse workspace file or editor URI")
 				String resourceURI,
 			@McpToolParam(
-				description = "One of ERROR, INFO or WARNING. Default i", 
+				description = "One of ERROR, WARNING or INFO, the least severity returned. Default is all problems", 
 				required = false) 
-				String severity) {
-
-		//TODO severity
+				SEVERITY severity,
+			@McpToolParam(
+				description = "marker type of problems to return, such as org.eclipse.jdt.core.problem. Not supported for editor URIs", 
+				required = false) 
+				String markerType,
+			@McpToolParam(
+				description = "maximum number of problems to return, defaults to " + MarkerIndex.DEFAULT_LIMIT + ". Not supported for editor URIs", 
+				required = false) 
+				Integer limit,
+			@McpToolParam(
+				description = "nextCursor of a previous call, returns the next page. Not supported for editor URIs", 
+				required = false) 
+				String cursor,
+			@McpToolParam(
+				description = "token of a previous call, returns only the problems added, changed or removed since. Not supported for editor URIs", 
+				required = false) 
+				String sinceToken) {
 
 		if (resourceURI == null || resourceURI.isEmpty()) {
-			return MarkerAdapter.getProblems(ResourcesPlugin.getWorkspace().getRoot());
+			return MarkerIndex.getDefault().getProblems(ResourcesPlugin.getWorkspace().getRoot(), severity, markerType, limit, cursor, sinceToken);
 		} else {
 			IResourceTemplate<?, ?> adapter = Activator.getDefault().getServerManager().getResourceTemplate(resourceURI);
 			if (adapter instanceof WorkspaceResourceAdapter) {
-				return MarkerAdapter.getProblems(((WorkspaceResourceAdapter)adapter).getModel());
+				return MarkerIndex.getDefault().getProblems(((WorkspaceResourceAdapter)adapter).getModel(), severity, markerType, limit, cursor, sinceToken);
 			} else if (adapter instanceof EditorAdapter) {
+				checkEditorArguments(markerType, limit, cursor, sinceToken);
 				IEditorReference reference = ((EditorAdapter)adapter).getModel();
 				IEditorPart part = reference.getEditor(true);
 				if (part != null) {
 					if (part instanceof ITextEditor) {
-						return MarkerAdapter.getProblems((ITextEditor)part);
+						// annotations of the editor include problems of unsaved changes
+						Marker[] problems = MarkerAdapter.getProblems((ITextEditor)part).problems();
+						return new Problems(Arrays.stream(problems)
+								.filter(problem -> MarkerIndex.isAtLeast(problem.severity(), severity))
+								.toArray(Marker[]::new));
 					} else {
 						throw new MCPException("Editor is not a text editor");
 					}
@@ -387,21 +507,48 @@ public class Tools {
 		}
 	}
 
+	/**
+	 * Problems and tasks of editors are read from their annotations, which are not indexed
+	 */
+	private static void checkEditorArguments(String markerType, Integer limit, String cursor, String sinceToken) {
+		if (markerType != null || limit != null || (cursor != null && !cursor.isBlank())
+				|| (sinceToken != null && !sinceToken.isBlank())) {
+			throw new MCPException("markerType, limit, cursor and sinceToken are not supported for editor URIs");
+		}
+	}
+
 	@McpTool (name = "listTasks", 
-			description = "list codebase locations of tasks including TODO comments", 
+			description = "list codebase locations of tasks including TODO comments, large results are returned in pages", 
 			annotations = @McpTool.McpAnnotations(title = "List Tasks"))
 	public Tasks listTasks(
 			@McpToolParam(description = "Eclipse workspace file or editor URI", 
 			required = false) 
-			String resourceURI) {
+			String resourceURI,
+			@McpToolParam(
+				description = "marker type of tasks to return, such as org.eclipse.jdt.core.task. Not supported for editor URIs", 
+				required = false) 
+				String markerType,
+			@McpToolParam(
+				description = "maximum number of tasks to return, defaults to " + MarkerIndex.DEFAULT_LIMIT + ". Not supported for editor URIs", 
+				required = false) 
+				Integer limit,
+			@McpToolParam(
+				description = "nextCursor of a previous call, returns the next page. Not supported for editor URIs", 
+				required = false) 
+				String cursor,
+			@McpToolParam(
+				description = "token of a previous call, returns only the tasks added, changed or removed since. Not supported for editor URIs", 
+				required = false) 
+				String sinceToken) {
 
 		if (resourceURI == null || resourceURI.isEmpty()) {
-			return MarkerAdapter.getTasks(ResourcesPlugin.getWorkspace().getRoot());
+			return MarkerIndex.getDefault().getTasks(ResourcesPlugin.getWorkspace().getRoot(), markerType, limit, cursor, sinceToken);
 		} else {
 			IResourceTemplate<?, ?> adapter = Activator.getDefault().getServerManager().getResourceTemplate(resourceURI);
 			if (adapter instanceof WorkspaceResourceAdapter) {
-				return MarkerAdapter.getTasks(((WorkspaceResourceAdapter)adapter).getModel());
+				return MarkerIndex.getDefault().getTasks(((WorkspaceResourceAdapter)adapter).getModel(), markerType, limit, cursor, sinceToken);
 			} else if (adapter instanceof EditorAdapter) {
+				checkEditorArguments(markerType, limit, cursor, sinceToken);
 				IEditorReference reference = ((EditorAdapter)adapter).getModel();
 				IEditorPart part = reference.getEditor(true);
 				if (part != null) {
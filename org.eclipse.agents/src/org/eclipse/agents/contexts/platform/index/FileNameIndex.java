@@ -0,0 +1,420 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.contexts.platform.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.agents.Tracer;
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceProxy;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.content.IContentType;
+import org.eclipse.core.runtime.content.IContentTypeManager;
+import org.eclipse.core.runtime.jobs.Job;
+
+/**
+ * Project-relative paths of all workspace files for fuzzy completion of file names.
+ *
+ * Files are added and removed directly from resource deltas, projects that are opened, closed or
+ * removed are rescanned by a background job.  Whether a file is text is decided from the content
+ * type registered for its name and cached per extension, file content is never read.
+ *
+ * Queries match their characters in order within the file name, or within the whole path when
+ * they contain a <code>/</code>, ranking substrings of the name, word starts and consecutive
+ * characters first.
+ */
+public class FileNameIndex implements IResourceChangeListener {
+
+	public static final int DEFAULT_LIMIT = 50;
+
+	private static FileNameIndex instance;
+
+	/**
+	 * @param project
+	 * @param path project-relative path
+	 * @param text whether the content type of the file is text
+	 */
+	public record Entry(String project, String path, boolean text) {
+
+		public IPath getFullPath() {
+			return IPath.fromPortableString("/" + project + "/" + path); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	/**
+	 * Entry with its lower case path, name offset and masks of the characters in path and name
+	 */
+	record Key(Entry entry, String lower, int nameStart, long mask, long nameMask) {}
+
+	public record Match(Entry entry, int score) {}
+
+	/**
+	 * Files matching the last query, narrowed instead of searching all files when it is extended
+	 * and still matched against the same part of the path
+	 */
+	record Previous(Snapshot snapshot, String project, boolean textOnly, boolean inPath, String query, int[] matched) {}
+
+	/**
+	 * Keys with their masks in flat arrays, so most files are discarded without touching their keys
+	 */
+	record Snapshot(Key[] keys, long[] masks, long[] nameMasks) {
+
+		static Snapshot of(Key[] keys) {
+			long[] masks = new long[keys.length], nameMasks = new long[keys.length];
+			for (int i = 0; i < keys.length; i++) {
+				masks[i] = keys[i].mask;
+				nameMasks[i] = keys[i].nameMask;
+			}
+			return new Snapshot(keys, masks, nameMasks);
+		}
+	}
+
+	// full path to key, and the array searched which is rebuilt after changes
+	Map<String, Key> keys = new ConcurrentHashMap<String, Key>();
+	volatile Snapshot snapshot = Snapshot.of(new Key[0]);
+	volatile boolean stale = false;
+	volatile Previous previous;
+
+	Map<String, Boolean> textTypes = new ConcurrentHashMap<String, Boolean>();
+	Set<String> projects = ConcurrentHashMap.newKeySet();
+	volatile boolean built = false;
+	volatile boolean started = false;
+	Job job;
+
+	public static synchronized FileNameIndex getDefault() {
+		if (instance == null) {
+			instance = new FileNameIndex();
+		}
+		return instance;
+	}
+
+	public static synchronized void disposeDefault() {
+		if (instance != null) {
+			instance.dispose();
+			instance = null;
+		}
+	}
+
+	FileNameIndex() {
+		job = new Job("Indexing workspace file names") { //$NON-NLS-1$
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				scan(monitor);
+				return Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+	}
+
+	/**
+	 * Starts tracking workspace changes and schedules the initial scan, once
+	 */
+	public synchronized void start() {
+		if (started) {
+			return;
+		}
+		started = true;
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+		for (IProject project: ResourcesPlugin.getWorkspace().getRoot().getProjects()) {
+			projects.add(project.getName());
+		}
+		job.schedule();
+	}
+
+	public void dispose() {
+		ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+		job.cancel();
+	}
+
+	public boolean isIndexing() {
+		return !built || !projects.isEmpty();
+	}
+
+	public int size() {
+		return keys.size();
+	}
+
+	@Override
+	public void resourceChanged(IResourceChangeEvent event) {
+		IResourceDelta delta = event.getDelta();
+		if (delta == null) {
+			return;
+		}
+		try {
+			delta.accept(child -> {
+				IResource resource = child.getResource();
+				switch (resource.getType()) {
+				case IResource.PROJECT:
+					if (child.getKind() != IResourceDelta.CHANGED || (child.getFlags() & IResourceDelta.OPEN) != 0) {
+						projects.add(resource.getName());
+						return false;
+					}
+					return true;
+				case IResource.FILE:
+					if (child.getKind() == IResourceDelta.ADDED) {
+						add(resource.getFullPath(), resource.isDerived(IResource.CHECK_ANCESTORS));
+					} else if (child.getKind() == IResourceDelta.REMOVED) {
+						remove(resource.getFullPath());
+					}
+					return false;
+				default:
+					// derived flags changing on folders are picked up when their project is rescanned
+					return true;
+				}
+			});
+		} catch (CoreException e) {
+			Tracer.trace().trace(Tracer.CONTEXTS, "File name index delta failed", e); //$NON-NLS-1$
+		}
+		if (!projects.isEmpty()) {
+			job.schedule();
+		}
+	}
+
+	void scan(IProgressMonitor monitor) {
+		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+		for (String name: new ArrayList<String>(projects)) {
+			if (monitor.isCanceled()) {
+				return;
+			}
+			projects.remove(name);
+			String prefix = "/" + name + "/"; //$NON-NLS-1$ //$NON-NLS-2$
+			keys.keySet().removeIf(path -> path.startsWith(prefix));
+			stale = true;
+
+			IProject project = root.getProject(name);
+			if (project.isAccessible()) {
+				try {
+					project.accept((IResourceProxy proxy) -> {
+						if (proxy.getType() == IResource.FILE) {
+							add(proxy.requestFullPath(), false);
+						}
+						return !monitor.isCanceled();
+					}, IContainer.EXCLUDE_DERIVED);
+				} catch (CoreException e) {
+					Tracer.trace().trace(Tracer.CONTEXTS, "File name index failed for " + name, e); //$NON-NLS-1$
+				}
+			}
+		}
+		built = true;
+	}
+
+	void add(IPath fullPath, boolean derived) {
+		if (derived || fullPath.segmentCount() < 2) {
+			return;
+		}
+		String project = fullPath.segment(0);
+		String path = fullPath.removeFirstSegments(1).toString();
+		String lower = path.toLowerCase();
+		Entry entry = new Entry(project, path, isText(fullPath.lastSegment()));
+		int nameStart = lower.lastIndexOf('/') + 1;
+		keys.put(fullPath.toString(), new Key(entry, lower, nameStart, mask(lower), mask(lower.substring(nameStart))));
+		stale = true;
+	}
+
+	void remove(IPath fullPath) {
+		if (keys.remove(fullPath.toString()) != null) {
+			stale = true;
+		}
+	}
+
+	/**
+	 * Whether the content type registered for a file name is text, cached by extension
+	 */
+	boolean isText(String name) {
+		int dot = name.lastIndexOf('.');
+		// names without an extension such as Makefile have types of their own
+		String key = dot > 0 ? name.substring(dot).toLowerCase() : name;
+		return textTypes.computeIfAbsent(key, k -> {
+			IContentTypeManager manager = Platform.getContentTypeManager();
+			IContentType type = manager.findContentTypeFor(name);
+			if (type == null) {
+				// unknown dot files, such as .gitignore, are usually text
+				return dot == 0;
+			}
+			return type.isKindOf(manager.getContentType(IContentTypeManager.CT_TEXT));
+		});
+	}
+
+	private Snapshot snapshot() {
+		if (stale) {
+			stale = false;
+			snapshot = Snapshot.of(keys.values().toArray(Key[]::new));
+		}
+		return snapshot;
+	}
+
+	/**
+	 * @param project name of the project to search, or null for all projects
+	 * @param query characters to find in order, all files if empty
+	 * @param textOnly whether to only return files with a text content type
+	 * @param limit maximum number of matches
+	 * @return the best matches, best first
+	 */
+	public List<Match> find(String project, String query, boolean textOnly, int limit) {
+		if (!started) {
+			// chat completion may ask before any MCP server started the index
+			start();
+		}
+		String lower = query == null ? "" : query.toLowerCase(); //$NON-NLS-1$
+		long mask = mask(lower);
+		boolean inPath = lower.indexOf('/') >= 0;
+
+		// while a query is typed, only the files matching its previous form can match, unless it
+		// now has a / and is matched against paths instead of names
+		Snapshot all = snapshot();
+		long[] masks = inPath ? all.masks : all.nameMasks;
+		int[] candidates = null;
+		Previous last = previous;
+		if (last != null && last.snapshot == all && last.textOnly == textOnly && last.inPath == inPath
+				&& Objects.equals(last.project, project) && lower.startsWith(last.query)) {
+			candidates = last.matched;
+		}
+
+		int[] matched = new int[candidates == null ? 64 : candidates.length];
+		int count = 0;
+		PriorityQueue<Match> best = new PriorityQueue<Match>(limit + 1,
+				(a, b) -> a.score != b.score ? Integer.compare(a.score, b.score) : b.entry.path.compareTo(a.entry.path));
+		int size = candidates == null ? all.keys.length : candidates.length;
+		for (int c = 0; c < size; c++) {
+			int i = candidates == null ? c : candidates[c];
+			if ((masks[i] & mask) != mask) {
+				continue;
+			}
+			Key key = all.keys[i];
+			Entry entry = key.entry;
+			int start = inPath ? 0 : key.nameStart;
+			if ((textOnly && !entry.text) || (project != null && !project.equals(entry.project))
+					|| !isSubsequence(key.lower, start, lower)) {
+				continue;
+			}
+			if (count == matched.length) {
+				matched = Arrays.copyOf(matched, count * 2);
+			}
+			matched[count++] = i;
+			int score = score(key, start, lower);
+			if (best.size() < limit) {
+				best.add(new Match(entry, score));
+			} else if (score > best.peek().score) {
+				best.poll();
+				best.add(new Match(entry, score));
+			}
+		}
+		previous = new Previous(all, project, textOnly, inPath, lower, Arrays.copyOf(matched, count));
+
+		List<Match> result = new ArrayList<Match>(best);
+		Collections.sort(result, (a, b) -> a.score != b.score ? Integer.compare(b.score, a.score) : a.entry.path.compareTo(b.entry.path));
+		return result;
+	}
+
+	/**
+	 * Scores a subsequence match, preferring the file name, word starts and runs of characters,
+	 * then shorter paths
+	 * @param start offset in the path to match from
+	 * @return the score, or {@link Integer#MIN_VALUE} if the query is not a subsequence
+	 */
+	static int score(Key key, int start, String query) {
+		String path = key.lower;
+		int score = -path.length();
+		if (query.isEmpty()) {
+			return score;
+		}
+
+		// a substring of the name beats any scattered match
+		int index = path.indexOf(query, key.nameStart);
+		if (index >= 0) {
+			return score + 10000 + (index == key.nameStart ? 1000 : 0);
+		}
+
+		// otherwise match from the end, so as many characters as possible fall in the name
+		int q = query.length() - 1, previous = -1;
+		for (int i = path.length() - 1; i >= start && q >= 0; i--) {
+			if (path.charAt(i) != query.charAt(q)) {
+				continue;
+			}
+			if (i >= key.nameStart) {
+				score += 10;
+			}
+			if (i == 0 || isBoundary(key.entry.path.length() == path.length() ? key.entry.path : path, i)) {
+				score += 8;
+			}
+			if (previous == i + 1) {
+				score += 5;
+			}
+			previous = i;
+			q--;
+		}
+		return q < 0 ? score : Integer.MIN_VALUE;
+	}
+
+	private static boolean isSubsequence(String path, int start, String query) {
+		int q = 0;
+		for (int i = start; i < path.length() && q < query.length(); i++) {
+			if (path.charAt(i) == query.charAt(q)) {
+				q++;
+			}
+		}
+		return q == query.length();
+	}
+
+	private static boolean isBoundary(String path, int i) {
+		char before = path.charAt(i - 1);
+		return before == '/' || before == '.' || before == '_' || before == '-' || before == ' '
+				|| (Character.isLowerCase(before) && Character.isUpperCase(path.charAt(i)));
+	}
+
+	/**
+	 * Bits for letters, digits and a bucket for other characters, to discard paths that lack a
+	 * character of the query without scanning them
+	 */
+	static long mask(String lower) {
+		long mask = 0;
+		for (int i = 0; i < lower.length(); i++) {
+			char c = lower.charAt(i);
+			if (c >= 'a' && c <= 'z') {
+				mask |= 1L << (c - 'a');
+			} else if (c >= '0' && c <= '9') {
+				mask |= 1L << (26 + c - '0');
+			} else {
+				mask |= 1L << (36 + c % 27);
+			}
+		}
+		return mask;
+	}
+
+	@Override
+	public String toString() {
+		return size() + " files, " + textTypes.size() + " content types cached" //$NON-NLS-1$ //$NON-NLS-2$
+				+ (isIndexing() ? ", indexing" : ""); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
@@ -0,0 +1,484 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.contexts.platform.index;
+
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.eclipse.agents.MCPException;
+import org.eclipse.agents.Tracer;
+import org.eclipse.agents.contexts.platform.resource.MarkerAdapter;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Marker;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Problems;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.SEVERITY;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Tasks;
+import org.eclipse.agents.contexts.platform.resource.WorkspaceResourceAdapter;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IMarkerDelta;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import io.modelcontextprotocol.spec.McpSchema.ResourceLink;
+
+/**
+ * Problem and task markers of the workspace, loaded once and kept current from the marker deltas
+ * of resource change events.
+ *
+ * Markers are sorted by the full path of their resource and then by id, so the markers of a
+ * resource and everything below it are a contiguous range and a cursor holding the last marker
+ * returned continues after it.  Each marker is converted to json when it is added or changed,
+ * sharing one resource link, without the resource's size, with the other markers of its resource.
+ *
+ * Every change after the load is given a version and kept in a bounded log.  Listings return a
+ * token holding the version they started at, and a listing since a token returns only the markers
+ * changed or removed after it, so checking the effect of an edit costs as much as the edit.
+ */
+public class MarkerIndex implements IResourceChangeListener {
+
+	public static final int DEFAULT_LIMIT = 500;
+	public static final int MAX_CHANGES = 100000;
+
+	private static MarkerIndex instance;
+
+	/**
+	 * @param path full path of the marker's resource
+	 * @param id
+	 */
+	record Key(String path, long id) implements Comparable<Key> {
+		@Override
+		public int compareTo(Key other) {
+			int result = path.compareTo(other.path);
+			return result != 0 ? result : Long.compare(id, other.id);
+		}
+	}
+
+	/**
+	 * @param marker json of the marker
+	 * @param type marker type id
+	 */
+	record Entry(Marker marker, String type) {}
+
+	/**
+	 * @param version
+	 * @param key
+	 * @param previous the marker before the change, null if added
+	 * @param entry the marker after the change, null if removed
+	 */
+	record Change(long version, Key key, Entry previous, Entry entry) {}
+
+	/**
+	 * @param markers one page of markers, those added or changed for a delta
+	 * @param removed ids of the markers removed, null if not a delta
+	 * @param nextCursor version of the listing and key of the last marker, when more follow
+	 * @param token version the listing started at
+	 */
+	record Page(Marker[] markers, long[] removed, String nextCursor, String token) {}
+
+	ConcurrentSkipListMap<Key, Entry> problems = new ConcurrentSkipListMap<Key, Entry>();
+	ConcurrentSkipListMap<Key, Entry> tasks = new ConcurrentSkipListMap<Key, Entry>();
+	Map<String, ResourceLink> links = new ConcurrentHashMap<String, ResourceLink>();
+
+	// changes of each map since the load, oldest first
+	ArrayDeque<Change> problemChanges = new ArrayDeque<Change>();
+	ArrayDeque<Change> taskChanges = new ArrayDeque<Change>();
+	volatile long version = 0;
+	// versions up to this one are no longer in the logs
+	long forgotten = 0;
+	// tells tokens of this index from those of a previous session
+	final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+	volatile boolean loaded = false;
+	volatile boolean disposed = false;
+	boolean started = false;
+	Job job;
+
+	public static synchronized MarkerIndex getDefault() {
+		if (instance == null) {
+			instance = new MarkerIndex();
+		}
+		return instance;
+	}
+
+	public static synchronized void disposeDefault() {
+		if (instance != null) {
+			instance.dispose();
+			instance = null;
+		}
+	}
+
+	MarkerIndex() {
+		job = new Job("Indexing workspace markers") { //$NON-NLS-1$
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				load();
+				return Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+	}
+
+	/**
+	 * Starts tracking marker changes and schedules the initial load, once
+	 */
+	public synchronized void start() {
+		if (started || disposed) {
+			return;
+		}
+		started = true;
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+		job.schedule();
+	}
+
+	public void dispose() {
+		disposed = true;
+		ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+		job.cancel();
+	}
+
+	/**
+	 * Reads all markers of the workspace, if not already loaded.  Deltas are applied under the
+	 * same lock so none are lost or undone by the load.
+	 */
+	synchronized void load() {
+		if (loaded || disposed) {
+			return;
+		}
+		start();
+		scan(ResourcesPlugin.getWorkspace().getRoot());
+		loaded = true;
+	}
+
+	private void scan(IResource resource) {
+		try {
+			for (IMarker marker: resource.findMarkers(IMarker.PROBLEM, true, IResource.DEPTH_INFINITE)) {
+				put(marker, problems);
+			}
+			for (IMarker marker: resource.findMarkers(IMarker.TASK, true, IResource.DEPTH_INFINITE)) {
+				put(marker, tasks);
+			}
+		} catch (CoreException e) {
+			Tracer.trace().trace(Tracer.CONTEXTS, "Marker index scan failed", e); //$NON-NLS-1$
+		}
+	}
+
+	private void put(IMarker marker, ConcurrentSkipListMap<Key, Entry> markers) {
+		try {
+			IResource resource = marker.getResource();
+			String path = resource.getFullPath().toString();
+			ResourceLink link = links.computeIfAbsent(path, key -> toResourceLink(resource));
+			Marker json = new MarkerAdapter(marker, link).toJson();
+			Key key = new Key(path, marker.getId());
+			Entry entry = new Entry(json, marker.getType());
+			log(markers, key, markers.put(key, entry), entry);
+		} catch (CoreException | RuntimeException e) {
+			// deleted since the delta or scan
+		}
+	}
+
+	/**
+	 * Link to a resource without its size, which changes with the file while the link is kept
+	 * as long as the resource has markers
+	 */
+	private static ResourceLink toResourceLink(IResource resource) {
+		ResourceLink link = new WorkspaceResourceAdapter(resource).toResourceLink();
+		return new ResourceLink(link.name(), link.title(), link.uri(), link.description(), link.mimeType(),
+				null, link.annotations(), link.meta());
+	}
+
+	private void remove(String path, long id) {
+		Key key = new Key(path, id);
+		for (ConcurrentSkipListMap<Key, Entry> markers: List.of(problems, tasks)) {
+			Entry entry = markers.remove(key);
+			if (entry != null) {
+				log(markers, key, entry, null);
+				break;
+			}
+		}
+		if (!contains(problems, path) && !contains(tasks, path)) {
+			links.remove(path);
+		}
+	}
+
+	/**
+	 * Forgets the markers of a resource and everything below it
+	 */
+	private void removeAll(String path) {
+		for (ConcurrentSkipListMap<Key, Entry> markers: List.of(problems, tasks)) {
+			Iterator<Map.Entry<Key, Entry>> iterator = markers.tailMap(new Key(path, Long.MIN_VALUE)).entrySet().iterator();
+			while (iterator.hasNext()) {
+				Map.Entry<Key, Entry> next = iterator.next();
+				if (!next.getKey().path.startsWith(path)) {
+					break;
+				} else if (isBelow(next.getKey().path, path)) {
+					iterator.remove();
+					log(markers, next.getKey(), next.getValue(), null);
+				}
+			}
+		}
+		links.keySet().removeIf(key -> isBelow(key, path));
+	}
+
+	/**
+	 * Records a change made after the load, forgetting the oldest when the log is full
+	 */
+	private void log(ConcurrentSkipListMap<Key, Entry> markers, Key key, Entry previous, Entry entry) {
+		if (!loaded) {
+			return;
+		}
+		ArrayDeque<Change> changes = markers == problems ? problemChanges : taskChanges;
+		changes.addLast(new Change(++version, key, previous, entry));
+		if (changes.size() > MAX_CHANGES) {
+			forgotten = Math.max(forgotten, changes.removeFirst().version);
+		}
+	}
+
+	private static boolean contains(ConcurrentSkipListMap<Key, Entry> markers, String path) {
+		Key first = markers.ceilingKey(new Key(path, Long.MIN_VALUE));
+		return first != null && first.path.equals(path);
+	}
+
+	@Override
+	public void resourceChanged(IResourceChangeEvent event) {
+		IResourceDelta delta = event.getDelta();
+		if (delta == null) {
+			return;
+		}
+		synchronized (this) {
+			if (!loaded || disposed) {
+				return;
+			}
+
+			// markers of closed projects are not reported as removed, nor those of opened ones as added
+			for (IResourceDelta child: delta.getAffectedChildren()) {
+				IResource project = child.getResource();
+				if (child.getKind() == IResourceDelta.REMOVED || !((IProject)project).isOpen()) {
+					removeAll(project.getFullPath().toString());
+				} else if ((child.getFlags() & IResourceDelta.OPEN) != 0) {
+					scan(project);
+				}
+			}
+
+			for (IMarkerDelta markerDelta: event.findMarkerDeltas(null, true)) {
+				String path = markerDelta.getResource().getFullPath().toString();
+				if (markerDelta.getKind() == IResourceDelta.REMOVED) {
+					remove(path, markerDelta.getId());
+				} else if (markerDelta.isSubtypeOf(IMarker.PROBLEM)) {
+					put(markerDelta.getMarker(), problems);
+				} else if (markerDelta.isSubtypeOf(IMarker.TASK)) {
+					put(markerDelta.getMarker(), tasks);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param resource resource whose markers and those of its children are returned
+	 * @param severity least severity returned, all if null
+	 * @param type marker type id such as <code>org.eclipse.jdt.core.problem</code>, all if null
+	 * @param limit maximum number of problems, {@link #DEFAULT_LIMIT} if null
+	 * @param cursor <code>nextCursor</code> of the previous page
+	 * @param sinceToken <code>token</code> of a previous listing to return only the problems changed or removed since
+	 */
+	public Problems getProblems(IResource resource, SEVERITY severity, String type, Integer limit, String cursor, String sinceToken) {
+		Page page = query(problems, resource, type, limit, cursor, sinceToken, severity);
+		return new Problems(page.markers, page.nextCursor, page.removed, page.token);
+	}
+
+	/**
+	 * @param resource resource whose markers and those of its children are returned
+	 * @param type marker type id, all if null
+	 * @param limit maximum number of tasks, {@link #DEFAULT_LIMIT} if null
+	 * @param cursor <code>nextCursor</code> of the previous page
+	 * @param sinceToken <code>token</code> of a previous listing to return only the tasks changed or removed since
+	 */
+	public Tasks getTasks(IResource resource, String type, Integer limit, String cursor, String sinceToken) {
+		Page page = query(tasks, resource, type, limit, cursor, sinceToken, null);
+		return new Tasks(page.markers, page.nextCursor, page.removed, page.token);
+	}
+
+	Page query(ConcurrentSkipListMap<Key, Entry> markers, IResource resource, String type,
+			Integer limit, String cursor, String sinceToken, SEVERITY severity) {
+		if (limit != null && limit <= 0) {
+			throw new MCPException("limit must be positive");
+		}
+		load();
+
+		int max = limit == null ? DEFAULT_LIMIT : limit;
+		String prefix = resource.getFullPath().toString();
+
+		// pages of a listing share the version it started at, changes while paging follow in the next delta
+		long until = version;
+		Key start = new Key(prefix, Long.MIN_VALUE);
+		if (cursor != null && !cursor.isBlank()) {
+			int colon = cursor.indexOf(':');
+			until = parse(cursor.substring(0, Math.max(0, colon)), "cursor"); //$NON-NLS-1$
+			start = parseKey(cursor.substring(colon + 1));
+		}
+		String token = epoch + "." + until; //$NON-NLS-1$
+
+		TreeMap<Key, Change> delta = null;
+		if (sinceToken != null && !sinceToken.isBlank()) {
+			delta = delta(markers, sinceToken, until);
+		}
+
+		List<Marker> page = new ArrayList<Marker>();
+		List<Long> removed = new ArrayList<Long>();
+		Key last = null;
+		Iterator<Map.Entry<Key, Entry>> iterator = delta == null
+				? markers.tailMap(start, false).entrySet().iterator()
+				: delta.tailMap(start, false).entrySet().stream()
+						.<Map.Entry<Key, Entry>>map(change -> new AbstractMap.SimpleImmutableEntry<Key, Entry>(
+								change.getKey(), change.getValue().entry)).iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<Key, Entry> entry = iterator.next();
+			Key key = entry.getKey();
+			if (!key.path.startsWith(prefix)) {
+				// past the range of the resource
+				break;
+			}
+			if (!isBelow(key.path, prefix)) {
+				continue;
+			}
+			boolean listed = matches(entry.getValue(), type, severity);
+			// the filter is matched against the marker the client has, one that no longer matches is removed for it
+			boolean unlisted = !listed && delta != null && matches(delta.get(key).previous, type, severity);
+			if (!listed && !unlisted) {
+				continue;
+			}
+			if (page.size() + removed.size() >= max) {
+				return new Page(page.toArray(Marker[]::new), toArray(removed, delta),
+						until + ":" + last.id + ":" + last.path, token); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			if (listed) {
+				page.add(entry.getValue().marker);
+			} else {
+				removed.add(key.id);
+			}
+			last = key;
+		}
+		return new Page(page.toArray(Marker[]::new), toArray(removed, delta), null, token);
+	}
+
+	/**
+	 * @return true if there is a marker and it is of <code>type</code> and at least <code>severity</code>
+	 */
+	private static boolean matches(Entry entry, String type, SEVERITY severity) {
+		return entry != null && (type == null || type.equals(entry.type))
+				&& isAtLeast(entry.marker.severity(), severity);
+	}
+
+	/**
+	 * @return the changes of each marker after <code>sinceToken</code> and up to <code>until</code> as one,
+	 * from the marker before the first to the marker after the last
+	 */
+	private synchronized TreeMap<Key, Change> delta(ConcurrentSkipListMap<Key, Entry> markers, String sinceToken, long until) {
+		int dot = sinceToken.lastIndexOf('.');
+		long since = parse(sinceToken.substring(dot + 1), "sinceToken"); //$NON-NLS-1$
+		if (!sinceToken.substring(0, Math.max(0, dot)).equals(epoch) || since < forgotten || since > version) {
+			throw new MCPException("sinceToken has expired, list again without it for a new token");
+		}
+
+		TreeMap<Key, Change> delta = new TreeMap<Key, Change>();
+		Iterator<Change> changes = (markers == problems ? problemChanges : taskChanges).descendingIterator();
+		while (changes.hasNext()) {
+			Change change = changes.next();
+			if (change.version <= since) {
+				break;
+			} else if (change.version <= until) {
+				// changes are visited newest first
+				Change later = delta.get(change.key);
+				delta.put(change.key, later == null ? change
+						: new Change(later.version, change.key, change.previous, later.entry));
+			}
+		}
+		return delta;
+	}
+
+	private static long[] toArray(List<Long> removed, TreeMap<Key, Change> delta) {
+		return delta == null ? null : removed.stream().mapToLong(Long::longValue).toArray();
+	}
+
+	private static long parse(String value, String name) {
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			throw new MCPException("Invalid " + name + ": " + value);
+		}
+	}
+
+	private static Key parseKey(String cursor) {
+		int colon = cursor.indexOf(':');
+		try {
+			return new Key(cursor.substring(colon + 1), Long.parseLong(cursor.substring(0, colon)));
+		} catch (RuntimeException e) {
+			throw new MCPException("Invalid cursor: " + cursor);
+		}
+	}
+
+	/**
+	 * @return true if <code>path</code> is <code>ancestor</code> or below it
+	 */
+	static boolean isBelow(String path, String ancestor) {
+		return path.startsWith(ancestor) && (path.length() == ancestor.length()
+				|| ancestor.endsWith("/") || path.charAt(ancestor.length()) == '/'); //$NON-NLS-1$
+	}
+
+	/**
+	 * @param severity
+	 * @param least
+	 * @return true if <code>severity</code> is <code>least</code> or more severe, or <code>least</code> is null
+	 */
+	public static boolean isAtLeast(SEVERITY severity, SEVERITY least) {
+		return least == null || rank(severity) >= rank(least);
+	}
+
+	private static int rank(SEVERITY severity) {
+		if (severity == null) {
+			return -1;
+		}
+		switch (severity) {
+		case ERROR:
+			return 2;
+		case WARNING:
+			return 1;
+		default:
+			return 0;
+		}
+	}
+
+	public int size() {
+		return problems.size() + tasks.size();
+	}
+
+	@Override
+	public String toString() {
+		return problems.size() + " problems / " + tasks.size() + " tasks / " + links.size() + " resources"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+}
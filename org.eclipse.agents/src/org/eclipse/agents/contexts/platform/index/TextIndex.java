@@ -0,0 +1,703 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.contexts.platform.index;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.eclipse.agents.MCPException;
+import org.eclipse.agents.Tracer;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.SearchMatch;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.SearchResults;
+import org.eclipse.agents.contexts.platform.resource.WorkspaceResourceAdapter;
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceProxy;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import io.modelcontextprotocol.spec.McpSchema;
+
+/**
+ * Trigram index over the text files of the workspace, answering literal and regular expression
+ * searches without reading every file.
+ *
+ * The index is built by a background job and kept current from resource deltas.  Each file gets a
+ * new id whenever it is indexed, ids of changed or removed files simply stop being live.  Once the
+ * newest segments include {@link #MERGE_FACTOR} of a similar size they are merged, their dead ids
+ * are dropped and the live ones renumbered, so ids and the table of their paths do not grow with
+ * every change.  Files changed since the job last ran are searched directly,
+ * and every candidate is verified against its content, so the index only ever narrows a search.
+ */
+public class TextIndex implements IResourceChangeListener {
+
+	public static final int DEFAULT_LIMIT = 100;
+	public static final int MAX_FILE_SIZE = 1024 * 1024;
+	public static final int MAX_LINE_LENGTH = 500;
+
+	private static final int SEGMENT_FILES = 2000;
+	private static final int MERGE_FACTOR = 4;
+	private static final int BINARY_CHECK = 8192;
+	private static final long DELAY = 500;
+
+	private static TextIndex instance;
+
+	// full path of each indexed file to its live id
+	ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<String, Integer>();
+	// files and projects waiting for the job
+	Set<String> changed = ConcurrentHashMap.newKeySet();
+	Set<String> projects = ConcurrentHashMap.newKeySet();
+
+	volatile String[] paths = new String[1024];
+	volatile List<TrigramSegment> segments = Collections.emptyList();
+	volatile boolean built = false;
+	volatile boolean disposed = false;
+	boolean started = false;
+
+	// ids below searchable are in segments, those up to nextId are only in the builder.  Segments,
+	// their paths and ids change together holding this, searches read them holding this.
+	volatile int nextId = 0;
+	volatile int searchable = 0;
+	int dead = 0;
+	TrigramSegment.Builder builder = new TrigramSegment.Builder();
+	Job job;
+
+	public static synchronized TextIndex getDefault() {
+		if (instance == null) {
+			instance = new TextIndex();
+		}
+		return instance;
+	}
+
+	public static synchronized void disposeDefault() {
+		if (instance != null) {
+			instance.dispose();
+			instance = null;
+		}
+	}
+
+	TextIndex() {
+		job = new Job("Indexing workspace text") { //$NON-NLS-1$
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				try {
+					update(monitor);
+				} catch (RuntimeException e) {
+					Tracer.trace().trace(Tracer.CONTEXTS, "Text index update failed", e); //$NON-NLS-1$
+				}
+				return Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+		job.setPriority(Job.DECORATE);
+	}
+
+	/**
+	 * Starts tracking workspace changes and schedules the initial build, once
+	 */
+	public synchronized void start() {
+		if (started || disposed) {
+			return;
+		}
+		started = true;
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+		job.schedule();
+	}
+
+	public void dispose() {
+		disposed = true;
+		ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+		job.cancel();
+	}
+
+	public boolean isIndexing() {
+		return !built || !changed.isEmpty() || !projects.isEmpty();
+	}
+
+	@Override
+	public void resourceChanged(IResourceChangeEvent event) {
+		IResourceDelta delta = event.getDelta();
+		if (delta == null || disposed) {
+			return;
+		}
+		try {
+			delta.accept(child -> {
+				IResource resource = child.getResource();
+				switch (resource.getType()) {
+				case IResource.PROJECT:
+					if (child.getKind() != IResourceDelta.CHANGED || (child.getFlags() & IResourceDelta.OPEN) != 0) {
+						projects.add(resource.getName());
+						return false;
+					}
+					return true;
+				case IResource.FILE:
+					if (child.getKind() != IResourceDelta.CHANGED || (child.getFlags()
+							& (IResourceDelta.CONTENT | IResourceDelta.REPLACED | IResourceDelta.ENCODING)) != 0) {
+						changed.add(resource.getFullPath().toString());
+					}
+					return false;
+				default:
+					return true;
+				}
+			});
+		} catch (CoreException e) {
+			Tracer.trace().trace(Tracer.CONTEXTS, "Text index delta failed", e); //$NON-NLS-1$
+		}
+		if (!changed.isEmpty() || !projects.isEmpty()) {
+			job.schedule(DELAY);
+		}
+	}
+
+	void update(IProgressMonitor monitor) {
+		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+		if (!built) {
+			for (IProject project: root.getProjects()) {
+				projects.add(project.getName());
+			}
+		}
+
+		for (String name: new ArrayList<String>(projects)) {
+			if (monitor.isCanceled() || disposed) {
+				return;
+			}
+			projects.remove(name);
+			String prefix = "/" + name + "/"; //$NON-NLS-1$ //$NON-NLS-2$
+			for (String path: new ArrayList<String>(ids.keySet())) {
+				if (path.startsWith(prefix) && ids.remove(path) != null) {
+					dead++;
+				}
+			}
+			IProject project = root.getProject(name);
+			if (project.isAccessible()) {
+				try {
+					project.accept((IResourceProxy proxy) -> {
+						if (proxy.getType() == IResource.FILE) {
+							index(root.getFile(proxy.requestFullPath()));
+						}
+						return !monitor.isCanceled();
+					}, IContainer.EXCLUDE_DERIVED);
+				} catch (CoreException e) {
+					Tracer.trace().trace(Tracer.CONTEXTS, "Text index failed for " + name, e); //$NON-NLS-1$
+				}
+			}
+		}
+		built = true;
+
+		for (String path: new ArrayList<String>(changed)) {
+			if (monitor.isCanceled() || disposed) {
+				return;
+			}
+			// removed first, so a change arriving meanwhile is indexed again
+			changed.remove(path);
+			index(root.getFile(IPath.fromPortableString(path)));
+		}
+		flush();
+	}
+
+	/**
+	 * Replaces the entry of a file, or removes it if the file is gone, derived or not text
+	 */
+	void index(IFile file) {
+		String path = file.getFullPath().toString();
+		byte[] bytes = file.isAccessible() && !file.isDerived(IResource.CHECK_ANCESTORS) ? readBytes(file) : null;
+		long[] trigrams = null;
+		if (bytes != null) {
+			try {
+				trigrams = trigrams(decode(bytes, Charset.forName(file.getCharset())));
+			} catch (CoreException | RuntimeException e) {
+				trigrams = null;
+			}
+		}
+
+		if (trigrams == null) {
+			if (ids.remove(path) != null) {
+				dead++;
+			}
+			return;
+		}
+
+		int id = nextId;
+		String[] table = paths;
+		if (id == table.length) {
+			table = Arrays.copyOf(table, table.length * 2);
+		}
+		table[id] = path;
+		paths = table;
+
+		builder.add(id, trigrams);
+		if (ids.put(path, id) != null) {
+			dead++;
+		}
+		nextId = id + 1;
+		if (builder.files >= SEGMENT_FILES) {
+			flush();
+		}
+	}
+
+	/**
+	 * Makes files added to the builder searchable and merges the newest segments while there are
+	 * {@link #MERGE_FACTOR} of a tier.  Every segment is merged once more of their ids are dead
+	 * than live.
+	 */
+	void flush() {
+		List<TrigramSegment> next = new ArrayList<TrigramSegment>(segments);
+		if (!builder.isEmpty()) {
+			next.add(builder.build());
+		}
+		int from = dead > 0 && dead > ids.size() && !next.isEmpty() ? 0 : mergeFrom(next);
+		while (from >= 0) {
+			next = merge(next, from);
+			from = mergeFrom(next);
+		}
+		synchronized (this) {
+			segments = Collections.unmodifiableList(next);
+			searchable = nextId;
+		}
+	}
+
+	/**
+	 * @return the tier of a segment, a segment of tier t spans at least {@link #MERGE_FACTOR}^t
+	 * and less than {@link #MERGE_FACTOR}^(t+1) ids
+	 */
+	private static int tier(TrigramSegment segment) {
+		int tier = 0;
+		for (int size = segment.endId - segment.firstId; size >= MERGE_FACTOR; size /= MERGE_FACTOR) {
+			tier++;
+		}
+		return tier;
+	}
+
+	/**
+	 * @return the index of the first of the newest segments to merge, when there are
+	 * {@link #MERGE_FACTOR} of the newest one's tier with no segment of a higher tier between them,
+	 * otherwise -1.  Segments of lower tiers between or right before them are merged with them.
+	 */
+	private static int mergeFrom(List<TrigramSegment> segments) {
+		if (segments.isEmpty()) {
+			return -1;
+		}
+		int tier = tier(segments.get(segments.size() - 1));
+		int count = 0;
+		for (int i = segments.size() - 1; i >= 0; i--) {
+			int other = tier(segments.get(i));
+			if (other > tier) {
+				break;
+			} else if (other == tier && ++count == MERGE_FACTOR) {
+				while (i > 0 && tier(segments.get(i - 1)) < tier) {
+					i--;
+				}
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Merges the segments of <code>next</code> from <code>from</code> on, the newest ones up to
+	 * <code>nextId</code>, into one.  Their live ids are renumbered from the first one, the table of
+	 * paths is rebuilt from there and <code>nextId</code> follows the last live id.
+	 * @return the segments with the merged one replacing them
+	 */
+	private List<TrigramSegment> merge(List<TrigramSegment> next, int from) {
+		List<TrigramSegment> merged = next.subList(from, next.size());
+		int first = merged.get(0).firstId, end = nextId;
+		String[] table = paths;
+		int[] renumbered = new int[end - first];
+		int id = first;
+		for (int old = first; old < end; old++) {
+			String path = table[old];
+			renumbered[old - first] = path != null && Integer.valueOf(old).equals(ids.get(path)) ? id++ : -1;
+		}
+		TrigramSegment segment = TrigramSegment.merge(merged, renumbered);
+
+		String[] compacted = Arrays.copyOf(table, Math.max(1024, id * 2));
+		Arrays.fill(compacted, first, compacted.length, null);
+		for (int old = first; old < end; old++) {
+			if (renumbered[old - first] >= 0) {
+				compacted[renumbered[old - first]] = table[old];
+			}
+		}
+
+		List<TrigramSegment> result = new ArrayList<TrigramSegment>(next.subList(0, from));
+		result.add(segment);
+		synchronized (this) {
+			for (int old = first; old < end; old++) {
+				if (renumbered[old - first] >= 0) {
+					ids.replace(table[old], old, renumbered[old - first]);
+				}
+			}
+			segments = Collections.unmodifiableList(result);
+			paths = compacted;
+			nextId = id;
+			searchable = id;
+		}
+		dead -= (end - first) - (id - first);
+		return result;
+	}
+
+	/**
+	 * @param query text or regular expression to find
+	 * @param regex whether query is a regular expression
+	 * @param caseSensitive
+	 * @param project name of a project to search, or null for the workspace
+	 * @param limit maximum number of matching lines, {@link #DEFAULT_LIMIT} if null
+	 */
+	public SearchResults search(String query, boolean regex, boolean caseSensitive, String project, Integer limit) {
+		if (query == null || query.isEmpty()) {
+			throw new MCPException("query must not be empty");
+		}
+		if (limit != null && limit <= 0) {
+			throw new MCPException("limit must be positive");
+		}
+		int max = limit == null ? DEFAULT_LIMIT : limit;
+
+		Pattern pattern;
+		try {
+			int flags = caseSensitive ? 0 : Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+			pattern = Pattern.compile(query, regex ? flags : flags | Pattern.LITERAL);
+		} catch (PatternSyntaxException e) {
+			throw new MCPException("Invalid regular expression: " + e.getDescription());
+		}
+
+		String prefix = project == null || project.isBlank() ? "/" : "/" + project + "/"; //$NON-NLS-1$ //$NON-NLS-2$
+		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+
+		List<SearchMatch> matches = new ArrayList<SearchMatch>();
+		boolean truncated = false;
+		for (String path: candidates(regex ? literals(query) : new String[] { query }, prefix)) {
+			IFile file = root.getFile(IPath.fromPortableString(path));
+			truncated = verify(file, pattern, max, matches);
+			if (truncated) {
+				break;
+			}
+		}
+		return new SearchResults(matches.toArray(SearchMatch[]::new), truncated, isIndexing());
+	}
+
+	/**
+	 * Paths of files that may contain all <code>literals</code>, in path order
+	 */
+	synchronized Set<String> candidates(String[] literals, String prefix) {
+		List<Long> keys = new ArrayList<Long>();
+		for (String literal: literals) {
+			for (long trigram: trigrams(literal)) {
+				keys.add(trigram);
+			}
+		}
+		long[] required = keys.stream().mapToLong(Long::longValue).distinct().toArray();
+
+		Set<String> result = new TreeSet<String>();
+		if (required.length == 0) {
+			// nothing to narrow by, every indexed file is a candidate
+			for (String path: ids.keySet()) {
+				if (path.startsWith(prefix)) {
+					result.add(path);
+				}
+			}
+		} else {
+			int first = searchable, last = nextId;
+			String[] table = paths;
+			for (TrigramSegment segment: segments) {
+				for (int id: segment.intersect(required)) {
+					addLive(id, table, prefix, result);
+				}
+			}
+			// indexed, but not yet written to a segment
+			for (int id = first; id < last; id++) {
+				addLive(id, table, prefix, result);
+			}
+		}
+		for (String path: changed) {
+			if (path.startsWith(prefix)) {
+				result.add(path);
+			}
+		}
+		return result;
+	}
+
+	private void addLive(int id, String[] table, String prefix, Set<String> result) {
+		String path = id < table.length ? table[id] : null;
+		if (path != null && path.startsWith(prefix) && Integer.valueOf(id).equals(ids.get(path))) {
+			result.add(path);
+		}
+	}
+
+	/**
+	 * Adds the matching lines of a file
+	 * @return true if <code>max</code> matches were found
+	 */
+	boolean verify(IFile file, Pattern pattern, int max, List<SearchMatch> matches) {
+		if (!file.isAccessible()) {
+			return false;
+		}
+		McpSchema.ResourceLink link = null;
+		try (InputStream input = file.getContents(true);
+				BufferedReader reader = new BufferedReader(new InputStreamReader(input,
+						Charset.forName(file.getCharset()).newDecoder()
+							.onMalformedInput(CodingErrorAction.REPLACE)
+							.onUnmappableCharacter(CodingErrorAction.REPLACE)))) {
+			Matcher matcher = pattern.matcher(""); //$NON-NLS-1$
+			String line;
+			int number = 0;
+			while ((line = reader.readLine()) != null) {
+				if (matcher.reset(line).find()) {
+					if (matches.size() >= max) {
+						return true;
+					}
+					if (link == null) {
+						link = new WorkspaceResourceAdapter(file).toResourceLink();
+					}
+					String text = line.length() > MAX_LINE_LENGTH ? line.substring(0, MAX_LINE_LENGTH) : line;
+					matches.add(new SearchMatch(link, number, text));
+				}
+				number++;
+			}
+		} catch (CoreException | IOException | RuntimeException e) {
+			// removed or unreadable since it was indexed
+		}
+		return false;
+	}
+
+	static byte[] readBytes(IFile file) {
+		try (InputStream input = file.getContents(true)) {
+			byte[] bytes = input.readNBytes(MAX_FILE_SIZE + 1);
+			if (bytes.length > MAX_FILE_SIZE) {
+				return null;
+			}
+			for (int i = 0; i < Math.min(bytes.length, BINARY_CHECK); i++) {
+				if (bytes[i] == 0) {
+					return null;
+				}
+			}
+			return bytes;
+		} catch (CoreException | IOException e) {
+			return null;
+		}
+	}
+
+	static String decode(byte[] bytes, Charset charset) {
+		try {
+			return charset.newDecoder()
+					.onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE)
+					.decode(ByteBuffer.wrap(bytes)).toString();
+		} catch (IOException e) {
+			return new String(bytes, charset);
+		}
+	}
+
+	/**
+	 * @return the distinct, sorted, case folded trigrams of <code>text</code>
+	 */
+	static long[] trigrams(String text) {
+		if (text.length() < 3) {
+			return new long[0];
+		}
+		long[] keys = new long[text.length() - 2];
+		char c1 = Character.toLowerCase(text.charAt(0));
+		char c2 = Character.toLowerCase(text.charAt(1));
+		for (int i = 2; i < text.length(); i++) {
+			char c3 = Character.toLowerCase(text.charAt(i));
+			keys[i - 2] = ((long) c1 << 32) | ((long) c2 << 16) | c3;
+			c1 = c2;
+			c2 = c3;
+		}
+		Arrays.sort(keys);
+		int n = 0;
+		for (int i = 0; i < keys.length; i++) {
+			if (i == 0 || keys[i] != keys[i - 1]) {
+				keys[n++] = keys[i];
+			}
+		}
+		return Arrays.copyOf(keys, n);
+	}
+
+	/**
+	 * Literal runs every match of a regular expression must contain.  Runs inside groups may be
+	 * optional or alternatives and are not used, an alternative outside of groups leaves none.
+	 */
+	static String[] literals(String regex) {
+		List<String> runs = new ArrayList<String>();
+		StringBuilder run = new StringBuilder();
+		int depth = 0;
+		for (int i = 0; i < regex.length(); i++) {
+			char c = regex.charAt(i);
+			switch (c) {
+			case '|':
+				if (depth == 0) {
+					return new String[0];
+				}
+				break;
+			case '\\':
+				if (i + 1 < regex.length()) {
+					char next = regex.charAt(++i);
+					if (next == 'Q') {
+						int end = regex.indexOf("\\E", i); //$NON-NLS-1$
+						run.append(regex, i + 1, end < 0 ? regex.length() : end);
+						i = end < 0 ? regex.length() : end + 1;
+					} else if (Character.isLetterOrDigit(next)) {
+						// character classes, boundaries, back references and escaped characters
+						end(run, runs, depth);
+						i = escapeEnd(regex, i);
+						if (i < 0) {
+							return new String[0];
+						}
+					} else {
+						run.append(next);
+					}
+				}
+				break;
+			case '*':
+			case '?':
+			case '{':
+				// the preceding character is optional or repeated
+				if (run.length() > 0) {
+					run.setLength(run.length() - 1);
+				}
+				end(run, runs, depth);
+				if (c == '{') {
+					int end = regex.indexOf('}', i);
+					i = end < 0 ? i : end;
+				}
+				break;
+			case '[':
+				end(run, runs, depth);
+				// skip the class, a leading ] or ^] belongs to it
+				int j = i + 1;
+				if (j < regex.length() && regex.charAt(j) == '^') {
+					j++;
+				}
+				if (j < regex.length() && regex.charAt(j) == ']') {
+					j++;
+				}
+				while (j < regex.length() && regex.charAt(j) != ']') {
+					if (regex.charAt(j) == '\\') {
+						j++;
+					}
+					j++;
+				}
+				i = j;
+				break;
+			case '(':
+				end(run, runs, depth);
+				depth++;
+				break;
+			case ')':
+				end(run, runs, depth);
+				depth--;
+				break;
+			case '+':
+			case '.':
+			case '^':
+			case '$':
+				end(run, runs, depth);
+				break;
+			default:
+				run.append(c);
+			}
+		}
+		end(run, runs, depth);
+		return runs.toArray(String[]::new);
+	}
+
+	/**
+	 * @param regex a valid regular expression
+	 * @param i index of the letter or digit following a backslash
+	 * @return the index of the last character of the escape with its arguments, -1 for an escape
+	 * that is not known
+	 */
+	private static int escapeEnd(String regex, int i) {
+		char c = regex.charAt(i);
+		boolean braces = i + 1 < regex.length() && regex.charAt(i + 1) == '{';
+		switch (c) {
+		case 'x':
+			// \xhh or \x{h...h}
+			return braces ? regex.indexOf('}', i) : i + 2;
+		case 'u':
+			return i + 4;
+		case '0':
+			// \0n, \0nn or \0mnn with m up to 3
+			int max = i + 1 < regex.length() && regex.charAt(i + 1) <= '3' ? 3 : 2;
+			int end = i;
+			while (end - i < max && end + 1 < regex.length() && regex.charAt(end + 1) >= '0' && regex.charAt(end + 1) <= '7') {
+				end++;
+			}
+			return end;
+		case 'c':
+			return i + 1;
+		case 'k':
+			return regex.indexOf('>', i);
+		case 'p':
+		case 'P':
+			// \pL or \p{Name}
+			return braces ? regex.indexOf('}', i) : i + 1;
+		case 'N':
+			return regex.indexOf('}', i);
+		case 'b':
+			// \b or \b{g}
+			return braces ? regex.indexOf('}', i) : i;
+		}
+		if (c >= '1' && c <= '9') {
+			// the group number of a back reference may have more digits
+			while (i + 1 < regex.length() && Character.isDigit(regex.charAt(i + 1))) {
+				i++;
+			}
+			return i;
+		}
+		return "tnrfaedDsSwWBAGZzhHvVRX".indexOf(c) >= 0 ? i : -1; //$NON-NLS-1$
+	}
+
+	private static void end(StringBuilder run, List<String> runs, int depth) {
+		if (depth == 0 && run.length() >= 3) {
+			runs.add(run.toString());
+		}
+		run.setLength(0);
+	}
+
+	@Override
+	public String toString() {
+		int postings = 0;
+		for (TrigramSegment segment: segments) {
+			postings += segment.size();
+		}
+		return ids.size() + " files, " + segments.size() + " segments, " + postings + " postings" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				+ (isIndexing() ? ", indexing" : ""); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
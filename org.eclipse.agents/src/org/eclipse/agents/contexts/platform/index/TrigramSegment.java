@@ -0,0 +1,239 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.contexts.platform.index;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable trigram postings for a batch of files.  Trigram keys are kept sorted on the heap,
+ * the sorted file ids of each key are stored in a direct buffer outside the heap.
+ *
+ * File ids are assigned in increasing order and a later segment only holds ids larger than those
+ * of earlier segments, so postings of several segments concatenate in order.  A segment holds ids
+ * from <code>firstId</code> up to <code>endId</code>, excluded.
+ */
+class TrigramSegment {
+
+	final int firstId;
+	final int endId;
+	final long[] keys;
+	final int[] starts;
+	final IntBuffer postings;
+
+	private TrigramSegment(int firstId, int endId, long[] keys, int[] starts, IntBuffer postings) {
+		this.firstId = firstId;
+		this.endId = endId;
+		this.keys = keys;
+		this.starts = starts;
+		this.postings = postings;
+	}
+
+	int size() {
+		return postings.capacity();
+	}
+
+	/**
+	 * @return sorted ids of the files containing <code>key</code>
+	 */
+	int[] get(long key) {
+		int index = Arrays.binarySearch(keys, key);
+		if (index < 0) {
+			return new int[0];
+		}
+		int[] ids = new int[starts[index + 1] - starts[index]];
+		postings.get(starts[index], ids);
+		return ids;
+	}
+
+	/**
+	 * @param trigrams
+	 * @return sorted ids of the files containing all <code>trigrams</code>
+	 */
+	int[] intersect(long[] trigrams) {
+		int[] result = null;
+		for (long trigram: trigrams) {
+			int[] ids = get(trigram);
+			result = result == null ? ids : intersect(result, ids);
+			if (result.length == 0) {
+				break;
+			}
+		}
+		return result == null ? new int[0] : result;
+	}
+
+	static int[] intersect(int[] a, int[] b) {
+		int[] result = new int[Math.min(a.length, b.length)];
+		int i = 0, j = 0, n = 0;
+		while (i < a.length && j < b.length) {
+			if (a[i] < b[j]) {
+				i++;
+			} else if (a[i] > b[j]) {
+				j++;
+			} else {
+				result[n++] = a[i];
+				i++;
+				j++;
+			}
+		}
+		return Arrays.copyOf(result, n);
+	}
+
+	private static IntBuffer allocate(int size) {
+		return ByteBuffer.allocateDirect(Math.max(1, size) * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+	}
+
+	/**
+	 * Accumulates the trigrams of files before they are written to a segment
+	 */
+	static class Builder {
+
+		Map<Long, int[]> postings = new HashMap<Long, int[]>();
+		int files = 0;
+		int firstId = -1;
+		int endId = -1;
+
+		/**
+		 * @param id larger than any id added before
+		 * @param trigrams distinct trigrams of the file
+		 */
+		void add(int id, long[] trigrams) {
+			for (long trigram: trigrams) {
+				// first element holds the number of ids
+				int[] ids = postings.get(trigram);
+				if (ids == null) {
+					ids = new int[4];
+					postings.put(trigram, ids);
+				} else if (ids[0] + 1 == ids.length) {
+					ids = Arrays.copyOf(ids, ids.length * 2);
+					postings.put(trigram, ids);
+				}
+				ids[++ids[0]] = id;
+			}
+			if (firstId < 0) {
+				firstId = id;
+			}
+			endId = id + 1;
+			files++;
+		}
+
+		boolean isEmpty() {
+			return files == 0;
+		}
+
+		TrigramSegment build() {
+			long[] keys = new long[postings.size()];
+			int i = 0, total = 0;
+			for (Map.Entry<Long, int[]> entry: postings.entrySet()) {
+				keys[i++] = entry.getKey();
+				total += entry.getValue()[0];
+			}
+			Arrays.sort(keys);
+
+			int[] starts = new int[keys.length + 1];
+			IntBuffer buffer = allocate(total);
+			int position = 0;
+			for (i = 0; i < keys.length; i++) {
+				int[] ids = postings.get(keys[i]);
+				starts[i] = position;
+				buffer.put(position, ids, 1, ids[0]);
+				position += ids[0];
+			}
+			starts[keys.length] = position;
+
+			TrigramSegment segment = new TrigramSegment(firstId, endId, keys, starts, buffer);
+			postings = new HashMap<Long, int[]>();
+			files = 0;
+			firstId = -1;
+			endId = -1;
+			return segment;
+		}
+	}
+
+	/**
+	 * Merges consecutive segments in their order, renumbering their ids
+	 * @param segments to merge
+	 * @param renumbered the new id of each id from the first segment's <code>firstId</code> on,
+	 * increasing from that first id, or -1 for ids that are no longer live and are left out
+	 */
+	static TrigramSegment merge(List<TrigramSegment> segments, int[] renumbered) {
+		int firstId = segments.get(0).firstId, endId = firstId;
+		for (int id: renumbered) {
+			if (id >= 0) {
+				endId++;
+			}
+		}
+
+		int count = 0;
+		for (TrigramSegment segment: segments) {
+			count += segment.keys.length;
+		}
+		long[] all = new long[count];
+		count = 0;
+		for (TrigramSegment segment: segments) {
+			System.arraycopy(segment.keys, 0, all, count, segment.keys.length);
+			count += segment.keys.length;
+		}
+		Arrays.sort(all);
+
+		// distinct keys, then the surviving postings of each
+		int distinct = 0;
+		for (int i = 0; i < all.length; i++) {
+			if (i == 0 || all[i] != all[i - 1]) {
+				all[distinct++] = all[i];
+			}
+		}
+
+		int[][] merged = new int[distinct][];
+		int total = 0, kept = 0;
+		long[] keys = new long[distinct];
+		for (int i = 0; i < distinct; i++) {
+			int[] ids = new int[0];
+			for (TrigramSegment segment: segments) {
+				int[] more = segment.get(all[i]);
+				if (more.length > 0) {
+					int n = ids.length;
+					ids = Arrays.copyOf(ids, n + more.length);
+					for (int id: more) {
+						if (renumbered[id - firstId] >= 0) {
+							ids[n++] = renumbered[id - firstId];
+						}
+					}
+					ids = Arrays.copyOf(ids, n);
+				}
+			}
+			if (ids.length > 0) {
+				keys[kept] = all[i];
+				merged[kept++] = ids;
+				total += ids.length;
+			}
+		}
+
+		int[] starts = new int[kept + 1];
+		IntBuffer buffer = allocate(total);
+		int position = 0;
+		for (int i = 0; i < kept; i++) {
+			starts[i] = position;
+			buffer.put(position, merged[i]);
+			position += merged[i].length;
+		}
+		starts[kept] = position;
+		return new TrigramSegment(firstId, endId, Arrays.copyOf(keys, kept), starts, buffer);
+	}
+}
@@ -0,0 +1,274 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.contexts.platform.resource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.eclipse.agents.MCPException;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Children;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.DEPTH;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.File;
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceProxy;
+import org.eclipse.core.resources.IResourceProxyVisitor;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.URIUtil;
+
+import io.modelcontextprotocol.spec.McpSchema;
+
+/**
+ * Lists the members of a container one page at a time with an {@link IResourceProxyVisitor},
+ * so only the members returned are turned into paths and uris.  Derived, team private and
+ * hidden members are skipped.
+ *
+ * Members are visited in the workspace tree's order, parents before their children and siblings
+ * by name, which lets a cursor holding the path of the last member returned skip the subtrees
+ * already listed.
+ */
+public class ChildrenQuery {
+
+	public static final int DEFAULT_LIMIT = 1000;
+
+	private static final int MEMBER_FLAGS = IContainer.EXCLUDE_DERIVED;
+
+	int limit = Integer.MAX_VALUE;
+	String cursor;
+	Glob include, exclude;
+	boolean sizes;
+
+	/**
+	 * @param pattern
+	 * @param isPath true to match relative paths, otherwise names
+	 */
+	record Glob(Pattern pattern, boolean isPath) {
+		boolean matches(String name, String relativePath) {
+			return pattern.matcher(isPath ? relativePath : name).matches();
+		}
+	}
+
+	/**
+	 * Lists all members, without sizes
+	 */
+	public ChildrenQuery() {}
+
+	/**
+	 * @param limit maximum number of members to return, {@link #DEFAULT_LIMIT} if null
+	 * @param cursor <code>nextCursor</code> of the previous page
+	 * @param include glob of members to return, matched against the name or, if it contains a <code>/</code>, the relative path
+	 * @param exclude glob of members to skip along with their children
+	 * @param sizes whether to read the size of each file from the file system
+	 */
+	public ChildrenQuery(Integer limit, String cursor, String include, String exclude, Boolean sizes) {
+		if (limit != null && limit <= 0) {
+			throw new MCPException("limit must be positive");
+		}
+		this.limit = limit == null ? DEFAULT_LIMIT : limit;
+		this.cursor = cursor == null || cursor.isBlank() ? null : cursor;
+		this.include = compile(include);
+		this.exclude = compile(exclude);
+		this.sizes = Boolean.TRUE.equals(sizes);
+	}
+
+	public Children<File> list(IContainer container, DEPTH depth) {
+		if (depth == null) {
+			depth = DEPTH.CHILDREN;
+		}
+
+		IPath base = container.getFullPath();
+		int maxLevel = depth == DEPTH.CHILDREN ? 1 : depth == DEPTH.GRANDCHILDREN ? 2 : Integer.MAX_VALUE;
+		IPath after = cursor == null ? null : IPath.fromPortableString(cursor);
+
+		List<File> children = new ArrayList<File>();
+		String[] last = new String[] { null }, next = new String[] { null };
+
+		// location of the listed container, projects and linked resources below it
+		Map<IPath, URI> locations = new HashMap<IPath, URI>();
+		locations.put(base, container.getLocationURI());
+
+		try {
+			container.accept(new IResourceProxyVisitor() {
+				@Override
+				public boolean visit(IResourceProxy proxy) throws CoreException {
+					if (next[0] != null) {
+						return false;
+					}
+
+					IPath path = proxy.requestFullPath();
+					int level = path.segmentCount() - base.segmentCount();
+					if (level == 0) {
+						return true;
+					}
+
+					String relativePath = path.removeFirstSegments(base.segmentCount()).toString();
+					if (exclude != null && exclude.matches(proxy.getName(), relativePath)) {
+						return false;
+					}
+
+					int order = after == null ? 1 : compare(path, after);
+					if (order < 0) {
+						// listed on a previous page, with all its children
+						return false;
+					}
+
+					if (proxy.isLinked() || path.segmentCount() == 1) {
+						// members below projects and linked resources are located relative to them
+						locations.put(path, proxy.requestResource().getLocationURI());
+					}
+
+					if (order > 0 && (include == null || include.matches(proxy.getName(), relativePath))) {
+						if (children.size() >= limit) {
+							// a page is full and more follow
+							next[0] = last[0];
+							return false;
+						}
+						children.add(toFile(proxy, path, locate(path, locations)));
+						last[0] = path.toPortableString();
+					}
+					return level < maxLevel;
+				}
+			}, depth == DEPTH.CHILDREN ? IResource.DEPTH_ONE : IResource.DEPTH_INFINITE, MEMBER_FLAGS);
+		} catch (CoreException e) {
+			throw new MCPException(e);
+		}
+
+		return new Children<File>(children.toArray(File[]::new), depth, next[0]);
+	}
+
+	File toFile(IResourceProxy proxy, IPath path, URI location) {
+		boolean isFolder = proxy.getType() != IResource.FILE;
+		String uri = location != null ? location.toString()
+				: WorkspaceResourceAdapter.relativePrefix + path.makeRelative().toPortableString();
+
+		McpSchema.ResourceLink.Builder builder = McpSchema.ResourceLink.builder()
+				.uri(uri)
+				.name(proxy.getName());
+
+		switch (proxy.getType()) {
+		case IResource.FILE:
+			builder.description("Eclipse workspace file");
+			builder.mimeType("text/plain");
+			if (sizes && location != null && "file".equals(location.getScheme())) { //$NON-NLS-1$
+				try {
+					builder.size(Files.size(Path.of(location)));
+				} catch (IOException | RuntimeException e) {
+					// size is optional
+				}
+			}
+			break;
+		case IResource.PROJECT:
+			builder.description("Eclipse workspace project");
+			break;
+		case IResource.FOLDER:
+			builder.description("Eclipse workspace folder");
+			break;
+		}
+
+		return new File(proxy.getName(), isFolder, builder.build());
+	}
+
+	/**
+	 * Location of a member from its closest project, linked or listed ancestor, without creating
+	 * a resource handle for ordinary members
+	 */
+	static URI locate(IPath path, Map<IPath, URI> locations) {
+		for (IPath ancestor = path; ; ancestor = ancestor.removeLastSegments(1)) {
+			if (locations.containsKey(ancestor)) {
+				URI location = locations.get(ancestor);
+				// virtual folders have no location
+				return location == null ? null
+						: URIUtil.append(location, path.removeFirstSegments(ancestor.segmentCount()).toString());
+			}
+			if (ancestor.segmentCount() == 0) {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Orders paths as the workspace tree visits them
+	 * @return negative if <code>path</code> is visited before <code>after</code>, 0 if an ancestor or equal, positive if after
+	 */
+	static int compare(IPath path, IPath after) {
+		int count = Math.min(path.segmentCount(), after.segmentCount());
+		for (int i = 0; i < count; i++) {
+			int order = path.segment(i).compareTo(after.segment(i));
+			if (order != 0) {
+				return order;
+			}
+		}
+		// ancestors and the cursor itself were returned, descendants of the cursor come after it
+		return path.segmentCount() > after.segmentCount() ? 1 : 0;
+	}
+
+	/**
+	 * Converts a glob with <code>*</code>, <code>**</code>, <code>?</code> and <code>{a,b}</code> to a regular expression
+	 */
+	static Glob compile(String glob) {
+		if (glob == null || glob.isBlank()) {
+			return null;
+		}
+
+		StringBuffer regex = new StringBuffer();
+		boolean inGroup = false;
+		for (int i = 0; i < glob.length(); i++) {
+			char c = glob.charAt(i);
+			switch (c) {
+			case '*':
+				if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+					i++;
+					if (i + 1 < glob.length() && glob.charAt(i + 1) == '/') {
+						// **/ also matches no folder at all
+						i++;
+						regex.append("(?:.*/)?"); //$NON-NLS-1$
+					} else {
+						regex.append(".*"); //$NON-NLS-1$
+					}
+				} else {
+					regex.append("[^/]*"); //$NON-NLS-1$
+				}
+				break;
+			case '?':
+				regex.append("[^/]"); //$NON-NLS-1$
+				break;
+			case '{':
+				inGroup = true;
+				regex.append("(?:"); //$NON-NLS-1$
+				break;
+			case '}':
+				inGroup = false;
+				regex.append(')');
+				break;
+			case ',':
+				regex.append(inGroup ? "|" : ","); //$NON-NLS-1$ //$NON-NLS-2$
+				break;
+			default:
+				if ("\\.[]()^$+|".indexOf(c) >= 0) { //$NON-NLS-1$
+					regex.append('\\');
+				}
+				regex.append(c);
+			}
+		}
+		return new Glob(Pattern.compile(regex.toString()), glob.indexOf('/') >= 0);
+	}
+}
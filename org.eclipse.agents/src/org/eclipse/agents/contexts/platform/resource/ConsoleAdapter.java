@@ -22,8 +22,13 @@ import java.util.Map;
 
 import org.eclipse.agents.MCPException;
 import org.eclipse.agents.contexts.adapters.IResourceTemplate;
+import org.eclipse.agents.contexts.adapters.UriTemplate;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Console;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Content;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Consoles;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
 import org.eclipse.ui.console.ConsolePlugin;
 import org.eclipse.ui.console.IConsole;
 import org.eclipse.ui.console.IConsoleManager;
@@ -31,15 +36,15 @@ import org.eclipse.ui.console.TextConsole;
 
 import io.modelcontextprotocol.spec.McpSchema;
 import io.modelcontextprotocol.spec.McpSchema.ResourceLink;
-import io.modelcontextprotocol.util.DefaultMcpUriTemplateManager;
 
 /**
  * support for resource template: eclipse://console/{name}
  */
 public class ConsoleAdapter implements IResourceTemplate<IConsole, Console> {
 
-	final String template = "eclipse://console/{name}";
-	final String prefix = template.substring(0, template.indexOf("{"));
+	static final String template = "eclipse://console/{name}";
+	static final String prefix = template.substring(0, template.indexOf("{"));
+	static final UriTemplate compiled = new UriTemplate(template);
 	IConsole console = null;
 	
 	public ConsoleAdapter() {}
@@ -49,9 +54,15 @@ public class ConsoleAdapter implements IResourceTemplate<IConsole, Console> {
 	}
 	
 	public ConsoleAdapter(String uri) {
-		DefaultMcpUriTemplateManager tm = new DefaultMcpUriTemplateManager(template);
-		if (tm.matches(uri)) {
-			Map<String, String> variables = tm.extractVariableValues(uri);
+		this(uri, compiled.match(uri));
+	}
+
+	/**
+	 * @param uri
+	 * @param variables values matched by {@link #template}, or null if not matched
+	 */
+	public ConsoleAdapter(String uri, Map<String, String> variables) {
+		if (variables != null && variables.get("name") != null) {
 			String name = variables.get("name");
 			name = URLDecoder.decode(name, StandardCharsets.UTF_8);
 
@@ -78,6 +89,11 @@ public class ConsoleAdapter implements IResourceTemplate<IConsole, Console> {
 		return new ConsoleAdapter(uri);
 	}
 
+	@Override
+	public ConsoleAdapter fromUri(String uri, Map<String, String> variables) {
+		return new ConsoleAdapter(uri, variables);
+	}
+
 	@Override
 	public ConsoleAdapter fromModel(IConsole console) {
 		return new ConsoleAdapter(console);
@@ -115,6 +131,33 @@ public class ConsoleAdapter implements IResourceTemplate<IConsole, Console> {
 		}
 		return "...";
 	}
+
+	@Override
+	public Content toContent(ContentReader reader) {
+		if (console instanceof TextConsole) {
+			return reader.read(toUri(), ((TextConsole)console).getDocument());
+		}
+		return reader.read(toUri(), toContent());
+	}
+
+	@Override
+	public Runnable watch(Runnable changed) {
+		if (console instanceof TextConsole) {
+			IDocument document = ((TextConsole)console).getDocument();
+			IDocumentListener listener = new IDocumentListener() {
+				@Override
+				public void documentAboutToBeChanged(DocumentEvent event) {}
+
+				@Override
+				public void documentChanged(DocumentEvent event) {
+					changed.run();
+				}
+			};
+			document.addDocumentListener(listener);
+			return () -> document.removeDocumentListener(listener);
+		}
+		return null;
+	}
 	
 	public static Consoles getConsoles() {
 		List<Console> consoles = new ArrayList<Console>();
@@ -0,0 +1,324 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.contexts.platform.resource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.eclipse.agents.Tracer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+
+/**
+ * Least recently used cache of the text of files and documents, bounded by the bytes it holds.
+ *
+ * Entries are keyed by path and hold the modification stamp of the file or document they were
+ * read from, a read with a different stamp is a miss and replaces the entry.  Entries of files
+ * that change or are removed are dropped as resource deltas arrive.
+ *
+ * Text is held as UTF-8 in direct buffers outside the heap, deflated when that makes it smaller.
+ */
+public class ContentCache implements IResourceChangeListener {
+
+	public static final long DEFAULT_CAPACITY = 32 * 1024 * 1024;
+	public static final int MAX_ENTRY_SIZE = 1024 * 1024;
+
+	private static final int COMPRESS_SIZE = 4096;
+
+	private static ContentCache instance;
+
+	/**
+	 * @param stamp modification stamp of the source
+	 * @param data UTF-8 text, deflated if <code>size</code> differs from its capacity
+	 * @param size length of the UTF-8 text
+	 */
+	record Entry(long stamp, ByteBuffer data, int size) {}
+
+	long capacity;
+	boolean compress;
+	long bytes = 0;
+
+	Map<String, Entry> entries = new LinkedHashMap<String, Entry>(64, 0.75f, true);
+
+	AtomicLong hits = new AtomicLong();
+	AtomicLong misses = new AtomicLong();
+	AtomicLong evictions = new AtomicLong();
+	AtomicLong invalidations = new AtomicLong();
+
+	public static synchronized ContentCache getDefault() {
+		if (instance == null) {
+			instance = new ContentCache(DEFAULT_CAPACITY, true);
+			ResourcesPlugin.getWorkspace().addResourceChangeListener(instance, IResourceChangeEvent.POST_CHANGE);
+		}
+		return instance;
+	}
+
+	public static synchronized void disposeDefault() {
+		if (instance != null) {
+			ResourcesPlugin.getWorkspace().removeResourceChangeListener(instance);
+			instance.clear();
+			instance = null;
+		}
+	}
+
+	/**
+	 * @param capacity maximum number of bytes held
+	 * @param compress whether to deflate larger entries
+	 */
+	public ContentCache(long capacity, boolean compress) {
+		this.capacity = capacity;
+		this.compress = compress;
+	}
+
+	/**
+	 * Text of a file in its charset, read from the file system if not cached
+	 * @return the text, or null if the file is larger than {@link #MAX_ENTRY_SIZE} and should be streamed
+	 */
+	public String getText(IFile file) throws CoreException, IOException {
+		String key = file.getFullPath().toString();
+		long stamp = file.getModificationStamp();
+
+		String text = get(key, stamp);
+		if (text == null) {
+			byte[] content;
+			try (InputStream input = file.getContents()) {
+				content = input.readNBytes(MAX_ENTRY_SIZE + 1);
+			}
+			if (content.length > MAX_ENTRY_SIZE) {
+				return null;
+			}
+			text = decode(content, Charset.forName(file.getCharset()));
+			if (stamp != IResource.NULL_STAMP) {
+				put(key, stamp, text);
+			}
+		}
+		return text;
+	}
+
+	/**
+	 * Text of a file with its lines joined by <code>\n</code>, streamed when too large to cache
+	 */
+	public String getLines(IFile file) throws CoreException, IOException {
+		String text = getText(file);
+		if (text != null) {
+			return text.lines().collect(Collectors.joining("\n")); //$NON-NLS-1$
+		}
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.getContents(), file.getCharset()))) {
+			return reader.lines().collect(Collectors.joining("\n")); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Text of a document, cached by its modification stamp when it has one
+	 * @param key path or uri identifying the document
+	 */
+	public String getText(String key, IDocument document) {
+		long stamp = document instanceof IDocumentExtension4
+				? ((IDocumentExtension4)document).getModificationStamp()
+				: IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+		if (stamp == IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP) {
+			return document.get();
+		}
+
+		key = "document:" + key; //$NON-NLS-1$
+		String text = get(key, stamp);
+		if (text == null) {
+			text = document.get();
+			if (text.length() <= MAX_ENTRY_SIZE) {
+				put(key, stamp, text);
+			}
+		}
+		return text;
+	}
+
+	String get(String key, long stamp) {
+		Entry entry;
+		synchronized (this) {
+			entry = entries.get(key);
+		}
+		if (entry == null || entry.stamp != stamp) {
+			misses.incrementAndGet();
+			return null;
+		}
+		hits.incrementAndGet();
+		return unpack(entry);
+	}
+
+	void put(String key, long stamp, String text) {
+		Entry entry = pack(stamp, text);
+		if (entry.data.capacity() > capacity) {
+			return;
+		}
+		synchronized (this) {
+			Entry previous = entries.put(key, entry);
+			if (previous != null) {
+				bytes -= previous.data.capacity();
+			}
+			bytes += entry.data.capacity();
+
+			Iterator<Entry> eldest = entries.values().iterator();
+			while (bytes > capacity && eldest.hasNext()) {
+				bytes -= eldest.next().data.capacity();
+				eldest.remove();
+				evictions.incrementAndGet();
+			}
+		}
+	}
+
+	public synchronized void invalidate(String path) {
+		Entry entry = entries.remove(path);
+		Entry document = entries.remove("document:" + path); //$NON-NLS-1$
+		for (Entry removed: new Entry[] { entry, document }) {
+			if (removed != null) {
+				bytes -= removed.data.capacity();
+				invalidations.incrementAndGet();
+			}
+		}
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		bytes = 0;
+	}
+
+	@Override
+	public void resourceChanged(IResourceChangeEvent event) {
+		IResourceDelta delta = event.getDelta();
+		if (delta == null) {
+			return;
+		}
+		try {
+			delta.accept(child -> {
+				if (child.getResource().getType() != IResource.FILE) {
+					return true;
+				}
+				if (child.getKind() == IResourceDelta.REMOVED || (child.getFlags()
+						& (IResourceDelta.CONTENT | IResourceDelta.REPLACED | IResourceDelta.ENCODING)) != 0) {
+					invalidate(child.getResource().getFullPath().toString());
+				}
+				return false;
+			});
+		} catch (CoreException e) {
+			Tracer.trace().trace(Tracer.CONTEXTS, "Content cache delta failed", e); //$NON-NLS-1$
+		}
+	}
+
+	Entry pack(long stamp, String text) {
+		byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+		byte[] data = utf8;
+		int length = utf8.length;
+
+		if (compress && utf8.length >= COMPRESS_SIZE) {
+			Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+			try {
+				deflater.setInput(utf8);
+				deflater.finish();
+				byte[] deflated = new byte[utf8.length];
+				int size = deflater.deflate(deflated);
+				if (deflater.finished() && size < utf8.length) {
+					data = deflated;
+					length = size;
+				}
+			} finally {
+				deflater.end();
+			}
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocateDirect(length);
+		buffer.put(data, 0, length).flip();
+		return new Entry(stamp, buffer, utf8.length);
+	}
+
+	String unpack(Entry entry) {
+		ByteBuffer data = entry.data.duplicate();
+		if (data.capacity() == entry.size) {
+			return StandardCharsets.UTF_8.decode(data).toString();
+		}
+
+		byte[] utf8 = new byte[entry.size];
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(data);
+			inflater.inflate(utf8);
+		} catch (DataFormatException e) {
+			throw new IllegalStateException(e);
+		} finally {
+			inflater.end();
+		}
+		return new String(utf8, StandardCharsets.UTF_8);
+	}
+
+	static String decode(byte[] bytes, Charset charset) {
+		try {
+			return charset.newDecoder()
+					.onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE)
+					.decode(ByteBuffer.wrap(bytes)).toString();
+		} catch (CharacterCodingException e) {
+			return new String(bytes, charset);
+		}
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	public long getInvalidations() {
+		return invalidations.get();
+	}
+
+	public synchronized long getBytes() {
+		return bytes;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	@Override
+	public String toString() {
+		return size() + " entries / " + getBytes() + " bytes, " + getHits() + " hits / " + getMisses() + " misses / " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				+ getEvictions() + " evictions / " + getInvalidations() + " invalidations"; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
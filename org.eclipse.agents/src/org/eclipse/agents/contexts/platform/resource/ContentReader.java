@@ -0,0 +1,280 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.contexts.platform.resource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.eclipse.agents.MCPException;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Content;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+
+/**
+ * Reads one range of text content, selected by character offset and length or by line and
+ * line count, without materializing content before or after it.  The text returned never exceeds
+ * {@link #limit} UTF-8 bytes; whenever content follows the range a cursor is returned which
+ * continues reading where the range stopped.
+ */
+public class ContentReader {
+
+	public static final int DEFAULT_LIMIT = 256 * 1024;
+
+	private static final int BUFFER_SIZE = 8192;
+
+	Integer offset, length, startLine, lineCount;
+	String cursor;
+	int limit = DEFAULT_LIMIT;
+
+	/**
+	 * Reads everything up to the default limit
+	 */
+	public ContentReader() {}
+
+	/**
+	 * @param offset character offset to start from, ignored if <code>startLine</code> or <code>cursor</code> is set
+	 * @param length maximum number of characters to read
+	 * @param startLine zero-relative line to start from, ignored if <code>cursor</code> is set
+	 * @param lineCount maximum number of lines to read
+	 * @param cursor <code>nextCursor</code> of a previous read
+	 */
+	public ContentReader(Integer offset, Integer length, Integer startLine, Integer lineCount, String cursor) {
+		this.offset = offset;
+		this.length = length;
+		this.startLine = startLine;
+		this.lineCount = lineCount;
+		this.cursor = cursor;
+
+		if ((offset != null && offset < 0) || (startLine != null && startLine < 0)) {
+			throw new MCPException("offset and startLine must not be negative");
+		}
+		if ((length != null && length < 0) || (lineCount != null && lineCount < 0)) {
+			throw new MCPException("length and lineCount must not be negative");
+		}
+	}
+
+	public ContentReader setLimit(int limit) {
+		this.limit = limit;
+		return this;
+	}
+
+	/**
+	 * Reads from a file in its own charset, from the {@link ContentCache} or through a file channel
+	 * when the file is local and too large to cache
+	 */
+	public Content read(String uri, IFile file) {
+		try {
+			String text = ContentCache.getDefault().getText(file);
+			if (text != null) {
+				return read(uri, text);
+			}
+
+			Charset charset = Charset.forName(file.getCharset());
+			IPath location = file.getLocation();
+			ReadableByteChannel channel = location != null && location.toFile().isFile()
+					? FileChannel.open(Path.of(location.toOSString()), StandardOpenOption.READ)
+					: Channels.newChannel(file.getContents());
+
+			try (Reader reader = Channels.newReader(channel, charset.newDecoder()
+					.onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE), BUFFER_SIZE)) {
+				return read(uri, reader);
+			}
+		} catch (CoreException e) {
+			throw new MCPException(e);
+		} catch (IOException e) {
+			throw new MCPException(e);
+		}
+	}
+
+	/**
+	 * Reads from a document, seeking lines through the document's line information
+	 */
+	public Content read(String uri, IDocument document) {
+		Position start = start();
+		int begin = start.offset, line = start.line;
+		try {
+			if (start.offset < 0) {
+				if (startLine != null) {
+					if (startLine >= document.getNumberOfLines()) {
+						return new Content(uri, "", document.getLength(), startLine, null);
+					}
+					begin = document.getLineOffset(startLine);
+					line = startLine;
+				} else {
+					begin = Math.min(offset == null ? 0 : offset, document.getLength());
+					line = document.getLineOfOffset(begin);
+				}
+			}
+			begin = Math.min(begin, document.getLength());
+
+			// at most limit characters can fit in limit bytes
+			int end = Math.min(document.getLength(), begin + limit);
+			if (length != null) {
+				// one more, so a surrogate pair at the end is not split
+				end = Math.min(end, begin + length + 1);
+			}
+			if (lineCount != null && line + lineCount < document.getNumberOfLines()) {
+				end = Math.min(end, document.getLineOffset(line + lineCount));
+			}
+
+			Content content = collect(uri, new StringReader(document.get(begin, end - begin)), begin, line);
+			if (content.nextCursor() == null && begin + content.text().length() < document.getLength()) {
+				int next = begin + content.text().length();
+				content = new Content(uri, content.text(), begin, line,
+						new Position(next, document.getLineOfOffset(next)).toString());
+			}
+			return content;
+		} catch (BadLocationException e) {
+			throw new MCPException(e);
+		} catch (IOException e) {
+			throw new MCPException(e);
+		}
+	}
+
+	/**
+	 * Reads from a string, for adapters that only provide their full content
+	 */
+	public Content read(String uri, String text) {
+		try {
+			return read(uri, new StringReader(text == null ? "" : text));
+		} catch (IOException e) {
+			throw new MCPException(e);
+		}
+	}
+
+	/**
+	 * Reads from a character stream, content before the range is read and discarded
+	 */
+	public Content read(String uri, Reader reader) throws IOException {
+		if (!reader.markSupported()) {
+			reader = new BufferedReader(reader, BUFFER_SIZE);
+		}
+		Position start = start();
+		int position = 0, line = 0;
+		int target = start.offset >= 0 ? start.offset : startLine == null ? (offset == null ? 0 : offset) : -1;
+
+		if (start.offset >= 0) {
+			// the cursor was issued for this content, it is not counted again
+			line = start.line;
+			position = (int) reader.skip(start.offset);
+		} else {
+			char[] buffer = new char[BUFFER_SIZE];
+			while (target < 0 ? line < startLine : position < target) {
+				int max = target < 0 ? buffer.length : Math.min(buffer.length, target - position);
+				reader.mark(max);
+				int read = reader.read(buffer, 0, max);
+				if (read < 0) {
+					break;
+				}
+				int used = read;
+				for (int i = 0; i < read; i++) {
+					if (buffer[i] == '\n') {
+						line++;
+						if (target < 0 && line == startLine) {
+							used = i + 1;
+							break;
+						}
+					}
+				}
+				if (used < read) {
+					// went past the start line, rewind to just after its line delimiter
+					reader.reset();
+					reader.skip(used);
+				}
+				position += used;
+			}
+		}
+
+		return collect(uri, reader, position, line);
+	}
+
+	private Content collect(String uri, Reader reader, int begin, int line) throws IOException {
+		StringBuilder text = new StringBuilder();
+		int bytes = 0, lines = 0;
+		boolean more = false;
+
+		int c;
+		while ((c = reader.read()) >= 0) {
+			// a range ends before a surrogate pair rather than split it, a pair alone is read whole
+			boolean pair = Character.isLowSurrogate((char) c) && text.length() > 0
+					&& Character.isHighSurrogate(text.charAt(text.length() - 1));
+			if ((length != null && text.length() >= length && !pair) || (lineCount != null && lines >= lineCount)) {
+				more = true;
+				break;
+			}
+			if (length != null && text.length() > 0 && text.length() + 1 == length && Character.isHighSurrogate((char) c)) {
+				more = true;
+				break;
+			}
+			int size = c < 0x80 ? 1 : c < 0x800 ? 2 : Character.isSurrogate((char) c) ? 2 : 3;
+			if (bytes + size > limit || (Character.isHighSurrogate((char) c) && bytes + 4 > limit)) {
+				more = true;
+				break;
+			}
+			text.append((char) c);
+			bytes += size;
+			if (c == '\n') {
+				lines++;
+			}
+		}
+
+		String next = more ? new Position(begin + text.length(), line + lines).toString() : null;
+		return new Content(uri, text.toString(), begin, line, next);
+	}
+
+	private Position start() {
+		if (cursor == null || cursor.isBlank()) {
+			return new Position(-1, -1);
+		}
+		return Position.parse(cursor);
+	}
+
+	/**
+	 * Continuation cursor, the character offset and line to resume at
+	 */
+	record Position(int offset, int line) {
+
+		static Position parse(String cursor) {
+			try {
+				int separator = cursor.indexOf(':');
+				Position position = new Position(Integer.parseInt(cursor.substring(0, separator)),
+						Integer.parseInt(cursor.substring(separator + 1)));
+				if (position.offset >= 0 && position.line >= 0) {
+					return position;
+				}
+			} catch (RuntimeException e) {
+				// fall through
+			}
+			throw new MCPException("Invalid cursor: " + cursor);
+		}
+
+		@Override
+		public String toString() {
+			return offset + ":" + line;
+		}
+	}
+}
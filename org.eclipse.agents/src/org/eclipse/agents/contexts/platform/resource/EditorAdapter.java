@@ -13,22 +13,20 @@
  *******************************************************************************/
 package org.eclipse.agents.contexts.platform.resource;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
-import org.eclipse.agents.Activator;
 import org.eclipse.agents.MCPException;
 import org.eclipse.agents.Tracer;
+import org.eclipse.agents.UIExecutor;
 import org.eclipse.agents.contexts.adapters.IResourceTemplate;
+import org.eclipse.agents.contexts.adapters.UriTemplate;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Content;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Editor;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Editors;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.TextEditorSelection;
@@ -36,12 +34,13 @@ import org.eclipse.agents.contexts.platform.resource.ResourceSchema.TextSelectio
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
 import org.eclipse.jface.text.IMarkSelection;
 import org.eclipse.jface.text.ITextSelection;
 import org.eclipse.jface.viewers.ISelection;
 import org.eclipse.jface.viewers.ISelectionProvider;
-import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.IEditorInput;
 import org.eclipse.ui.IEditorPart;
 import org.eclipse.ui.IEditorReference;
@@ -55,15 +54,15 @@ import org.eclipse.ui.texteditor.ITextEditor;
 
 import io.modelcontextprotocol.spec.McpSchema;
 import io.modelcontextprotocol.spec.McpSchema.ResourceLink;
-import io.modelcontextprotocol.util.DefaultMcpUriTemplateManager;
 
 /**
  * support for resource template: eclipse://editor/{name}
  */
 public class EditorAdapter implements IResourceTemplate<IEditorReference, Editor> {
 
-	final String template = "eclipse://editor/{name}";
-	final String prefix = template.substring(0, template.indexOf("{"));
+	static final String template = "eclipse://editor/{name}";
+	static final String prefix = template.substring(0, template.indexOf("{"));
+	static final UriTemplate compiled = new UriTemplate(template);
 	IEditorReference editorReference = null;
 	
 	public EditorAdapter() {}
@@ -73,17 +72,28 @@ public class EditorAdapter implements IResourceTemplate<IEditorReference, Editor
 	}
 	
 	public EditorAdapter(String uri) {
-		DefaultMcpUriTemplateManager tm = new DefaultMcpUriTemplateManager(template);
-		if (tm.matches(uri)) {
-			Map<String, String> variables = tm.extractVariableValues(uri);
+		this(uri, compiled.match(uri));
+	}
+
+	/**
+	 * @param uri
+	 * @param variables values matched by {@link #template}, or null if not matched
+	 */
+	public EditorAdapter(String uri, Map<String, String> variables) {
+		if (variables != null && variables.get("name") != null) {
 			String name = variables.get("name");
 			name = URLDecoder.decode(name,StandardCharsets.UTF_8);
 
-			for (IWorkbenchWindow window: PlatformUI.getWorkbench().getWorkbenchWindows()) {
-				for (IWorkbenchPage page: window.getPages()) {
-					for (IEditorReference reference: page.getEditorReferences()) {
-						if (reference.getName().equals(name)) {
-							this.editorReference = reference;
+			WorkbenchMirror mirror = WorkbenchMirror.getDefault();
+			if (mirror.isReady()) {
+				this.editorReference = mirror.find(name);
+			} else {
+				for (IWorkbenchWindow window: PlatformUI.getWorkbench().getWorkbenchWindows()) {
+					for (IWorkbenchPage page: window.getPages()) {
+						for (IEditorReference reference: page.getEditorReferences()) {
+							if (reference.getName().equals(name)) {
+								this.editorReference = reference;
+							}
 						}
 					}
 				}
@@ -105,6 +115,11 @@ public class EditorAdapter implements IResourceTemplate<IEditorReference, Editor
 		return new EditorAdapter(uri);
 	}
 
+	@Override
+	public EditorAdapter fromUri(String uri, Map<String, String> variables) {
+		return new EditorAdapter(uri, variables);
+	}
+
 	@Override
 	public EditorAdapter fromModel(IEditorReference console) {
 		return new EditorAdapter(console);
@@ -117,6 +132,11 @@ public class EditorAdapter implements IResourceTemplate<IEditorReference, Editor
 
 	@Override
 	public Editor toJson() {
+		WorkbenchMirror.EditorState state = getState();
+		if (state != null) {
+			return WorkbenchMirror.getDefault().toJson(state);
+		}
+
 		String name = editorReference.getTitle();
 		boolean isDirty = editorReference.isDirty();
 		String contentDescription = editorReference.getContentDescription();
@@ -132,7 +152,7 @@ public class EditorAdapter implements IResourceTemplate<IEditorReference, Editor
 		
 		IEditorPart part = editorReference.getEditor(false);
 		if (part != null) {
-			Activator.getDisplay().syncExec(new Runnable() {
+			UIExecutor.getDefault().syncExec(new Runnable() {
 				@Override
 				public void run() {
 					IWorkbench workbench = PlatformUI.getWorkbench();
@@ -162,6 +182,11 @@ public class EditorAdapter implements IResourceTemplate<IEditorReference, Editor
 
 	@Override
 	public ResourceLink toResourceLink() {
+		WorkbenchMirror.EditorState state = getState();
+		if (state != null) {
+			return state.editor();
+		}
+
 		McpSchema.ResourceLink.Builder builder =  McpSchema.ResourceLink.builder();
 		
 		builder
@@ -169,7 +194,7 @@ public class EditorAdapter implements IResourceTemplate<IEditorReference, Editor
 			.name(editorReference.getTitle())
 			.description("Content of an Eclipse IDE Editor");
 		
-		Activator.getDisplay().syncExec(new Runnable() {
+		UIExecutor.getDefault().syncExec(new Runnable() {
 			@Override
 			public void run() {
 				IEditorPart part = editorReference.getEditor(false);
@@ -197,28 +222,25 @@ public class EditorAdapter implements IResourceTemplate<IEditorReference, Editor
 	public String toContent() {
 		
 		StringBuffer result = new StringBuffer();
-		Activator.getDisplay().syncExec(new Runnable() {
+		UIExecutor.getDefault().syncExec(new Runnable() {
 			@Override
 			public void run() {
 				IEditorPart part = editorReference.getEditor(true);
 				if (part instanceof ITextEditor) {
 					ITextEditor textEditor = (ITextEditor)part;
 					IDocument document = textEditor.getDocumentProvider().getDocument(part.getEditorInput());
-					result.append(document.get());
+					IEditorInput input = part.getEditorInput();
+					String key = input instanceof IFileEditorInput 
+							? ((IFileEditorInput)input).getFile().getFullPath().toString() : toUri();
+					result.append(ContentCache.getDefault().getText(key, document));
 				} else {
 					try {
 						IEditorInput input = editorReference.getEditorInput();
 						if (input instanceof IFileEditorInput) {
 							IFile file = ((IFileEditorInput)input).getFile();
 							
-							try (InputStreamReader reader = new InputStreamReader(
-									file.getContents(), file.getCharset())) {
-							       
-								BufferedReader breader = new BufferedReader(reader);
-								result.append(breader.lines().collect(Collectors.joining("\n"))); //$NON-NLS-1$
-								
-							}catch (UnsupportedEncodingException e) {
-								e.printStackTrace();
+							try {
+								result.append(ContentCache.getDefault().getLines(file));
 							} catch (CoreException e) {
 								e.printStackTrace();
 							} catch (IOException e1) {
@@ -233,6 +255,70 @@ public class EditorAdapter implements IResourceTemplate<IEditorReference, Editor
 		});
 		return result.toString();
 	}
+
+	@Override
+	public Content toContent(ContentReader reader) {
+		Content[] result = new Content[] { null };
+		UIExecutor.getDefault().syncExec(new Runnable() {
+			@Override
+			public void run() {
+				IEditorPart part = editorReference.getEditor(true);
+				if (part instanceof ITextEditor) {
+					ITextEditor textEditor = (ITextEditor)part;
+					IDocument document = textEditor.getDocumentProvider().getDocument(part.getEditorInput());
+					result[0] = reader.read(toUri(), document);
+				} else {
+					try {
+						IEditorInput input = editorReference.getEditorInput();
+						if (input instanceof IFileEditorInput) {
+							result[0] = reader.read(toUri(), ((IFileEditorInput)input).getFile());
+						}
+					} catch (PartInitException e) {
+						e.printStackTrace();
+					}
+				}
+			}
+		});
+		return result[0] != null ? result[0] : reader.read(toUri(), "");
+	}
+
+	@Override
+	public Runnable watch(Runnable changed) {
+		Runnable[] result = new Runnable[] { null };
+		UIExecutor.getDefault().syncExec(new Runnable() {
+			@Override
+			public void run() {
+				IEditorPart part = editorReference.getEditor(false);
+				if (part instanceof ITextEditor) {
+					ITextEditor textEditor = (ITextEditor)part;
+					IDocument document = textEditor.getDocumentProvider().getDocument(part.getEditorInput());
+					if (document != null) {
+						IDocumentListener listener = new IDocumentListener() {
+							@Override
+							public void documentAboutToBeChanged(DocumentEvent event) {}
+
+							@Override
+							public void documentChanged(DocumentEvent event) {
+								changed.run();
+							}
+						};
+						document.addDocumentListener(listener);
+						result[0] = () -> document.removeDocumentListener(listener);
+					}
+				} else {
+					try {
+						IEditorInput input = editorReference.getEditorInput();
+						if (input instanceof IFileEditorInput) {
+							result[0] = new WorkspaceResourceAdapter(((IFileEditorInput)input).getFile()).watch(changed);
+						}
+					} catch (PartInitException e) {
+						e.printStackTrace();
+					}
+				}
+			}
+		});
+		return result[0];
+	}
 	
 	// custom
 	
@@ -249,9 +335,14 @@ public class EditorAdapter implements IResourceTemplate<IEditorReference, Editor
 
 	
 	public TextSelection getTextSelection() {
+		WorkbenchMirror.EditorState state = getState();
+		if (state != null) {
+			return state.selection();
+		}
+
 		TextSelection[] result = new TextSelection[] { null };
 		
-		Display.getDefault().syncExec(new Runnable() {
+		UIExecutor.getDefault().syncExec(new Runnable() {
 			@Override
 			public void run() {
 				IEditorPart part = editorReference.getEditor(false);
@@ -263,44 +354,62 @@ public class EditorAdapter implements IResourceTemplate<IEditorReference, Editor
 					selection = ((ISelectionProvider)part).getSelection();
 				}
 
-				if (selection instanceof ITextSelection) {
-					ITextSelection textSelection = (ITextSelection) selection;
-					result[0] = new TextSelection(
-							textSelection.getOffset(),
-							textSelection.getLength(),
-							textSelection.getStartLine(),
-							textSelection.getEndLine(),
-							textSelection.getText());
-
-				} else if (selection instanceof IMarkSelection) {
-					IMarkSelection markSelection = (IMarkSelection) selection;
-					int offset = markSelection.getOffset();
-					int length = markSelection.getLength();
-					try {
-						result[0] = new TextSelection(
-								offset,
-								length,
-								markSelection.getDocument().getLineOfOffset(offset),
-								markSelection.getDocument().getLineOfOffset(offset + length),
-								markSelection.getDocument().get(offset, length));
-
-					} catch (BadLocationException e) {
-						e.printStackTrace();
-						result[0] = new TextSelection(
-								markSelection.getOffset(),
-								markSelection.getLength(),
-								(Integer)null, (Integer)null, null);
-					} 
-				}
+				result[0] = toTextSelection(selection);
 			}
 		});
 		return result[0];
 	}
+
+	/**
+	 * Must be called on the UI thread
+	 * @param selection
+	 * @return the selected text range, or null if <code>selection</code> is not textual
+	 */
+	static TextSelection toTextSelection(ISelection selection) {
+		if (selection instanceof ITextSelection) {
+			ITextSelection textSelection = (ITextSelection) selection;
+			return new TextSelection(
+					textSelection.getOffset(),
+					textSelection.getLength(),
+					textSelection.getStartLine(),
+					textSelection.getEndLine(),
+					textSelection.getText());
+
+		} else if (selection instanceof IMarkSelection) {
+			IMarkSelection markSelection = (IMarkSelection) selection;
+			int offset = markSelection.getOffset();
+			int length = markSelection.getLength();
+			try {
+				return new TextSelection(
+						offset,
+						length,
+						markSelection.getDocument().getLineOfOffset(offset),
+						markSelection.getDocument().getLineOfOffset(offset + length),
+						markSelection.getDocument().get(offset, length));
+
+			} catch (BadLocationException e) {
+				e.printStackTrace();
+				return new TextSelection(
+						markSelection.getOffset(),
+						markSelection.getLength(),
+						(Integer)null, (Integer)null, null);
+			} 
+		}
+		return null;
+	}
+
+	/**
+	 * @return the mirrored state of this editor, or null if the mirror is not ready
+	 */
+	private WorkbenchMirror.EditorState getState() {
+		WorkbenchMirror mirror = WorkbenchMirror.getDefault();
+		return mirror.isReady() ? mirror.getState(editorReference) : null;
+	}
 	
 	public static IEditorPart getActiveEditor() {
 		IEditorPart[] activeEditor = new IEditorPart[] { null };
 		
-		Display.getDefault().syncExec(new Runnable() {
+		UIExecutor.getDefault().syncExec(new Runnable() {
 			@Override
 			public void run() {
 				IWorkbench workbench = PlatformUI.getWorkbench();
@@ -319,6 +428,11 @@ public class EditorAdapter implements IResourceTemplate<IEditorReference, Editor
 	}
 	
 	public static Editors getEditors() {
+		WorkbenchMirror mirror = WorkbenchMirror.getDefault();
+		if (mirror.isReady()) {
+			return mirror.getEditors();
+		}
+
 		List<Editor> editors = new ArrayList<Editor>();
 		for (IWorkbenchWindow ww : PlatformUI.getWorkbench().getWorkbenchWindows()) {
 			for (IWorkbenchPage page : ww.getPages()) {
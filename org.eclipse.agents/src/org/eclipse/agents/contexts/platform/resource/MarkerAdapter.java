@@ -64,6 +64,19 @@ public class MarkerAdapter implements IResourceAdapter<Marker> {
 			throw new MCPException(e);
 		}
 	}
+
+	/**
+	 * @param marker
+	 * @param resource_link link to the marker's resource, shared with its other markers
+	 */
+	public MarkerAdapter(IMarker marker, McpSchema.ResourceLink resource_link) {
+		try {
+			processMarker(marker);
+			this.resource_link = resource_link;
+		} catch (Exception e) {
+			throw new MCPException(e);
+		}
+	}
 	
 	public MarkerAdapter(Annotation annotation, Position position, IDocument document, ITextEditor editor) {
 		try {
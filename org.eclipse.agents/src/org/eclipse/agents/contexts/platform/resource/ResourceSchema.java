@@ -68,7 +68,11 @@ public class ResourceSchema {
 	
 		@JsonPropertyDescription("The actual depth searched, may differ from input")
 		@JsonProperty
-		DEPTH depthSearched) {
+		DEPTH depthSearched,
+	
+		@JsonProperty(required = false)
+		@JsonPropertyDescription("present when more children follow, pass as cursor to list them")
+		String nextCursor) {
 		
 	}
 
@@ -178,6 +182,83 @@ public class ResourceSchema {
 		String text) {
 	}
 	
+	@JsonInclude(JsonInclude.Include.NON_ABSENT)
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	@JsonClassDescription("A range of the text content of a file, editor or console")
+	public record Content (
+
+		@JsonProperty
+		String uri,
+
+		@JsonProperty
+		@JsonPropertyDescription("the text read")
+		String text,
+
+		@JsonProperty
+		@JsonPropertyDescription("character offset of the first character read")
+		int offset,
+
+		@JsonProperty
+		@JsonPropertyDescription("zero-relative line of the first character read")
+		int startLine,
+
+		@JsonProperty(required = false)
+		@JsonPropertyDescription("present when more content follows, pass as cursor to continue reading")
+		String nextCursor) {
+	}
+
+	@JsonInclude(JsonInclude.Include.NON_ABSENT)
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	@JsonClassDescription("The range of a read that returned part of the content")
+	public record ContentRange (
+
+		@JsonProperty
+		@JsonPropertyDescription("character offset of the first character read")
+		int offset,
+
+		@JsonProperty
+		@JsonPropertyDescription("zero-relative line of the first character read")
+		int startLine,
+
+		@JsonProperty(required = false)
+		@JsonPropertyDescription("present when more content follows, pass as cursor to continue reading")
+		String nextCursor) {
+	}
+
+	@JsonInclude(JsonInclude.Include.NON_ABSENT)
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	@JsonClassDescription("A line of a workspace file matching a search")
+	public record SearchMatch (
+
+		@JsonProperty
+		McpSchema.ResourceLink file,
+
+		@JsonProperty
+		@JsonPropertyDescription("zero-relative line of the match")
+		int line,
+
+		@JsonProperty
+		@JsonPropertyDescription("text of the line, shortened if very long")
+		String text) {
+	}
+
+	@JsonInclude(JsonInclude.Include.NON_ABSENT)
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	@JsonClassDescription("Lines of workspace files matching a search")
+	public record SearchResults (
+
+		@JsonProperty
+		SearchMatch[] matches,
+
+		@JsonProperty
+		@JsonPropertyDescription("true if more matches exist than the limit")
+		boolean truncated,
+
+		@JsonProperty
+		@JsonPropertyDescription("true while the workspace is still being indexed, changed files are searched directly")
+		boolean indexing) {
+	}
+
 	@JsonInclude(JsonInclude.Include.NON_ABSENT)
 	@JsonIgnoreProperties(ignoreUnknown = true)
 	@JsonClassDescription("A single text replacement")
@@ -250,13 +331,47 @@ public class ResourceSchema {
 	@JsonIgnoreProperties(ignoreUnknown = true)
 	public record Problems (
 		@JsonProperty(value = "problems")
-		Marker[] problems) {}
+		Marker[] problems,
+
+		@JsonProperty(required = false)
+		@JsonPropertyDescription("present when more problems follow, pass as cursor to list them")
+		String nextCursor,
+
+		@JsonProperty(required = false)
+		@JsonPropertyDescription("ids of the problems removed since sinceToken or no longer matching severity and markerType, present when listing since a token")
+		long[] removed,
+
+		@JsonProperty(required = false)
+		@JsonPropertyDescription("pass as sinceToken to list only the problems changed or removed after this listing")
+		String token) {
+
+		public Problems(Marker[] problems) {
+			this(problems, null, null, null);
+		}
+	}
 
 	@JsonInclude(JsonInclude.Include.NON_ABSENT)
 	@JsonIgnoreProperties(ignoreUnknown = true)
 	public record Tasks (
 			@JsonProperty(value = "tasks")
-			Marker[] tasks) {}
+			Marker[] tasks,
+
+			@JsonProperty(required = false)
+			@JsonPropertyDescription("present when more tasks follow, pass as cursor to list them")
+			String nextCursor,
+
+			@JsonProperty(required = false)
+			@JsonPropertyDescription("ids of the tasks removed since sinceToken or no longer matching markerType, present when listing since a token")
+			long[] removed,
+
+			@JsonProperty(required = false)
+			@JsonPropertyDescription("pass as sinceToken to list only the tasks changed or removed after this listing")
+			String token) {
+
+		public Tasks(Marker[] tasks) {
+			this(tasks, null, null, null);
+		}
+	}
 	
 	@JsonInclude(JsonInclude.Include.NON_ABSENT)
 	@JsonIgnoreProperties(ignoreUnknown = true)
@@ -0,0 +1,468 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.contexts.platform.resource;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.agents.Activator;
+import org.eclipse.agents.Tracer;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Editor;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Editors;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.TextEditorSelection;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.TextSelection;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.jface.viewers.IPostSelectionProvider;
+import org.eclipse.jface.viewers.ISelectionChangedListener;
+import org.eclipse.jface.viewers.ISelectionProvider;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.IEditorInput;
+import org.eclipse.ui.IEditorPart;
+import org.eclipse.ui.IEditorReference;
+import org.eclipse.ui.IFileEditorInput;
+import org.eclipse.ui.IPageListener;
+import org.eclipse.ui.IPartListener2;
+import org.eclipse.ui.IPropertyListener;
+import org.eclipse.ui.IWindowListener;
+import org.eclipse.ui.IWorkbench;
+import org.eclipse.ui.IWorkbenchPage;
+import org.eclipse.ui.IWorkbenchPartReference;
+import org.eclipse.ui.IWorkbenchWindow;
+import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.texteditor.ITextEditor;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.ResourceLink;
+
+/**
+ * Mirror of the open editors, the active editor and their selections, so tools can read them
+ * from any thread without waiting for the UI thread.
+ *
+ * The mirror is maintained on the UI thread by window, page, part, property, selection and
+ * document listeners, each of which publishes a new immutable {@link Snapshot}.  Until it is
+ * installed {@link #isReady()} is false and callers read the workbench directly.
+ */
+public class WorkbenchMirror {
+
+	private static WorkbenchMirror instance;
+
+	/**
+	 * @param reference
+	 * @param name name of the reference, as matched by editor uris
+	 * @param editor link to the editor's content, with the document length for text editors
+	 * @param file link to the edited workspace file, if any, without its size as the file may
+	 * change on disk at any time
+	 * @param isDirty
+	 * @param selection text selected, null if not a text editor or not yet restored
+	 */
+	public record EditorState(IEditorReference reference, String name, ResourceLink editor, ResourceLink file,
+			boolean isDirty, TextSelection selection) {
+
+		public String getTitle() {
+			return editor.name();
+		}
+	}
+
+	/**
+	 * @param editors open editors in the order of their windows and pages
+	 * @param active active editor of the active page, or null
+	 */
+	public record Snapshot(EditorState[] editors, IEditorReference active) {}
+
+	/**
+	 * Listeners and last read state of one editor, only used on the UI thread
+	 */
+	class Tracked {
+		IEditorReference reference;
+		IEditorPart part;
+		IDocument document;
+		ISelectionProvider selectionProvider;
+		ResourceLink file;
+		TextSelection selection;
+		EditorState state;
+
+		IPropertyListener propertyListener = (source, property) -> {
+			if (property == IEditorPart.PROP_INPUT) {
+				detach();
+				attach();
+			}
+			update(this);
+		};
+
+		IDocumentListener documentListener = new IDocumentListener() {
+			@Override
+			public void documentAboutToBeChanged(DocumentEvent event) {}
+
+			@Override
+			public void documentChanged(DocumentEvent event) {
+				update(Tracked.this);
+			}
+		};
+
+		ISelectionChangedListener selectionListener = event -> {
+			selection = EditorAdapter.toTextSelection(event.getSelection());
+			update(this);
+		};
+
+		Tracked(IEditorReference reference) {
+			this.reference = reference;
+			reference.addPropertyListener(propertyListener);
+			attach();
+		}
+
+		/**
+		 * Listens to the part once it is restored
+		 */
+		void attach() {
+			part = reference.getEditor(false);
+			if (part == null) {
+				return;
+			}
+			file = fileLink();
+			if (part instanceof ITextEditor) {
+				ITextEditor textEditor = (ITextEditor)part;
+				document = textEditor.getDocumentProvider() == null ? null
+						: textEditor.getDocumentProvider().getDocument(part.getEditorInput());
+				if (document != null) {
+					document.addDocumentListener(documentListener);
+				}
+				selectionProvider = textEditor.getSelectionProvider();
+			} else if (part.getSite() != null) {
+				selectionProvider = part.getSite().getSelectionProvider();
+			}
+			if (selectionProvider instanceof IPostSelectionProvider) {
+				((IPostSelectionProvider)selectionProvider).addPostSelectionChangedListener(selectionListener);
+			} else if (selectionProvider != null) {
+				selectionProvider.addSelectionChangedListener(selectionListener);
+			}
+			selection = selectionProvider == null ? null : EditorAdapter.toTextSelection(selectionProvider.getSelection());
+		}
+
+		void detach() {
+			if (document != null) {
+				document.removeDocumentListener(documentListener);
+			}
+			if (selectionProvider instanceof IPostSelectionProvider) {
+				((IPostSelectionProvider)selectionProvider).removePostSelectionChangedListener(selectionListener);
+			} else if (selectionProvider != null) {
+				selectionProvider.removeSelectionChangedListener(selectionListener);
+			}
+			part = null;
+			document = null;
+			selectionProvider = null;
+			selection = null;
+		}
+
+		void dispose() {
+			detach();
+			reference.removePropertyListener(propertyListener);
+		}
+
+		ResourceLink fileLink() {
+			try {
+				IEditorInput input = part == null ? null : part.getEditorInput();
+				if (input instanceof IFileEditorInput) {
+					ResourceLink link = new WorkspaceResourceAdapter(((IFileEditorInput)input).getFile()).toResourceLink();
+					return new ResourceLink(link.name(), link.title(), link.uri(), link.description(), link.mimeType(), null,
+							link.annotations(), link.meta());
+				}
+			} catch (RuntimeException e) {
+				Tracer.trace().trace(Tracer.PLATFORM, "Failed to link editor input", e); //$NON-NLS-1$
+			}
+			return null;
+		}
+
+		EditorState read() {
+			String title = reference.getTitle();
+			McpSchema.ResourceLink.Builder builder = McpSchema.ResourceLink.builder()
+					.uri(EditorAdapter.prefix + URLEncoder.encode(title, StandardCharsets.UTF_8))
+					.name(title)
+					.description("Content of an Eclipse IDE Editor"); //$NON-NLS-1$
+			if (document != null) {
+				builder.mimeType("text/plain").size((long)document.getLength()); //$NON-NLS-1$
+			}
+			return new EditorState(reference, reference.getName(), builder.build(), file, reference.isDirty(), selection);
+		}
+	}
+
+	// only used on the UI thread
+	Map<IEditorReference, Tracked> tracked = new LinkedHashMap<IEditorReference, Tracked>();
+	IEditorReference active;
+
+	volatile Snapshot snapshot = new Snapshot(new EditorState[0], null);
+	volatile boolean ready = false;
+	boolean started = false;
+	boolean disposed = false;
+
+	IWindowListener windowListener = new IWindowListener() {
+		@Override
+		public void windowActivated(IWorkbenchWindow window) {
+			sync();
+		}
+		@Override
+		public void windowClosed(IWorkbenchWindow window) {
+			sync();
+		}
+		@Override
+		public void windowDeactivated(IWorkbenchWindow window) {}
+		@Override
+		public void windowOpened(IWorkbenchWindow window) {
+			hook(window);
+			sync();
+		}
+	};
+
+	IPageListener pageListener = new IPageListener() {
+		@Override
+		public void pageActivated(IWorkbenchPage page) {
+			sync();
+		}
+		@Override
+		public void pageClosed(IWorkbenchPage page) {
+			sync();
+		}
+		@Override
+		public void pageOpened(IWorkbenchPage page) {
+			page.addPartListener(partListener);
+			sync();
+		}
+	};
+
+	IPartListener2 partListener = new IPartListener2() {
+		@Override
+		public void partActivated(IWorkbenchPartReference reference) {
+			if (reference instanceof IEditorReference) {
+				active = (IEditorReference)reference;
+				publish();
+			}
+		}
+		@Override
+		public void partOpened(IWorkbenchPartReference reference) {
+			if (reference instanceof IEditorReference) {
+				sync();
+			}
+		}
+		@Override
+		public void partClosed(IWorkbenchPartReference reference) {
+			if (reference instanceof IEditorReference) {
+				sync();
+			}
+		}
+		@Override
+		public void partInputChanged(IWorkbenchPartReference reference) {
+			Tracked editor = tracked.get(reference);
+			if (editor != null) {
+				editor.detach();
+				editor.attach();
+				update(editor);
+			}
+		}
+	};
+
+	public static synchronized WorkbenchMirror getDefault() {
+		if (instance == null) {
+			instance = new WorkbenchMirror();
+		}
+		return instance;
+	}
+
+	public static synchronized void disposeDefault() {
+		if (instance != null) {
+			instance.dispose();
+			instance = null;
+		}
+	}
+
+	/**
+	 * Installs the listeners on the UI thread, once
+	 */
+	public synchronized void start() {
+		if (started || !PlatformUI.isWorkbenchRunning()) {
+			return;
+		}
+		started = true;
+		Activator.getDisplay().asyncExec(this::install);
+	}
+
+	private void install() {
+		if (disposed || PlatformUI.getWorkbench().isClosing()) {
+			return;
+		}
+		IWorkbench workbench = PlatformUI.getWorkbench();
+		workbench.addWindowListener(windowListener);
+		for (IWorkbenchWindow window: workbench.getWorkbenchWindows()) {
+			hook(window);
+		}
+		sync();
+		ready = true;
+	}
+
+	private void hook(IWorkbenchWindow window) {
+		window.addPageListener(pageListener);
+		for (IWorkbenchPage page: window.getPages()) {
+			page.addPartListener(partListener);
+		}
+	}
+
+	public void dispose() {
+		disposed = true;
+		ready = false;
+		Display display = Display.getDefault();
+		if (started && !display.isDisposed()) {
+			display.asyncExec(() -> {
+				if (PlatformUI.isWorkbenchRunning()) {
+					IWorkbench workbench = PlatformUI.getWorkbench();
+					workbench.removeWindowListener(windowListener);
+					for (IWorkbenchWindow window: workbench.getWorkbenchWindows()) {
+						window.removePageListener(pageListener);
+						for (IWorkbenchPage page: window.getPages()) {
+							page.removePartListener(partListener);
+						}
+					}
+				}
+				for (Tracked editor: tracked.values()) {
+					editor.dispose();
+				}
+				tracked.clear();
+			});
+		}
+	}
+
+	/**
+	 * Tracks editors opened, restored or closed since the last sync and the active editor
+	 */
+	void sync() {
+		if (disposed) {
+			return;
+		}
+		Set<IEditorReference> open = new HashSet<IEditorReference>();
+		Map<IEditorReference, Tracked> next = new LinkedHashMap<IEditorReference, Tracked>();
+		for (IWorkbenchWindow window: PlatformUI.getWorkbench().getWorkbenchWindows()) {
+			for (IWorkbenchPage page: window.getPages()) {
+				for (IEditorReference reference: page.getEditorReferences()) {
+					open.add(reference);
+					Tracked editor = tracked.get(reference);
+					if (editor == null) {
+						editor = new Tracked(reference);
+					} else if (editor.part == null && reference.getEditor(false) != null) {
+						editor.attach();
+					}
+					editor.state = editor.read();
+					next.put(reference, editor);
+				}
+			}
+		}
+		for (Tracked editor: tracked.values()) {
+			if (!open.contains(editor.reference)) {
+				editor.dispose();
+			}
+		}
+		tracked = next;
+
+		active = null;
+		IWorkbenchWindow window = PlatformUI.getWorkbench().getActiveWorkbenchWindow();
+		IWorkbenchPage page = window == null ? null : window.getActivePage();
+		IEditorPart part = page == null ? null : page.getActiveEditor();
+		if (part != null) {
+			IWorkbenchPartReference reference = page.getReference(part);
+			if (reference instanceof IEditorReference) {
+				active = (IEditorReference)reference;
+			}
+		}
+		publish();
+	}
+
+	void update(Tracked editor) {
+		if (!disposed && tracked.get(editor.reference) == editor) {
+			editor.state = editor.read();
+			publish();
+		}
+	}
+
+	void publish() {
+		snapshot = new Snapshot(tracked.values().stream().map(editor -> editor.state).toArray(EditorState[]::new), active);
+	}
+
+	/**
+	 * @return true once the mirror is current and may be read instead of the workbench
+	 */
+	public boolean isReady() {
+		return ready;
+	}
+
+	public Snapshot getSnapshot() {
+		return snapshot;
+	}
+
+	public EditorState getState(IEditorReference reference) {
+		for (EditorState state: snapshot.editors) {
+			if (state.reference == reference) {
+				return state;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @param name name of an editor reference
+	 * @return the last open editor with this name, or null
+	 */
+	public IEditorReference find(String name) {
+		IEditorReference result = null;
+		for (EditorState state: snapshot.editors) {
+			if (state.name.equals(name)) {
+				result = state.reference;
+			}
+		}
+		return result;
+	}
+
+	public Editor toJson(EditorState state) {
+		return new Editor(state.getTitle(), state.editor, state.file, state.reference == snapshot.active, state.isDirty);
+	}
+
+	public Editors getEditors() {
+		Snapshot snapshot = this.snapshot;
+		Editor[] editors = new Editor[snapshot.editors.length];
+		for (int i = 0; i < editors.length; i++) {
+			EditorState state = snapshot.editors[i];
+			editors[i] = new Editor(state.getTitle(), state.editor, state.file, state.reference == snapshot.active, state.isDirty);
+		}
+		return new Editors(editors);
+	}
+
+	/**
+	 * @return the active editor and its selection, or null if no editor is active
+	 */
+	public TextEditorSelection getActiveSelection() {
+		Snapshot snapshot = this.snapshot;
+		for (EditorState state: snapshot.editors) {
+			if (state.reference == snapshot.active) {
+				return new TextEditorSelection(new Editor(state.getTitle(), state.editor, state.file, true, state.isDirty), state.selection);
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public String toString() {
+		return (ready ? "" : "not ready, ") + snapshot.editors.length + " editors"; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
@@ -13,20 +13,17 @@
  *******************************************************************************/
 package org.eclipse.agents.contexts.platform.resource;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.eclipse.agents.MCPException;
 import org.eclipse.agents.contexts.adapters.IResourceHierarchy;
+import org.eclipse.agents.contexts.adapters.UriTemplate;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Children;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Content;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.DEPTH;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.File;
 import org.eclipse.core.filesystem.EFS;
@@ -37,7 +34,9 @@ import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
-import org.eclipse.core.resources.IResourceVisitor;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
@@ -45,16 +44,16 @@ import org.eclipse.core.runtime.CoreException;
 
 import io.modelcontextprotocol.spec.McpSchema;
 import io.modelcontextprotocol.spec.McpSchema.ResourceLink;
-import io.modelcontextprotocol.util.DefaultMcpUriTemplateManager;
 
 /**
  * support for resource template: file://workspace/{relativePath}
  */
 public class WorkspaceResourceAdapter implements IResourceHierarchy<IResource, File> {
 	
-	final String relativeTemplate = "file://workspace/{relativePath}";
-	final String relativePrefix = relativeTemplate.substring(0, relativeTemplate.indexOf("{"));
-	final String absolutePrefix = "file:/";
+	static final String relativeTemplate = "file://workspace/{relativePath}";
+	static final String relativePrefix = relativeTemplate.substring(0, relativeTemplate.indexOf("{"));
+	static final String absolutePrefix = "file:/";
+	static final UriTemplate relative = new UriTemplate(relativeTemplate);
 
 	IResource resource;
 	
@@ -64,33 +63,26 @@ public class WorkspaceResourceAdapter implements IResourceHierarchy<IResource, F
 		this.resource = resource;
 	}
 	
-	@Override
-	public boolean matches(String uri) {
-		if (IResourceHierarchy.super.matches(uri)) {
-			// uri has escaped slashes
-			return true;
-		} else if (uri.startsWith(relativePrefix)) {
-			// uri has unescaped slashes
-			return true;
-		} else if (uri.startsWith(absolutePrefix)) {
-			// uri has unescaped slashes
-			return true;
-		}
-		return false;
+	public WorkspaceResourceAdapter(String uri) {
+		this(uri, relative.match(uri));
 	}
 
-	public WorkspaceResourceAdapter(String uri) {
+	/**
+	 * @param uri
+	 * @param variables values matched by {@link #relativeTemplate}, or null or empty if not matched
+	 */
+	public WorkspaceResourceAdapter(String uri, Map<String, String> variables) {
 		
-		DefaultMcpUriTemplateManager relative = new DefaultMcpUriTemplateManager(relativeTemplate);
 		String relativePath = null, absolutePath = null;
 		boolean isRelative = false;
 		
-		if (relative.matches(uri)) {
-			Map<String, String> variables = relative.extractVariableValues(uri);
+		if (variables != null && variables.get("relativePath") != null) {
+			// uri has escaped slashes
 			relativePath = variables.get("relativePath");
 			relativePath = URLDecoder.decode(relativePath, StandardCharsets.UTF_8);
 			isRelative = true;
 		} else if (uri.startsWith(relativePrefix)) {
+			// uri has unescaped slashes
 			relativePath = uri.substring(relativePrefix.length());
 			isRelative = true;
 		} else if (uri.equals("file://workspace")) {
@@ -134,11 +126,24 @@ public class WorkspaceResourceAdapter implements IResourceHierarchy<IResource, F
 		};
 	}
 	
+	@Override
+	public String[] getPrefixes() {
+		return new String[] {
+			relativePrefix,
+			absolutePrefix
+		};
+	}
+	
 	@Override
 	public WorkspaceResourceAdapter fromUri(String uri) {
 		return new WorkspaceResourceAdapter(uri);
 	}
 
+	@Override
+	public WorkspaceResourceAdapter fromUri(String uri, Map<String, String> variables) {
+		return new WorkspaceResourceAdapter(uri, variables);
+	}
+
 	@Override
 	public WorkspaceResourceAdapter fromModel(IResource console) {
 		return new WorkspaceResourceAdapter(console);
@@ -146,31 +151,19 @@ public class WorkspaceResourceAdapter implements IResourceHierarchy<IResource, F
 
 	@Override
 	public Children<File> getChildren(DEPTH depth) {
-		
-		List<File> children = new ArrayList<File>();
-		if (depth == null) {
-			depth = DEPTH.CHILDREN;
-		}
-		
+		return getChildren(depth, new ChildrenQuery());
+	}
+
+	/**
+	 * @param depth
+	 * @param query page, filters and whether to include sizes
+	 * @return a page of children, empty if the resource is not a container
+	 */
+	public Children<File> getChildren(DEPTH depth, ChildrenQuery query) {
 		if (resource instanceof IContainer) {
-			try {
-				for (IResource child: ((IContainer)resource).members()) {
-					child.accept(new IResourceVisitor() {
-						@Override
-						public boolean visit(IResource child) throws CoreException {
-							if (child != resource) {
-								children.add(new WorkspaceResourceAdapter(child).toJson());
-							}
-							return true;
-						}
-					}, depth.value(), false);
-				}
-			} catch (CoreException e) {
-				e.printStackTrace();
-			}
+			return query.list((IContainer)resource, depth);
 		}
-		
-		return new Children<File>(children.toArray(File[]::new), depth);
+		return new Children<File>(new File[0], depth == null ? DEPTH.CHILDREN : depth, null);
 	}
 
 	@Override
@@ -224,10 +217,7 @@ public class WorkspaceResourceAdapter implements IResourceHierarchy<IResource, F
 		String content = null;
 		if (resource instanceof IFile) {
 			try {
-				InputStreamReader reader = new InputStreamReader(((IFile)resource).getContents());
-				BufferedReader breader = new BufferedReader(reader);
-				content = breader.lines().collect(Collectors.joining("\n")); //$NON-NLS-1$
-				breader.close();
+				content = ContentCache.getDefault().getLines((IFile)resource);
 			} catch (CoreException e) {
 				e.printStackTrace();
 			} catch (IOException e) {
@@ -236,4 +226,32 @@ public class WorkspaceResourceAdapter implements IResourceHierarchy<IResource, F
 		}
 		return content;
 	}
+
+	@Override
+	public Content toContent(ContentReader reader) {
+		if (resource instanceof IFile) {
+			return reader.read(toUri(), (IFile)resource);
+		}
+		return reader.read(toUri(), (String)null);
+	}
+
+	@Override
+	public Runnable watch(Runnable changed) {
+		IResource resource = this.resource;
+		IResourceChangeListener listener = event -> {
+			IResourceDelta delta = event.getDelta();
+			IResourceDelta member = delta == null ? null : delta.findMember(resource.getFullPath());
+			if (member == null) {
+				return;
+			}
+			// a container changes with any of its children, a file only when its content does
+			if (resource.getType() != IResource.FILE || member.getKind() != IResourceDelta.CHANGED
+					|| (member.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED | IResourceDelta.ENCODING)) != 0) {
+				changed.run();
+			}
+		};
+		IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		workspace.addResourceChangeListener(listener, IResourceChangeEvent.POST_CHANGE);
+		return () -> workspace.removeResourceChangeListener(listener);
+	}
 }
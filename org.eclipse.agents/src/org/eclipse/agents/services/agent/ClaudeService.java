@@ -24,6 +24,7 @@ import org.eclipse.agents.chat.EnableMCPDialog;
 import org.eclipse.agents.preferences.IPreferenceConstants;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.agents.Activator;
+import org.eclipse.agents.UIExecutor;
 
 public class ClaudeService extends AbstractService implements IPreferenceConstants {
 
@@ -66,7 +67,7 @@ public class ClaudeService extends AbstractService implements IPreferenceConstan
 
             if (Activator.getDefault().getPreferenceStore().getBoolean(P_ACP_PROMPT4MCP)) {
                 if (!Activator.getDefault().getPreferenceStore().getBoolean(P_MCP_SERVER_ENABLED)) {
-                    Activator.getDisplay().syncExec(new Runnable() {
+                    UIExecutor.getDefault().syncExec(new Runnable() {
                         @Override
                         public void run() {
                             EnableMCPDialog dialog = new EnableMCPDialog(Activator.getDisplay().getActiveShell());
@@ -22,6 +22,7 @@ import java.util.Arrays;
 
 import org.eclipse.agents.Activator;
 import org.eclipse.agents.Tracer;
+import org.eclipse.agents.UIExecutor;
 import org.eclipse.agents.chat.EnableMCPDialog;
 import org.eclipse.agents.preferences.IPreferenceConstants;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -90,7 +91,7 @@ public class GeminiService extends AbstractService implements IPreferenceConstan
 			
 			if (Activator.getDefault().getPreferenceStore().getBoolean(P_ACP_PROMPT4MCP)) {
 				if (!Activator.getDefault().getPreferenceStore().getBoolean(P_MCP_SERVER_ENABLED)) {
-					Activator.getDisplay().syncExec(new Runnable() {
+					UIExecutor.getDefault().syncExec(new Runnable() {
 						@Override
 						public void run() {
 							// TODO Auto-generated method stub
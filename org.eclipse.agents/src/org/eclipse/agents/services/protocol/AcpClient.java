@@ -19,10 +19,14 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.eclipse.agents.Activator;
 import org.eclipse.agents.Tracer;
+import org.eclipse.agents.UIExecutor;
 import org.eclipse.agents.chat.controller.AgentController;
+import org.eclipse.agents.contexts.platform.resource.ContentCache;
 import org.eclipse.agents.services.agent.IAgentService;
 import org.eclipse.agents.services.protocol.AcpSchema.CreateTerminalRequest;
 import org.eclipse.agents.services.protocol.AcpSchema.CreateTerminalResponse;
@@ -82,7 +86,7 @@ public class AcpClient implements IAcpClient {
 	@Override
 	public CompletableFuture<RequestPermissionResponse> requestPermission(RequestPermissionRequest request) {
 		CompletableFuture<RequestPermissionResponse>  future = new CompletableFuture<RequestPermissionResponse>();
-		Activator.getDisplay().syncExec(new Runnable() {
+		UIExecutor.getDefault().syncExec(new Runnable() {
 			public void run() {
 				SelectionDialog dialog = new SelectionDialog(Activator.getDisplay().getActiveShell()) {
 
@@ -132,7 +136,7 @@ public class AcpClient implements IAcpClient {
 	public CompletableFuture<ReadTextFileResponse> readTextFile(ReadTextFileRequest request) {
 		Path  absolutePath = new Path(request.path());
 		CompletableFuture<ReadTextFileResponse> result = new CompletableFuture<ReadTextFileResponse>();
-		Activator.getDisplay().syncExec(new Runnable() {
+		UIExecutor.getDefault().syncExec(new Runnable() {
 			public void run() {
 				ITextEditor editor = findFileEditor(absolutePath);
 				if (editor != null) {
@@ -168,6 +172,16 @@ public class AcpClient implements IAcpClient {
 				int lineLimit = request.limit() == null ? -1 : request.limit();
 				
 				try {
+					String text = ContentCache.getDefault().getText(file);
+					if (text != null) {
+						Stream<String> lines = text.lines().skip(firstLine);
+						if (lineLimit != -1) {
+							lines = lines.limit(lineLimit);
+						}
+						result.complete(new ReadTextFileResponse(null, lines.collect(Collectors.joining("\n"))));
+						return result;
+					}
+
 					InputStreamReader reader = new InputStreamReader(((IFile)file).getContents());
 					BufferedReader breader = new BufferedReader(reader);
 					int i = 0;
@@ -204,7 +218,7 @@ public class AcpClient implements IAcpClient {
 	public CompletableFuture<WriteTextFileResponse> writeTextFile(WriteTextFileRequest request) {
 		Path  absolutePath = new Path(request.path());
 		CompletableFuture<WriteTextFileResponse> result = new CompletableFuture<WriteTextFileResponse>();
-		Activator.getDisplay().syncExec(new Runnable() {
+		UIExecutor.getDefault().syncExec(new Runnable() {
 			public void run() {
 				ITextEditor editor = findFileEditor(absolutePath);
 				if (editor != null) {
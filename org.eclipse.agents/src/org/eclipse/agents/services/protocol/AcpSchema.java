@@ -15,6 +15,7 @@ package org.eclipse.agents.services.protocol;
 
 import java.util.Map;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -730,7 +731,15 @@ public class AcpSchema {
 			@JsonProperty(required = true)
 			String sessionId,
 			@JsonProperty(required = true)
-			SessionUpdate update) implements AgentNotification {}
+			SessionUpdate update,
+			// JSON of a message or thought chunk as the agent sent it, null for other updates
+			@JsonIgnore
+			String updateJson) implements AgentNotification {
+
+		public SessionNotification(Map<String, Object> meta, String sessionId, SessionUpdate update) {
+			this(meta, sessionId, update, null);
+		}
+	}
    
 
 
@@ -14,6 +14,7 @@
 package org.eclipse.agents.services.protocol;
 
 import java.io.IOException;
+import java.util.Map;
 
 import org.eclipse.agents.services.protocol.AcpSchema.AudioBlock;
 import org.eclipse.agents.services.protocol.AcpSchema.BlobResourceContents;
@@ -26,6 +27,7 @@ import org.eclipse.agents.services.protocol.AcpSchema.SessionAgentMessageChunk;
 import org.eclipse.agents.services.protocol.AcpSchema.SessionAgentThoughtChunk;
 import org.eclipse.agents.services.protocol.AcpSchema.SessionAvailableCommandsUpdate;
 import org.eclipse.agents.services.protocol.AcpSchema.SessionModeUpdate;
+import org.eclipse.agents.services.protocol.AcpSchema.SessionNotification;
 import org.eclipse.agents.services.protocol.AcpSchema.SessionPlan;
 import org.eclipse.agents.services.protocol.AcpSchema.SessionToolCall;
 import org.eclipse.agents.services.protocol.AcpSchema.SessionToolCallUpdate;
@@ -40,9 +42,11 @@ import org.eclipse.agents.services.protocol.AcpSchema.ToolCallContentTerminal;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
 
@@ -57,6 +61,7 @@ public class AcpSchemaTypeAdapters {
 	}
 	
 	public void registerTypeAdapters(GsonBuilder builder) {
+		builder.registerTypeAdapter(SessionNotification.class, new SessionNotificationAdapter());
 		builder.registerTypeAdapter(SessionUpdate.class, new SessionUpdateAdapter());
 		builder.registerTypeAdapter(ContentBlock.class, new ContentBlockAdapter());
 		builder.registerTypeAdapter(EmbeddedResourceResource.class, new EmbeddedResourceResourcekAdapter());
@@ -70,6 +75,46 @@ public class AcpSchemaTypeAdapters {
 		}
 	}
 	
+	/**
+	 * Keeps the JSON of message and thought chunks on their notification, so they are passed on
+	 * to the chat page without serializing them again
+	 */
+	class SessionNotificationAdapter extends AbstractTypeAdapter<SessionNotification> {
+		@Override
+		public SessionNotification read(JsonReader in) throws IOException {
+			if (in.peek() == com.google.gson.stream.JsonToken.NULL) {
+				in.nextNull();
+				return null;
+			}
+
+			JsonObject jsonObject = JsonParser.parseReader(in).getAsJsonObject();
+			Map<String, Object> meta = gson.fromJson(jsonObject.get("_meta"), new TypeToken<Map<String, Object>>() {}.getType());
+			JsonElement sessionId = jsonObject.get("sessionId");
+			JsonElement updateJson = jsonObject.get("update");
+			SessionUpdate update = gson.fromJson(updateJson, SessionUpdate.class);
+			boolean chunk = update instanceof SessionUserMessageChunk || update instanceof SessionAgentMessageChunk
+					|| update instanceof SessionAgentThoughtChunk;
+			return new SessionNotification(meta, sessionId == null ? null : sessionId.getAsString(), update,
+					chunk ? updateJson.toString() : null);
+		}
+
+		@Override
+		public void write(JsonWriter out, SessionNotification value) throws IOException {
+			if (value == null) {
+				out.nullValue();
+				return;
+			}
+			// the kept JSON is not written
+			JsonObject jsonObject = new JsonObject();
+			if (value.meta() != null) {
+				jsonObject.add("_meta", gson.toJsonTree(value.meta()));
+			}
+			jsonObject.addProperty("sessionId", value.sessionId());
+			jsonObject.add("update", gson.toJsonTree(value.update()));
+			gson.toJson(jsonObject, out);
+		}
+	}
+
 	class SessionUpdateAdapter extends AbstractTypeAdapter<SessionUpdate> {
 		@Override
 		public SessionUpdate read(JsonReader in) throws IOException {